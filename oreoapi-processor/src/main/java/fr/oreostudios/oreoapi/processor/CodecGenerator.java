@@ -0,0 +1,415 @@
+// File: oreoapi-processor/src/main/java/fr/oreostudios/oreoapi/processor/CodecGenerator.java
+package fr.oreostudios.oreoapi.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Emits the source of one codec: straight-line reads/writes, bulk stream calls for
+ * primitive/UUID arrays, plain loops for other arrays and lists, no lambdas and
+ * no boxing of primitive fields.
+ */
+final class CodecGenerator {
+
+    record Field(Element element, String name, TypeMirror type, boolean nullable) {}
+
+    private static final String UNDERFLOW = "fr.oreostudios.oreoapi.bus.stream.PacketUnderflowException.INSTANCE";
+
+    private final Types types;
+    private final Elements elements;
+    private final BiConsumer<Element, String> errors;
+
+    private StringBuilder code;
+    private int indent;
+    private int nextVar;
+    private Element current;
+    private boolean failed;
+
+    CodecGenerator(ProcessingEnvironment env, BiConsumer<Element, String> errors) {
+        this.types = env.getTypeUtils();
+        this.elements = env.getElementUtils();
+        this.errors = errors;
+    }
+
+    /**
+     * @return the codec source, or null if a field type is not supported (errors already reported)
+     */
+    String generate(String packageName, String codecName, TypeElement packet, List<Field> fields) {
+        String packetType = packet.getQualifiedName().toString();
+
+        StringBuilder source = new StringBuilder();
+        source.append("// Generated by oreoapi-processor. Do not edit.\n");
+        if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+        source.append("@").append(PacketCodecProcessor.GENERATED).append("(\"").append(PacketCodecProcessor.class.getName()).append("\")\n");
+        source.append("public final class ").append(codecName)
+                .append(" implements fr.oreostudios.oreoapi.bus.codec.PacketCodec<").append(packetType).append("> {\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public void write(").append(packetType)
+                .append(" packet, fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream out) {\n");
+        begin(2);
+        for (Field field : fields) {
+            current = field.element();
+            writeValue(field.type(), "packet." + field.name(), field.nullable());
+        }
+        source.append(code).append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public void read(").append(packetType)
+                .append(" packet, fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream in) {\n");
+        begin(2);
+        for (Field field : fields) {
+            current = field.element();
+            String value = readValue(field.type(), field.nullable());
+            line("packet." + field.name() + " = " + value + ";");
+        }
+        source.append(code).append("    }\n");
+
+        source.append("}\n");
+        return failed ? null : source.toString();
+    }
+
+    /* -------------------------------------------------- */
+    /* Write                                              */
+    /* -------------------------------------------------- */
+
+    private void writeValue(TypeMirror type, String expr, boolean nullable) {
+        if (!nullable || type.getKind().isPrimitive()) {
+            writeNonNull(type, expr);
+            return;
+        }
+
+        String value = local(type, expr);
+        line("out.writeBoolean(" + value + " != null);");
+        open("if (" + value + " != null) {");
+        writeNonNull(type, value);
+        close();
+    }
+
+    private void writeNonNull(TypeMirror type, String expr) {
+        if (type.getKind().isPrimitive()) {
+            line("out." + primitiveWriter(type.getKind()) + "(" + primitiveCast(type.getKind()) + expr + ");");
+            return;
+        }
+
+        if (type.getKind() == TypeKind.ARRAY) {
+            TypeMirror component = ((ArrayType) type).getComponentType();
+            String bulk = bulkArrayName(component);
+            if (bulk != null) {
+                line("out.write" + bulk + "Array(" + expr + ");");
+                return;
+            }
+
+            String array = local(type, expr);
+            line("out.writeSize(" + array + ".length);");
+            String element = var();
+            open("for (" + typeName(component) + " " + element + " : " + array + ") {");
+            writeNonNull(component, element);
+            close();
+            return;
+        }
+
+        if (type.getKind() != TypeKind.DECLARED) {
+            unsupported(type);
+            return;
+        }
+
+        PrimitiveType unboxed = unboxed(type);
+        if (unboxed != null) {
+            writeNonNull(unboxed, expr);
+        } else if (isType(type, "java.lang.String")) {
+            line("out.writeString(" + expr + ");");
+        } else if (isType(type, "java.util.UUID")) {
+            line("out.writeUUID(" + expr + ");");
+        } else if (isType(type, "java.util.BitSet")) {
+            line("out.writeBitSet(" + expr + ");");
+        } else if (kindOf(type) == ElementKind.ENUM) {
+            line("out.writeEnum(" + expr + ");");
+        } else if (isList(type)) {
+            TypeMirror elementType = listElement(type);
+            if (elementType == null) return;
+
+            String list = local(type, expr);
+            String index = var();
+            String size = var();
+            line("int " + size + " = " + list + ".size();");
+            line("out.writeSize(" + size + ");");
+            open("for (int " + index + " = 0; " + index + " < " + size + "; " + index + "++) {");
+            writeNonNull(elementType, list + ".get(" + index + ")");
+            close();
+        } else if (kindOf(type) == ElementKind.RECORD) {
+            String record = local(type, expr);
+            for (RecordComponentElement component : components(type)) {
+                writeValue(component.asType(), record + "." + component.getAccessor().getSimpleName() + "()",
+                        isNullable(component));
+            }
+        } else {
+            unsupported(type);
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Read                                               */
+    /* -------------------------------------------------- */
+
+    /**
+     * Emits whatever statements are needed and returns an expression holding the value.
+     * Values are always materialized in wire order, never inside a constructor argument list.
+     */
+    private String readValue(TypeMirror type, boolean nullable) {
+        if (!nullable || type.getKind().isPrimitive()) {
+            return readNonNull(type);
+        }
+
+        String value = var();
+        line(typeName(type) + " " + value + " = null;");
+        open("if (in.readBoolean()) {");
+        line(value + " = " + readNonNull(type) + ";");
+        close();
+        return value;
+    }
+
+    private String readNonNull(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return primitiveReader(type.getKind());
+        }
+
+        if (type.getKind() == TypeKind.ARRAY) {
+            TypeMirror component = ((ArrayType) type).getComponentType();
+            String bulk = bulkArrayName(component);
+            if (bulk != null) {
+                return "in.read" + bulk + "Array()";
+            }
+
+            String size = readSize();
+            if (isGeneric(type)) {
+                unsupported(type);
+                return "null";
+            }
+
+            String array = var();
+            String index = var();
+            line(typeName(type) + " " + array + " = " + newArray((ArrayType) type, size) + ";");
+            open("for (int " + index + " = 0; " + index + " < " + size + "; " + index + "++) {");
+            line(array + "[" + index + "] = " + readNonNull(component) + ";");
+            close();
+            return array;
+        }
+
+        if (type.getKind() != TypeKind.DECLARED) {
+            unsupported(type);
+            return "null";
+        }
+
+        PrimitiveType unboxed = unboxed(type);
+        if (unboxed != null) {
+            return readNonNull(unboxed);
+        } else if (isType(type, "java.lang.String")) {
+            return "in.readString()";
+        } else if (isType(type, "java.util.UUID")) {
+            return "in.readUUID()";
+        } else if (isType(type, "java.util.BitSet")) {
+            return "in.readBitSet()";
+        } else if (kindOf(type) == ElementKind.ENUM) {
+            return "in.readEnum(" + types.erasure(type) + ".class)";
+        } else if (isList(type)) {
+            TypeMirror elementType = listElement(type);
+            if (elementType == null) return "null";
+
+            String size = readSize();
+            String list = var();
+            String index = var();
+            line(typeName(type) + " " + list + " = new java.util.ArrayList<>(" + size + ");");
+            open("for (int " + index + " = 0; " + index + " < " + size + "; " + index + "++) {");
+            line(list + ".add(" + readNonNull(elementType) + ");");
+            close();
+            return list;
+        } else if (kindOf(type) == ElementKind.RECORD) {
+            List<String> args = new ArrayList<>();
+            for (RecordComponentElement component : components(type)) {
+                String value = readValue(component.asType(), isNullable(component));
+                args.add(local(component.asType(), value));
+            }
+            return "new " + types.erasure(type) + "(" + String.join(", ", args) + ")";
+        }
+
+        unsupported(type);
+        return "null";
+    }
+
+    /**
+     * Every element takes at least one byte, so a size larger than what is left
+     * is a corrupt frame: reject it before allocating.
+     */
+    private String readSize() {
+        String size = var();
+        line("int " + size + " = in.readSize();");
+        line("if (" + size + " < 0 || " + size + " > in.remaining()) throw " + UNDERFLOW + ";");
+        return size;
+    }
+
+    /* -------------------------------------------------- */
+    /* Type helpers                                       */
+    /* -------------------------------------------------- */
+
+    /**
+     * Element types with a bulk FriendlyByte*Stream array method ({@code write<Name>Array}).
+     */
+    private String bulkArrayName(TypeMirror component) {
+        return switch (component.getKind()) {
+            case BYTE -> "Byte";
+            case INT -> "Int";
+            case LONG -> "Long";
+            case DOUBLE -> "Double";
+            case BOOLEAN -> "Boolean";
+            case DECLARED -> isType(component, "java.util.UUID") ? "UUID" : null;
+            default -> null;
+        };
+    }
+
+    private static String primitiveWriter(TypeKind kind) {
+        return switch (kind) {
+            case BOOLEAN -> "writeBoolean";
+            case BYTE -> "writeByte";
+            case SHORT, CHAR -> "writeShort";
+            case INT -> "writeInt";
+            case LONG -> "writeLong";
+            case FLOAT -> "writeFloat";
+            case DOUBLE -> "writeDouble";
+            default -> throw new IllegalArgumentException(kind.toString());
+        };
+    }
+
+    private static String primitiveCast(TypeKind kind) {
+        return kind == TypeKind.CHAR ? "(short) " : "";
+    }
+
+    private static String primitiveReader(TypeKind kind) {
+        return switch (kind) {
+            case BOOLEAN -> "in.readBoolean()";
+            case BYTE -> "in.readByte()";
+            case SHORT -> "in.readShort()";
+            case CHAR -> "(char) in.readShort()";
+            case INT -> "in.readInt()";
+            case LONG -> "in.readLong()";
+            case FLOAT -> "in.readFloat()";
+            case DOUBLE -> "in.readDouble()";
+            default -> throw new IllegalArgumentException(kind.toString());
+        };
+    }
+
+    private PrimitiveType unboxed(TypeMirror type) {
+        try {
+            return types.unboxedType(type);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isType(TypeMirror type, String qualifiedName) {
+        TypeElement element = elements.getTypeElement(qualifiedName);
+        return element != null && types.isSameType(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    private boolean isList(TypeMirror type) {
+        return isType(type, "java.util.List");
+    }
+
+    private TypeMirror listElement(TypeMirror type) {
+        List<? extends TypeMirror> args = ((DeclaredType) type).getTypeArguments();
+        if (args.size() != 1 || args.get(0).getKind() != TypeKind.DECLARED && args.get(0).getKind() != TypeKind.ARRAY) {
+            unsupported(type);
+            return null;
+        }
+        return args.get(0);
+    }
+
+    private ElementKind kindOf(TypeMirror type) {
+        return ((DeclaredType) type).asElement().getKind();
+    }
+
+    private List<? extends RecordComponentElement> components(TypeMirror type) {
+        return ((TypeElement) ((DeclaredType) type).asElement()).getRecordComponents();
+    }
+
+    private static boolean isNullable(RecordComponentElement component) {
+        AnnotationMirror annotation = PacketCodecProcessor.findAnnotation(component, PacketCodecProcessor.PACKET_FIELD);
+        return annotation != null && PacketCodecProcessor.isNullable(annotation);
+    }
+
+    private boolean isGeneric(TypeMirror type) {
+        TypeMirror base = type;
+        while (base.getKind() == TypeKind.ARRAY) base = ((ArrayType) base).getComponentType();
+        return base.getKind() == TypeKind.DECLARED && !((DeclaredType) base).getTypeArguments().isEmpty();
+    }
+
+    private String newArray(ArrayType type, String size) {
+        TypeMirror base = type;
+        int dimensions = 0;
+        while (base.getKind() == TypeKind.ARRAY) {
+            base = ((ArrayType) base).getComponentType();
+            dimensions++;
+        }
+        return "new " + typeName(base) + "[" + size + "]" + "[]".repeat(dimensions - 1);
+    }
+
+    private String typeName(TypeMirror type) {
+        return type.toString();
+    }
+
+    private void unsupported(TypeMirror type) {
+        errors.accept(current, "Unsupported @PacketField type: " + type);
+        failed = true;
+    }
+
+    /* -------------------------------------------------- */
+    /* Source helpers                                     */
+    /* -------------------------------------------------- */
+
+    private void begin(int indentLevel) {
+        code = new StringBuilder();
+        indent = indentLevel;
+        nextVar = 0;
+    }
+
+    private String var() {
+        return "v" + nextVar++;
+    }
+
+    /**
+     * Evaluate {@code expr} once into a fresh local and return its name.
+     */
+    private String local(TypeMirror type, String expr) {
+        String name = var();
+        line(typeName(type) + " " + name + " = " + expr + ";");
+        return name;
+    }
+
+    private void open(String statement) {
+        line(statement);
+        indent++;
+    }
+
+    private void close() {
+        indent--;
+        line("}");
+    }
+
+    private void line(String statement) {
+        code.append("    ".repeat(indent)).append(statement).append('\n');
+    }
+}
@@ -0,0 +1,205 @@
+// File: oreoapi-processor/src/main/java/fr/oreostudios/oreoapi/processor/PacketCodecProcessor.java
+package fr.oreostudios.oreoapi.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <Packet>_Codec} class for every packet annotated with
+ * {@code @GenerateCodec}, encoding its {@code @PacketField}s in declaration order
+ * (superclass fields first).
+ *
+ * Annotations are matched by name so this module does not depend on oreoapi. The processor
+ * claims its own annotations, and the {@code @Generated} it puts on codecs, so builds with
+ * {@code -Xlint:all -Werror} do not fail on unclaimed annotations.
+ */
+@SupportedAnnotationTypes({
+        PacketCodecProcessor.GENERATE_CODEC,
+        PacketCodecProcessor.PACKET_FIELD,
+        PacketCodecProcessor.GENERATED
+})
+public final class PacketCodecProcessor extends AbstractProcessor {
+
+    static final String GENERATE_CODEC = "fr.oreostudios.oreoapi.bus.codec.GenerateCodec";
+    static final String PACKET_FIELD = "fr.oreostudios.oreoapi.bus.codec.PacketField";
+    static final String PACKET = "fr.oreostudios.oreoapi.bus.packet.Packet";
+    static final String CODEC_PACKET = "fr.oreostudios.oreoapi.bus.codec.CodecPacket";
+    static final String GENERATED = "javax.annotation.processing.Generated";
+    static final String CODEC_SUFFIX = "_Codec";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement generateCodec = processingEnv.getElementUtils().getTypeElement(GENERATE_CODEC);
+        if (generateCodec == null) return false;
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(generateCodec)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@GenerateCodec only applies to packet classes");
+                continue;
+            }
+            generate((TypeElement) element);
+        }
+        return true;
+    }
+
+    /* -------------------------------------------------- */
+    /* Validation                                         */
+    /* -------------------------------------------------- */
+
+    private void generate(TypeElement type) {
+        TypeMirror packetType = typeOf(CODEC_PACKET);
+        if (packetType == null || !processingEnv.getTypeUtils().isAssignable(type.asType(), packetType)) {
+            error(type, "@GenerateCodec class must extend " + CODEC_PACKET);
+            return;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@GenerateCodec packets cannot be generic");
+            return;
+        }
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            error(type, "@GenerateCodec packets cannot be private");
+            return;
+        }
+
+        List<CodecGenerator.Field> fields = collectFields(type);
+        if (fields == null) return;
+
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String codecName = codecSimpleName(type);
+
+        CodecGenerator generator = new CodecGenerator(processingEnv, this::error);
+        String source = generator.generate(packageName, codecName, type, fields);
+        if (source == null) return;
+
+        String qualifiedName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            error(type, "Failed to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return annotated fields, superclass fields first; null if any of them is invalid
+     */
+    private List<CodecGenerator.Field> collectFields(TypeElement type) {
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (TypeElement current = type; current != null; current = superclassOf(current)) {
+            if (current.getQualifiedName().contentEquals(PACKET)) break;
+            hierarchy.push(current);
+        }
+
+        PackageElement codecPackage = processingEnv.getElementUtils().getPackageOf(type);
+        List<CodecGenerator.Field> fields = new ArrayList<>();
+        boolean valid = true;
+
+        for (TypeElement owner : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(owner.getEnclosedElements())) {
+                AnnotationMirror annotation = findAnnotation(field, PACKET_FIELD);
+                if (annotation == null) continue;
+
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                    error(field, "@PacketField cannot be static or final");
+                    valid = false;
+                    continue;
+                }
+                if (modifiers.contains(Modifier.PRIVATE)) {
+                    error(field, "@PacketField cannot be private (the generated codec accesses it directly)");
+                    valid = false;
+                    continue;
+                }
+                boolean samePackage = processingEnv.getElementUtils().getPackageOf(owner).equals(codecPackage);
+                if (!samePackage && !modifiers.contains(Modifier.PUBLIC)) {
+                    error(field, "@PacketField inherited from another package must be public");
+                    valid = false;
+                    continue;
+                }
+
+                fields.add(new CodecGenerator.Field(field, field.getSimpleName().toString(), field.asType(), isNullable(annotation)));
+            }
+        }
+        return valid ? fields : null;
+    }
+
+    /* -------------------------------------------------- */
+    /* Helpers                                            */
+    /* -------------------------------------------------- */
+
+    static String codecSimpleName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement();
+             enclosing != null && (enclosing.getKind().isClass() || enclosing.getKind().isInterface());
+             enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+        return name.append(CODEC_SUFFIX).toString();
+    }
+
+    static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) return mirror;
+        }
+        return null;
+    }
+
+    static boolean isNullable(AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("nullable")) {
+                return Boolean.TRUE.equals(entry.getValue().getValue());
+            }
+        }
+        return false;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) return null;
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private TypeMirror typeOf(String qualifiedName) {
+        TypeElement element = processingEnv.getElementUtils().getTypeElement(qualifiedName);
+        return element != null ? element.asType() : null;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,12 @@
+// File: oreoapi-processor/src/test/java/fr/oreostudios/oreoapi/processor/sample/SampleBasePacket.java
+package fr.oreostudios.oreoapi.processor.sample;
+
+import fr.oreostudios.oreoapi.bus.codec.CodecPacket;
+import fr.oreostudios.oreoapi.bus.codec.PacketField;
+
+/**
+ * Superclass fields are encoded first.
+ */
+public abstract class SampleBasePacket extends CodecPacket {
+    @PacketField public long baseId;
+}
@@ -0,0 +1,49 @@
+// File: oreoapi-processor/src/test/java/fr/oreostudios/oreoapi/processor/sample/SamplePacket.java
+package fr.oreostudios.oreoapi.processor.sample;
+
+import fr.oreostudios.oreoapi.bus.codec.GenerateCodec;
+import fr.oreostudios.oreoapi.bus.codec.PacketCodec;
+import fr.oreostudios.oreoapi.bus.codec.PacketField;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compiled through the processor by this module's build (see pom.xml), with every supported
+ * field kind, so a generator regression fails the build.
+ */
+@GenerateCodec
+public class SamplePacket extends SampleBasePacket {
+
+    public enum Mode { SURVIVAL, CREATIVE }
+
+    public record Position(int x, double y, @PacketField(nullable = true) String world) {}
+
+    @PacketField public boolean flag;
+    @PacketField public byte b;
+    @PacketField public short s;
+    @PacketField public int i;
+    @PacketField public long l;
+    @PacketField public float f;
+    @PacketField public double d;
+    @PacketField public char c;
+    @PacketField(nullable = true) public Integer boxed;
+    @PacketField public String text;
+    @PacketField public UUID id;
+    @PacketField public BitSet bits;
+    @PacketField public Mode mode;
+    @PacketField public Position position;
+    @PacketField public int[] ints;
+    @PacketField public long[] longs;
+    @PacketField public String[] names;
+    @PacketField public List<String> tags;
+    @PacketField public List<Position> path;
+
+    /**
+     * Fails to compile if the codec was not generated under its expected name.
+     */
+    static PacketCodec<SamplePacket> codec() {
+        return new SamplePacket_Codec();
+    }
+}
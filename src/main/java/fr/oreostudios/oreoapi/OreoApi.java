@@ -19,7 +19,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * - IMongoService
  * - IRabbitService
  * - ISyncBus (JSON sync)
- * - Packet bus (binary packets over Rabbit via PacketSender adapter)
+ * - Packet bus (binary packets over Rabbit via PacketSender adapter, or another PacketSender)
  */
 public final class OreoApi {
 
@@ -34,12 +34,20 @@ public final class OreoApi {
     private final AtomicBoolean started = new AtomicBoolean(false);
 
     public OreoApi(IMongoService mongo, IRabbitService rabbit, ISyncBus syncBus) {
+        this(mongo, rabbit, syncBus, new RabbitPacketSenderImpl(Objects.requireNonNull(rabbit, "rabbit")));
+    }
+
+    /**
+     * Same, with another packet transport than the default Rabbit adapter
+     * (e.g. a LoopbackPacketSender for single-node setups and tests).
+     */
+    public OreoApi(IMongoService mongo, IRabbitService rabbit, ISyncBus syncBus, PacketSender packetSender) {
         this.mongo = Objects.requireNonNull(mongo, "mongo");
         this.rabbit = Objects.requireNonNull(rabbit, "rabbit");
         this.syncBus = Objects.requireNonNull(syncBus, "syncBus");
 
-        // Wire PacketBus on top of Rabbit (binary bus)
-        this.packetSender = new RabbitPacketSenderImpl(this.rabbit);
+        // Wire PacketBus on top of the chosen transport (binary bus)
+        this.packetSender = Objects.requireNonNull(packetSender, "packetSender");
         this.packetManager = new PacketManager(this.packetSender);
     }
 
@@ -90,7 +98,7 @@ public final class OreoApi {
     /** Packet bus (binary packets). */
     public PacketManager packets() { return packetManager; }
 
-    /** Underlying packet transport (Rabbit adapter). */
+    /** Underlying packet transport (Rabbit adapter unless another one was given). */
     public PacketSender packetSender() { return packetSender; }
 
     public boolean isStarted() { return started.get(); }
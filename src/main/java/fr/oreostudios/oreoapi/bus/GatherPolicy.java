@@ -0,0 +1,81 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/GatherPolicy.java
+package fr.oreostudios.oreoapi.bus;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * When a {@link PacketManager#gather scatter-gather} query may complete before its deadline.
+ * Whatever the policy, the query completes with the replies gathered so far once the deadline passes.
+ */
+public final class GatherPolicy<R extends Packet> {
+
+    enum Kind { FIRST_MATCH, QUORUM, ALL_KNOWN_NODES, DEADLINE }
+
+    private final Kind kind;
+    private final int quorum;
+    private final Predicate<? super R> match;
+
+    private GatherPolicy(Kind kind, int quorum, Predicate<? super R> match) {
+        this.kind = kind;
+        this.quorum = quorum;
+        this.match = match;
+    }
+
+    /**
+     * Complete on the first reply.
+     */
+    public static <R extends Packet> GatherPolicy<R> firstHit() {
+        return new GatherPolicy<>(Kind.FIRST_MATCH, 1, reply -> true);
+    }
+
+    /**
+     * Complete on the first reply accepted by {@code match} (e.g. "the server that has player X").
+     * Earlier non-matching replies are still gathered.
+     */
+    public static <R extends Packet> GatherPolicy<R> firstMatch(Predicate<? super R> match) {
+        return new GatherPolicy<>(Kind.FIRST_MATCH, 1, Objects.requireNonNull(match, "match"));
+    }
+
+    /**
+     * Complete once {@code replies} distinct nodes answered.
+     */
+    public static <R extends Packet> GatherPolicy<R> quorum(int replies) {
+        if (replies < 1) throw new IllegalArgumentException("replies must be >= 1");
+        return new GatherPolicy<>(Kind.QUORUM, replies, null);
+    }
+
+    /**
+     * Complete once every node seen recently by this manager (see
+     * {@link PacketManager#getKnownNodes()}) answered. With no known node, waits for the deadline.
+     */
+    public static <R extends Packet> GatherPolicy<R> allKnownNodes() {
+        return new GatherPolicy<>(Kind.ALL_KNOWN_NODES, 0, null);
+    }
+
+    /**
+     * Gather every reply until the deadline.
+     */
+    public static <R extends Packet> GatherPolicy<R> untilDeadline() {
+        return new GatherPolicy<>(Kind.DEADLINE, 0, null);
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    int getQuorum() {
+        return quorum;
+    }
+
+    boolean matches(R reply) {
+        return match.test(reply);
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.QUORUM ? "GatherPolicy{QUORUM " + quorum + "}" : "GatherPolicy{" + kind + "}";
+    }
+}
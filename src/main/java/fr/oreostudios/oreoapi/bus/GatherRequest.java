@@ -0,0 +1,92 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/GatherRequest.java
+package fr.oreostudios.oreoapi.bus;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collector;
+
+/**
+ * A scatter-gather query: folds replies into a {@link Collector} until its
+ * {@link GatherPolicy} is satisfied or the deadline passes.
+ * Replies from a node that already answered are ignored.
+ */
+final class GatherRequest<R extends Packet, C, A> extends PendingRequest {
+
+    private final Class<R> replyType;
+    private final GatherPolicy<R> policy;
+    private final Collector<? super R, C, A> collector;
+    private final Set<Long> expectedNodes;
+
+    private final C container;
+    private final Set<Long> responders = new HashSet<>();
+    private int replies;
+
+    final CompletableFuture<A> future = new CompletableFuture<>();
+
+    GatherRequest(Class<R> replyType, GatherPolicy<R> policy, Collector<? super R, C, A> collector, Set<Long> expectedNodes) {
+        this.replyType = replyType;
+        this.policy = policy;
+        this.collector = collector;
+        this.expectedNodes = expectedNodes;
+        this.container = collector.supplier().get();
+    }
+
+    @Override
+    boolean accepts(Packet packet) {
+        if (!replyType.isInstance(packet)) return false;
+
+        long origin = packet.getOriginNodeId();
+        return origin == 0 || !responders.contains(origin);
+    }
+
+    @Override
+    boolean onReply(Packet packet) {
+        long origin = packet.getOriginNodeId();
+        if (origin != 0) responders.add(origin);
+
+        R reply = replyType.cast(packet);
+        try {
+            collector.accumulator().accept(container, reply);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return true;
+        }
+        replies++;
+
+        if (isSatisfied(reply)) {
+            finish();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isSatisfied(R reply) {
+        return switch (policy.getKind()) {
+            case FIRST_MATCH -> policy.matches(reply);
+            case QUORUM -> replies >= policy.getQuorum();
+            case ALL_KNOWN_NODES -> !expectedNodes.isEmpty() && responders.containsAll(expectedNodes);
+            case DEADLINE -> false;
+        };
+    }
+
+    @Override
+    void onTimeout() {
+        finish();
+    }
+
+    @Override
+    void onFailure(Throwable cause) {
+        future.completeExceptionally(cause);
+    }
+
+    private void finish() {
+        try {
+            future.complete(collector.finisher().apply(container));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
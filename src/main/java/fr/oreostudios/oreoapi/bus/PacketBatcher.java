@@ -0,0 +1,208 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/PacketBatcher.java
+package fr.oreostudios.oreoapi.bus;
+
+import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.envelope.PacketBatch;
+import fr.oreostudios.oreoapi.bus.event.PacketSender;
+import fr.oreostudios.oreoapi.bus.namespace.PacketDefinition;
+import fr.oreostudios.oreoapi.bus.namespace.PacketPriority;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
+import fr.oreostudios.oreoapi.util.NamedThreadFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces encoded frames per concrete channel name and hands each batch to the
+ * sender in one call, from the sending thread (size limits) or from a timer thread
+ * (delay limit). Frames are copied, so callers may recycle their buffers right away.
+ * Frames are batched per priority as well, and per type when they have a route
+ * (see PacketSender#routesByPacketType). Batches left idle for {@link #IDLE_NANOS}
+ * are dropped, so one-off channels (such as a requester's reply channel) do not keep
+ * their buffer for the life of the manager.
+ *
+ * A batch holds several callers' packets, so a sender failure while flushing it is not
+ * thrown at whichever caller triggered the flush: the packets are counted as dropped
+ * (PacketBusStats#getBatchedPacketsDropped) and the failure is logged, once per streak
+ * of failed flushes (e.g. while the broker reconnects).
+ */
+final class PacketBatcher {
+
+    private static final System.Logger LOGGER = System.getLogger(PacketBatcher.class.getName());
+
+    static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final PacketSender sender;
+    private final PacketBusStats stats;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Map<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+
+    private volatile PacketBatching settings;
+    private volatile boolean closed;
+    /** Set from a failed flush to the next successful one. */
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    PacketBatcher(PacketSender sender, PacketBusStats stats, PacketBatching settings) {
+        this.sender = sender;
+        this.stats = stats;
+        this.settings = settings;
+        this.timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("oreo-bus-batch", true));
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.timer.scheduleWithFixedDelay(this::evictIdle, IDLE_NANOS, IDLE_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    void setSettings(PacketBatching settings) {
+        this.settings = settings;
+        flushAll();
+    }
+
+    /**
+     * @param route packet type of {@code frame} if it must be sent typed, else null
+     */
+    void enqueue(PacketChannel target, PacketDefinition<?> route, PacketPriority priority, ByteBuffer frame) {
+        PacketBatching current = settings;
+        long routeId = route != null ? route.getRegistryId() : -1;
+        for (String name : target) {
+            BatchKey key = new BatchKey(name, routeId, priority);
+            while (true) {
+                Batch batch = batches.computeIfAbsent(key, k -> new Batch(k.name, route, priority));
+                if (batch.add(frame.duplicate(), current)) break;
+                batches.remove(key, batch); // evicted meanwhile
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        batches.entrySet().removeIf(entry -> entry.getValue().retireIfIdle(now));
+    }
+
+    void flushAll() {
+        for (Batch batch : batches.values()) {
+            batch.flush();
+        }
+    }
+
+    /**
+     * Send pending batches and stop the timer; later frames bypass batching.
+     */
+    void close() {
+        closed = true;
+        flushAll();
+        timer.shutdown();
+    }
+
+    private record BatchKey(String name, long routeId, PacketPriority priority) {}
+
+    private final class Batch {
+        private final PacketChannel channel;
+        private final PacketDefinition<?> route;
+        private final PacketPriority priority;
+        private final FriendlyByteOutputStream out = new FriendlyByteOutputStream();
+
+        private int packets;
+        private int firstFrameStart;
+        private long firstEnqueuedNanos;
+        private long generation;
+        private long lastUsedNanos = System.nanoTime();
+        private boolean retired;
+        private ScheduledFuture<?> pendingFlush;
+
+        Batch(String name, PacketDefinition<?> route, PacketPriority priority) {
+            this.channel = PacketChannel.individual(name);
+            this.route = route;
+            this.priority = priority;
+        }
+
+        /**
+         * @return false if this batch was evicted and the frame must go to a new one
+         */
+        synchronized boolean add(ByteBuffer frame, PacketBatching limits) {
+            if (retired) return false;
+            lastUsedNanos = System.nanoTime();
+            int frameSize = PacketBatch.frameSize(frame.remaining());
+
+            if (packets > 0 && out.size() + frameSize > limits.getMaxBytes()) {
+                flush();
+            }
+            if (closed || 1 + frameSize > limits.getMaxBytes()) {
+                send(frame); // too large to batch
+                return true;
+            }
+
+            if (packets == 0) {
+                out.reset();
+                PacketBatch.writeHeader(out);
+                firstFrameStart = out.size() + FriendlyByteOutputStream.varIntSize(frame.remaining());
+                firstEnqueuedNanos = System.nanoTime();
+                long scheduledGeneration = generation;
+                pendingFlush = timer.schedule(() -> flushIfCurrent(scheduledGeneration),
+                        limits.getMaxDelay().toNanos(), TimeUnit.NANOSECONDS);
+            }
+
+            PacketBatch.writeFrame(out, frame);
+            packets++;
+
+            if (packets >= limits.getMaxPackets() || out.size() >= limits.getMaxBytes()) {
+                flush();
+            }
+            return true;
+        }
+
+        synchronized boolean retireIfIdle(long now) {
+            if (packets > 0 || now - lastUsedNanos < IDLE_NANOS) return false;
+            retired = true;
+            return true;
+        }
+
+        private synchronized void flushIfCurrent(long scheduledGeneration) {
+            if (generation == scheduledGeneration) flush();
+        }
+
+        synchronized void flush() {
+            if (packets == 0) return;
+
+            int count = packets;
+            long latency = System.nanoTime() - firstEnqueuedNanos;
+            packets = 0;
+            generation++;
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+
+            // A lone frame goes out unwrapped
+            ByteBuffer payload = out.toByteBuffer();
+            if (count == 1) payload.position(firstFrameStart);
+
+            int bytes = payload.remaining();
+            try {
+                send(payload);
+            } catch (RuntimeException e) {
+                stats.recordBatchDropped(count);
+                if (failing.compareAndSet(false, true)) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Dropping batched packets to " + channel
+                            + " (further failures are not logged until a batch goes out)", e);
+                }
+                return;
+            }
+            stats.recordBatchSent(count, bytes, latency);
+            if (failing.get() && failing.compareAndSet(true, false)) {
+                LOGGER.log(System.Logger.Level.INFO, "Batched packets are being sent again");
+            }
+        }
+
+        private void send(ByteBuffer payload) {
+            if (route != null) {
+                sender.sendPacket(channel, route, payload);
+            } else {
+                sender.sendPacket(channel, payload, priority);
+            }
+        }
+    }
+}
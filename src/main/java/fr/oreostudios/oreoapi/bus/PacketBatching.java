@@ -0,0 +1,80 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/PacketBatching.java
+package fr.oreostudios.oreoapi.bus;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Immutable outbound batching settings.
+ *
+ * Packets sent to the same concrete channel are coalesced into a single transport
+ * message (see {@link fr.oreostudios.oreoapi.bus.envelope.PacketBatch}) until the
+ * batch reaches {@link #getMaxPackets()} packets or {@link #getMaxBytes()} bytes,
+ * or its oldest packet has waited {@link #getMaxDelay()}. Receivers must run a
+ * version that understands batches.
+ */
+public final class PacketBatching {
+
+    public static final int DEFAULT_MAX_BYTES = 64 * 1024;
+    public static final int DEFAULT_MAX_PACKETS = 256;
+
+    public static final PacketBatching DISABLED =
+            new PacketBatching(Duration.ZERO, DEFAULT_MAX_BYTES, DEFAULT_MAX_PACKETS);
+
+    private final Duration maxDelay;
+    private final int maxBytes;
+    private final int maxPackets;
+
+    private PacketBatching(Duration maxDelay, int maxBytes, int maxPackets) {
+        this.maxDelay = maxDelay;
+        this.maxBytes = maxBytes;
+        this.maxPackets = maxPackets;
+    }
+
+    /**
+     * Batch packets for at most {@code maxDelay} (a few milliseconds is typical).
+     */
+    public static PacketBatching window(Duration maxDelay) {
+        Objects.requireNonNull(maxDelay, "maxDelay");
+        if (maxDelay.isNegative() || maxDelay.isZero()) {
+            throw new IllegalArgumentException("maxDelay must be positive");
+        }
+        return new PacketBatching(maxDelay, DEFAULT_MAX_BYTES, DEFAULT_MAX_PACKETS);
+    }
+
+    /**
+     * Flush once a batch reaches {@code maxBytes}; larger packets are sent on their own.
+     */
+    public PacketBatching withMaxBytes(int maxBytes) {
+        if (maxBytes < 64) throw new IllegalArgumentException("maxBytes must be >= 64");
+        return new PacketBatching(maxDelay, maxBytes, maxPackets);
+    }
+
+    public PacketBatching withMaxPackets(int maxPackets) {
+        if (maxPackets < 1) throw new IllegalArgumentException("maxPackets must be >= 1");
+        return new PacketBatching(maxDelay, maxBytes, maxPackets);
+    }
+
+    public boolean isEnabled() {
+        return !maxDelay.isZero();
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMaxPackets() {
+        return maxPackets;
+    }
+
+    @Override
+    public String toString() {
+        return isEnabled()
+                ? "PacketBatching{maxDelay=" + maxDelay + ", maxBytes=" + maxBytes + ", maxPackets=" + maxPackets + "}"
+                : "PacketBatching{disabled}";
+    }
+}
@@ -0,0 +1,182 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/PacketBusStats.java
+package fr.oreostudios.oreoapi.bus;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of a {@link PacketManager}. Cheap to update from any thread;
+ * values read while traffic flows are not a consistent snapshot.
+ */
+public final class PacketBusStats {
+
+    private final LongAdder packetsSent = new LongAdder();
+    private final LongAdder packetsReceived = new LongAdder();
+    private final LongAdder framesDropped = new LongAdder();
+    private final LongAdder droppedByInterest = new LongAdder();
+    private final LongAdder droppedSelf = new LongAdder();
+    private final LongAdder duplicatesDropped = new LongAdder();
+
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder batchedPackets = new LongAdder();
+    private final LongAdder batchedBytes = new LongAdder();
+    private final LongAdder batchLatencyNanos = new LongAdder();
+    private final LongAccumulator maxBatchLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder batchesReceived = new LongAdder();
+    private final LongAdder batchedPacketsDropped = new LongAdder();
+
+    private final LongAdder unmatchedReplies = new LongAdder();
+
+    PacketBusStats() {}
+
+    /* ---------------------------------------------------------- */
+    /* Recording                                                  */
+    /* ---------------------------------------------------------- */
+
+    void recordSent() {
+        packetsSent.increment();
+    }
+
+    void recordReceived() {
+        packetsReceived.increment();
+    }
+
+    void recordDropped() {
+        framesDropped.increment();
+    }
+
+    void recordDroppedByInterest() {
+        droppedByInterest.increment();
+    }
+
+    void recordDroppedSelf() {
+        droppedSelf.increment();
+    }
+
+    void recordDuplicate() {
+        duplicatesDropped.increment();
+    }
+
+    void recordBatchSent(int packets, int bytes, long latencyNanos) {
+        batchesSent.increment();
+        batchedPackets.add(packets);
+        batchedBytes.add(bytes);
+        batchLatencyNanos.add(latencyNanos);
+        maxBatchLatencyNanos.accumulate(latencyNanos);
+    }
+
+    void recordBatchDropped(int packets) {
+        batchedPacketsDropped.add(packets);
+    }
+
+    void recordBatchReceived() {
+        batchesReceived.increment();
+    }
+
+    void recordUnmatchedReply() {
+        unmatchedReplies.increment();
+    }
+
+    /* ---------------------------------------------------------- */
+    /* Reading                                                    */
+    /* ---------------------------------------------------------- */
+
+    public long getPacketsSent() {
+        return packetsSent.sum();
+    }
+
+    public long getPacketsReceived() {
+        return packetsReceived.sum();
+    }
+
+    /**
+     * Frames that could not be decoded (truncated, unknown type or dictionary).
+     */
+    public long getFramesDropped() {
+        return framesDropped.sum();
+    }
+
+    /**
+     * Frames skipped without decoding because no local subscriber wants their type.
+     */
+    public long getDroppedByInterest() {
+        return droppedByInterest.sum();
+    }
+
+    /**
+     * Frames sent by this node itself, dropped undecoded (see PacketManager#setEchoSuppression).
+     */
+    public long getDroppedSelf() {
+        return droppedSelf.sum();
+    }
+
+    /**
+     * Frames whose packet id was already received (see PacketDedup).
+     */
+    public long getDuplicatesDropped() {
+        return duplicatesDropped.sum();
+    }
+
+    public long getBatchesSent() {
+        return batchesSent.sum();
+    }
+
+    public long getBatchedPackets() {
+        return batchedPackets.sum();
+    }
+
+    public long getBatchedBytes() {
+        return batchedBytes.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchesSent.sum();
+        return batches == 0 ? 0 : (double) batchedPackets.sum() / batches;
+    }
+
+    /**
+     * Mean time between the first packet entering a batch and the batch being sent.
+     */
+    public double getAverageBatchLatencyMicros() {
+        long batches = batchesSent.sum();
+        return batches == 0 ? 0 : batchLatencyNanos.sum() / 1_000.0 / batches;
+    }
+
+    public long getMaxBatchLatencyNanos() {
+        return maxBatchLatencyNanos.get();
+    }
+
+    public long getBatchesReceived() {
+        return batchesReceived.sum();
+    }
+
+    /**
+     * Packets lost because the sender failed on the batch holding them.
+     */
+    public long getBatchedPacketsDropped() {
+        return batchedPacketsDropped.sum();
+    }
+
+    /**
+     * Replies that arrived after their request completed, timed out or was cancelled.
+     */
+    public long getUnmatchedReplies() {
+        return unmatchedReplies.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "PacketBusStats{sent=" + getPacketsSent()
+                + ", received=" + getPacketsReceived()
+                + ", dropped=" + getFramesDropped()
+                + ", droppedByInterest=" + getDroppedByInterest()
+                + ", droppedSelf=" + getDroppedSelf()
+                + ", duplicates=" + getDuplicatesDropped()
+                + ", batchesSent=" + getBatchesSent()
+                + ", avgBatchSize=" + String.format("%.1f", getAverageBatchSize())
+                + ", avgBatchLatencyUs=" + String.format("%.1f", getAverageBatchLatencyMicros())
+                + ", batchesReceived=" + getBatchesReceived()
+                + ", batchedDropped=" + getBatchedPacketsDropped()
+                + ", unmatchedReplies=" + getUnmatchedReplies() + "}";
+    }
+}
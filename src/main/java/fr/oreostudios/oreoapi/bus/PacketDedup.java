@@ -0,0 +1,65 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/PacketDedup.java
+package fr.oreostudios.oreoapi.bus;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Immutable inbound duplicate-filter settings.
+ *
+ * Packet ids read from incoming headers are remembered for at least {@link #getWindow()},
+ * and frames repeating one of them are dropped before their body is decoded. Memory is
+ * fixed at {@link #getMaxBytes()} (16 bytes per slot, two generations): past about
+ * {@code maxBytes / 43} ids per window the oldest ones are forgotten early.
+ * Frames sent without a packet id (see PacketManager#setCompactPacketIds) are never filtered.
+ */
+public final class PacketDedup {
+
+    public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    public static final PacketDedup DISABLED = new PacketDedup(Duration.ZERO, DEFAULT_MAX_BYTES);
+
+    private final Duration window;
+    private final long maxBytes;
+
+    private PacketDedup(Duration window, long maxBytes) {
+        this.window = window;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Drop packets whose id was already received during the last {@code window}
+     * (longer than the broker's redelivery delay).
+     */
+    public static PacketDedup window(Duration window) {
+        Objects.requireNonNull(window, "window");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        return new PacketDedup(window, DEFAULT_MAX_BYTES);
+    }
+
+    public PacketDedup withMaxBytes(long maxBytes) {
+        if (maxBytes < 1024) throw new IllegalArgumentException("maxBytes must be >= 1024");
+        return new PacketDedup(window, maxBytes);
+    }
+
+    public boolean isEnabled() {
+        return !window.isZero();
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String toString() {
+        return isEnabled()
+                ? "PacketDedup{window=" + window + ", maxBytes=" + maxBytes + "}"
+                : "PacketDedup{disabled}";
+    }
+}
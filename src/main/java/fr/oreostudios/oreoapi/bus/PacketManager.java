@@ -1,33 +1,102 @@
 package fr.oreostudios.oreoapi.bus;
 
 import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.envelope.EnvelopeFormat;
+import fr.oreostudios.oreoapi.bus.envelope.PacketBatch;
+import fr.oreostudios.oreoapi.bus.envelope.PacketCompression;
+import fr.oreostudios.oreoapi.bus.envelope.PacketEnvelope;
 import fr.oreostudios.oreoapi.bus.event.IncomingPacketListener;
 import fr.oreostudios.oreoapi.bus.event.PacketSender;
 import fr.oreostudios.oreoapi.bus.event.PacketSubscriber;
+import fr.oreostudios.oreoapi.bus.event.PacketSubscription;
 import fr.oreostudios.oreoapi.bus.event.PacketSubscriptionQueue;
+import fr.oreostudios.oreoapi.bus.event.SubscribeOptions;
 import fr.oreostudios.oreoapi.bus.namespace.PacketDefinition;
+import fr.oreostudios.oreoapi.bus.namespace.PacketPriority;
 import fr.oreostudios.oreoapi.bus.namespace.PacketRegistry;
+import fr.oreostudios.oreoapi.bus.namespace.PooledPacketProvider;
 import fr.oreostudios.oreoapi.bus.packet.Packet;
 import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
 import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
-
+import fr.oreostudios.oreoapi.bus.stream.PacketUnderflowException;
+import fr.oreostudios.oreoapi.bus.stream.StringDictionary;
+import fr.oreostudios.oreoapi.util.ImmutableLongSet;
+import fr.oreostudios.oreoapi.util.RecentIdSet;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Collector;
 
 public final class PacketManager implements IncomingPacketListener {
 
+    /** How long a node counts as known after its last packet carrying an origin (see {@link #getKnownNodes()}). */
+    public static final Duration KNOWN_NODE_TTL = Duration.ofSeconds(60);
+
+    /** Prefix of the per-node channels that replies are sent on (see {@link #replyChannelName}). */
+    public static final String REPLY_CHANNEL_PREFIX = "node.";
+
     private final PacketSender sender;
     private final PacketRegistry packetRegistry;
     private final Map<Class<? extends Packet>, PacketSubscriptionQueue<? extends Packet>> subscriptions;
+    /** Concrete packet class -> subscriptions to it and its superclasses; replaced on every change. */
+    private volatile ClassValue<PacketSubscription<?>[]> dispatchTable = newDispatchTable();
+    /** Same, restricted to subscriptions that accept this node's own packets. */
+    private volatile ClassValue<PacketSubscription<?>[]> selfDispatchTable = newSelfDispatchTable(dispatchTable);
 
     private volatile boolean initialized = false;
 
+    private volatile EnvelopeFormat envelopeFormat = EnvelopeFormat.LEGACY;
+    private volatile boolean compactPacketIds = true;
+    private volatile boolean echoSuppression = true;
+    private volatile PacketCompression compression = PacketCompression.DISABLED;
+
+    private final PacketBusStats stats = new PacketBusStats();
+    private volatile PacketBatching batching = PacketBatching.DISABLED;
+    private volatile PacketBatcher batcher;
+
+    private volatile PacketDedup dedup = PacketDedup.DISABLED;
+    private volatile RecentIdSet recentPacketIds;
+
+    private final long nodeId;
+    private final PacketChannel replyChannel;
+    private final PendingRequests requests = new PendingRequests();
+    private volatile boolean replyChannelRegistered;
+    private final Map<Long, Long> nodesLastSeen = new ConcurrentHashMap<>();
+
+    private volatile boolean interestFiltering = true;
+    private final AtomicInteger interestVersion = new AtomicInteger();
+    private volatile InterestTable interest;
+
+    /** Dictionary id -> dictionary, for decoding. */
+    private final Map<Integer, StringDictionary> stringDictionaries = new ConcurrentHashMap<>();
+    /** Concrete channel name -> dictionary, for encoding. */
+    private final Map<String, StringDictionary> dictionaryByChannel = new ConcurrentHashMap<>();
+
     public PacketManager(PacketSender sender) {
         this.sender = Objects.requireNonNull(sender, "sender");
         this.packetRegistry = new PacketRegistry();
+        this.packetRegistry.addPriorityListener(this::publishInterest); // lanes are bound per type
         this.subscriptions = new ConcurrentHashMap<>();
+        this.stringDictionaries.put(StringDictionary.EMPTY.getId(), StringDictionary.EMPTY);
+        this.nodeId = newNodeId();
+        this.replyChannel = PacketChannel.individual(replyChannelName(nodeId));
     }
 
     /* =========================================================
@@ -38,18 +107,174 @@ public final class PacketManager implements IncomingPacketListener {
         if (initialized) return;
         initialized = true;
         sender.registerListener(this);
+        publishInterest();
     }
 
     public void close() {
+        setBatching(PacketBatching.DISABLED);
         initialized = false;
+        requests.close();
         sender.close();
         subscriptions.clear();
+        resetDispatchTables();
     }
 
     public boolean isInitialized() {
         return initialized;
     }
 
+    public PacketBusStats getStats() {
+        return stats;
+    }
+
+    /* =========================================================
+     * WIRE FORMAT
+     * ========================================================= */
+
+    /**
+     * Header layout for outgoing packets. Incoming packets are always accepted in
+     * both layouts, so switch to {@link EnvelopeFormat#COMPACT} once every node
+     * on the network runs a version that understands it.
+     */
+    public void setEnvelopeFormat(EnvelopeFormat format) {
+        this.envelopeFormat = Objects.requireNonNull(format, "format");
+    }
+
+    public EnvelopeFormat getEnvelopeFormat() {
+        return envelopeFormat;
+    }
+
+    /**
+     * Whether compact envelopes carry the 16-byte packet UUID (default true).
+     * Legacy envelopes always carry it.
+     */
+    public void setCompactPacketIds(boolean compactPacketIds) {
+        this.compactPacketIds = compactPacketIds;
+    }
+
+    /**
+     * Drop broadcasts this node sent itself when they come back, before decoding them (default true).
+     * Compact envelopes are stamped with this node's id for that purpose; legacy envelopes
+     * cannot carry it and are always delivered. RPC frames are never dropped, and
+     * subscriptions opt back in with {@link SubscribeOptions#withSelfDelivery(boolean)}.
+     */
+    public void setEchoSuppression(boolean echoSuppression) {
+        this.echoSuppression = echoSuppression;
+    }
+
+    public boolean isEchoSuppression() {
+        return echoSuppression;
+    }
+
+    /**
+     * Compression applied to outgoing compact envelopes, and the dictionary used to
+     * inflate incoming ones. Per-type overrides live on {@link PacketDefinition}.
+     */
+    public void setCompression(PacketCompression compression) {
+        this.compression = Objects.requireNonNull(compression, "compression");
+    }
+
+    public PacketCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Make a dictionary available for decoding incoming packets.
+     *
+     * @throws IllegalStateException if another dictionary already uses the same id
+     */
+    public void registerStringDictionary(StringDictionary dictionary) {
+        Objects.requireNonNull(dictionary, "dictionary");
+
+        StringDictionary prev = stringDictionaries.putIfAbsent(dictionary.getId(), dictionary);
+        if (prev != null && prev != dictionary) {
+            throw new IllegalStateException("String dictionary id already registered: " + dictionary.getId());
+        }
+    }
+
+    /**
+     * Send strings on {@code channel} as table references (compact envelopes only).
+     * Use {@link StringDictionary#EMPTY} to only deduplicate strings within each packet.
+     * Receivers must register the same dictionary.
+     */
+    public void useStringDictionary(PacketChannel channel, StringDictionary dictionary) {
+        Objects.requireNonNull(channel, "channel");
+        registerStringDictionary(dictionary);
+
+        for (String name : channel) {
+            dictionaryByChannel.put(name, dictionary);
+        }
+    }
+
+    /**
+     * A multi-channel target is encoded once, so a dictionary is only used when all its names agree.
+     */
+    private StringDictionary resolveDictionary(PacketChannel target) {
+        if (dictionaryByChannel.isEmpty()) return null;
+
+        StringDictionary resolved = null;
+        for (String name : target) {
+            StringDictionary dictionary = dictionaryByChannel.get(name);
+            if (dictionary == null || (resolved != null && resolved != dictionary)) return null;
+            resolved = dictionary;
+        }
+        return resolved;
+    }
+
+    /* =========================================================
+     * BATCHING
+     * ========================================================= */
+
+    /**
+     * Coalesce outgoing packets per channel (see {@link PacketBatching}).
+     * Disabling flushes whatever is pending.
+     */
+    public synchronized void setBatching(PacketBatching batching) {
+        Objects.requireNonNull(batching, "batching");
+        this.batching = batching;
+
+        PacketBatcher current = batcher;
+        if (!batching.isEnabled()) {
+            if (current != null) {
+                batcher = null;
+                current.close();
+            }
+        } else if (current == null) {
+            batcher = new PacketBatcher(sender, stats, batching);
+        } else {
+            current.setSettings(batching);
+        }
+    }
+
+    public PacketBatching getBatching() {
+        return batching;
+    }
+
+    /**
+     * Drop incoming packets whose id was already received recently (see {@link PacketDedup}).
+     * Changing the settings forgets the ids seen so far. Resending the same packet instance
+     * reuses its id, so clear it first ({@code packet.setPacketId(null)}) when dedup is on.
+     */
+    public synchronized void setDedup(PacketDedup dedup) {
+        Objects.requireNonNull(dedup, "dedup");
+        this.dedup = dedup;
+        this.recentPacketIds = dedup.isEnabled()
+                ? new RecentIdSet(dedup.getWindow().toNanos(), dedup.getMaxBytes())
+                : null;
+    }
+
+    public PacketDedup getDedup() {
+        return dedup;
+    }
+
+    /**
+     * Send every pending batch now (e.g. at the end of a server tick).
+     */
+    public void flushBatches() {
+        PacketBatcher current = batcher;
+        if (current != null) current.flushAll();
+    }
+
     /* =========================================================
      * REGISTRATION
      * ========================================================= */
@@ -58,6 +283,17 @@ public final class PacketManager implements IncomingPacketListener {
         Objects.requireNonNull(packetClass, "packetClass");
         Objects.requireNonNull(constructor, "constructor");
         packetRegistry.register(packetClass, constructor);
+        publishInterest();
+    }
+
+    /**
+     * Register a packet type whose inbound instances are recycled (see {@link PooledPacketProvider}).
+     */
+    public <T extends Packet> void registerPacket(Class<T> packetClass, PooledPacketProvider<T> provider) {
+        Objects.requireNonNull(packetClass, "packetClass");
+        Objects.requireNonNull(provider, "provider");
+        packetRegistry.registerProvider(packetClass, provider);
+        publishInterest();
     }
 
     public PacketRegistry getPacketRegistry() {
@@ -81,18 +317,292 @@ public final class PacketManager implements IncomingPacketListener {
         Objects.requireNonNull(target, "target");
         Objects.requireNonNull(packet, "packet");
 
+        PacketDefinition<?> definition = requireDefinition(packet);
+        if (packet.getCorrelationId() == 0 && sender.deliversPackets()) {
+            long origin = stampedOrigin(envelopeFormat);
+            if (definition.isImmutable()) {
+                // receivers share this instance: settle what they read before other threads see it
+                packet.getPacketId();
+                packet.setOriginNodeId(origin);
+            }
+            if (sender.sendLocal(target, packet, origin)) {
+                stats.recordSent();
+                return;
+            }
+        }
+        send(target, definition, packet, newEnvelope(definition, packet, envelopeFormat), sender.routesByPacketType());
+    }
+
+    /**
+     * @return the origin {@link #newEnvelope} stamps on plain sends in {@code format}, or 0
+     */
+    private long stampedOrigin(EnvelopeFormat format) {
+        return format == EnvelopeFormat.COMPACT && echoSuppression ? nodeId : 0;
+    }
+
+    private PacketDefinition<?> requireDefinition(Packet packet) {
         PacketDefinition<?> definition = packetRegistry.getDefinition(packet.getClass());
         if (definition == null) {
             throw new IllegalStateException(
                     "Packet type not registered: " + packet.getClass().getName()
             );
         }
+        return definition;
+    }
+
+    private PacketEnvelope newEnvelope(PacketDefinition<?> definition, Packet packet, EnvelopeFormat format) {
+        PacketEnvelope envelope = new PacketEnvelope(format);
+        envelope.setRegistryId(definition.getRegistryId());
+        if (format == EnvelopeFormat.LEGACY || compactPacketIds) {
+            envelope.setPacketId(packet.getPacketId());
+        }
+        envelope.setOriginNodeId(stampedOrigin(format));
+        return envelope;
+    }
+
+    /**
+     * @param routed whether the sender may deliver by packet type (see {@link PacketSender#routesByPacketType()})
+     */
+    private void send(PacketChannel target, PacketDefinition<?> definition, Packet packet,
+                      PacketEnvelope envelope, boolean routed) {
+        PacketBatcher currentBatcher = batcher;
+        try (FriendlyByteOutputStream out = FriendlyByteOutputStream.pooled()) {
+            encode(target, definition, packet, envelope, out);
+            PacketPriority priority = definition.getPriority();
+            if (currentBatcher != null && priority != PacketPriority.CRITICAL) {
+                currentBatcher.enqueue(target, routed ? definition : null, priority, out.toByteBuffer());
+            } else if (routed) {
+                sender.sendPacket(target, definition, out.toByteBuffer());
+            } else {
+                sender.sendPacket(target, out.toByteBuffer(), priority);
+            }
+        }
+        stats.recordSent();
+    }
+
+    private void encode(PacketChannel target, PacketDefinition<?> definition, Packet packet,
+                        PacketEnvelope envelope, FriendlyByteOutputStream out) {
+        boolean compact = envelope.isCompact();
+        StringDictionary dictionary = compact ? resolveDictionary(target) : null;
+        if (dictionary != null) {
+            envelope.setStringDictionaryId(dictionary.getId());
+        }
+
+        int headerStart = out.size();
+        envelope.write(out);
+        if (dictionary != null) {
+            out.setStringTable(dictionary.newTable());
+        }
+
+        int bodyStart = out.size();
+        definition.writeBody(packet, out);
+
+        if (compact && shouldCompress(definition, out.size() - bodyStart)) {
+            if (compression.compress(out, bodyStart)) {
+                envelope.patchFlag(out, headerStart, PacketEnvelope.FLAG_COMPRESSED);
+            }
+        }
+    }
+
+    private boolean shouldCompress(PacketDefinition<?> definition, int bodySize) {
+        return switch (definition.getCompression()) {
+            case NEVER -> false;
+            case ALWAYS -> true;
+            case DEFAULT -> compression.isEnabled() && bodySize >= compression.getThreshold();
+        };
+    }
+
+    /* =========================================================
+     * REQUEST / REPLY
+     * ========================================================= */
+
+    /**
+     * Random id of this manager on the network (one per instance); replies to its requests are sent to
+     * {@link #getReplyChannel()}.
+     */
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    public PacketChannel getReplyChannel() {
+        return replyChannel;
+    }
+
+    private static long newNodeId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    public static String replyChannelName(long nodeId) {
+        return REPLY_CHANNEL_PREFIX + Long.toHexString(nodeId);
+    }
+
+    /**
+     * Send {@code request} and complete with the first reply of type {@code replyType}
+     * (see {@link #reply}). The future fails with a {@link TimeoutException} once
+     * {@code timeout} elapses; cancelling it forgets the request.
+     *
+     * Requests and replies always use the compact envelope, whatever {@link #setEnvelopeFormat} says.
+     * Replies are not dispatched to subscribers.
+     */
+    public <R extends Packet> CompletableFuture<R> request(PacketChannel target, Packet request,
+                                                          Class<R> replyType, Duration timeout) {
+        Objects.requireNonNull(replyType, "replyType");
+        if (packetRegistry.getDefinition(replyType) == null) {
+            throw new IllegalStateException("Reply type not registered: " + replyType.getName());
+        }
+
+        ReplyFuture<R> pending = new ReplyFuture<>(replyType);
+        sendRequest(target, request, pending, timeout);
+        pending.future.whenComplete((reply, error) -> {
+            if (error instanceof CancellationException) requests.remove(pending);
+        });
+        return pending.future;
+    }
+
+    void sendRequest(PacketChannel target, Packet request, PendingRequest pending, Duration timeout) {
+        Objects.requireNonNull(target, "target");
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(timeout, "timeout");
+        if (!initialized) {
+            throw new IllegalStateException("PacketManager not initialized");
+        }
+
+        PacketDefinition<?> definition = requireDefinition(request);
+        ensureReplyChannel();
+
+        PacketEnvelope envelope = newEnvelope(definition, request, EnvelopeFormat.COMPACT);
+        envelope.setCorrelation(requests.open(pending, timeout), false);
+        envelope.setOriginNodeId(nodeId);
+
+        try {
+            send(target, definition, request, envelope, sender.routesByPacketType());
+        } catch (RuntimeException e) {
+            requests.fail(pending, e);
+        }
+    }
+
+    /**
+     * Broadcast {@code query} and fold the replies of type {@code replyType} into {@code collector}.
+     * The future completes as soon as {@code policy} is satisfied, or with the replies gathered
+     * so far once {@code deadline} elapses. Each node's first reply counts; later ones are ignored.
+     *
+     * <pre>
+     * packets.gather(PacketChannels.GLOBAL, new OnlineCountQuery(), OnlineCount.class,
+     *         GatherPolicy.allKnownNodes(), Duration.ofMillis(250),
+     *         Collectors.summingInt(OnlineCount::getCount));
+     * </pre>
+     */
+    public <R extends Packet, A> CompletableFuture<A> gather(PacketChannel target, Packet query, Class<R> replyType,
+                                                            GatherPolicy<R> policy, Duration deadline,
+                                                            Collector<? super R, ?, A> collector) {
+        Objects.requireNonNull(replyType, "replyType");
+        Objects.requireNonNull(policy, "policy");
+        Objects.requireNonNull(collector, "collector");
+        if (packetRegistry.getDefinition(replyType) == null) {
+            throw new IllegalStateException("Reply type not registered: " + replyType.getName());
+        }
 
-        FriendlyByteOutputStream out = new FriendlyByteOutputStream();
-        out.writeLong(definition.getRegistryId());
-        packet.writeData(out);
+        Set<Long> expectedNodes = policy.getKind() == GatherPolicy.Kind.ALL_KNOWN_NODES ? getKnownNodes() : Set.of();
+        GatherRequest<R, ?, A> pending = newGather(replyType, policy, collector, expectedNodes);
+        sendRequest(target, query, pending, deadline);
+        pending.future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) requests.remove(pending);
+        });
+        return pending.future;
+    }
+
+    private static <R extends Packet, C, A> GatherRequest<R, C, A> newGather(Class<R> replyType, GatherPolicy<R> policy,
+                                                                            Collector<? super R, C, A> collector,
+                                                                            Set<Long> expectedNodes) {
+        return new GatherRequest<>(replyType, policy, collector, expectedNodes);
+    }
+
+    /**
+     * Nodes whose requests, replies or origin-stamped packets were received during the last
+     * {@link #KNOWN_NODE_TTL} (this node included once it answered itself).
+     */
+    public Set<Long> getKnownNodes() {
+        long cutoff = System.nanoTime() - KNOWN_NODE_TTL.toNanos();
+        Set<Long> nodes = new HashSet<>();
+        for (Iterator<Map.Entry<Long, Long>> it = nodesLastSeen.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Long> entry = it.next();
+            if (entry.getValue() - cutoff < 0) {
+                it.remove();
+            } else {
+                nodes.add(entry.getKey());
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Answer a packet received through {@link #request} (see {@link Packet#isRequest()}).
+     */
+    public void reply(Packet request, Packet response) {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(response, "response");
+        if (!request.isRequest()) {
+            throw new IllegalArgumentException("Packet was not received as a request: " + request.getClass().getName());
+        }
+
+        PacketDefinition<?> definition = requireDefinition(response);
+        PacketEnvelope envelope = newEnvelope(definition, response, EnvelopeFormat.COMPACT);
+        envelope.setCorrelation(request.getCorrelationId(), true);
+        envelope.setOriginNodeId(nodeId);
+
+        // Replies are never routed: the requester did not necessarily subscribe to their type
+        send(PacketChannel.individual(replyChannelName(request.getOriginNodeId())), definition, response, envelope, false);
+    }
+
+    /**
+     * Requests still waiting for a reply or their deadline.
+     */
+    public int getPendingRequestCount() {
+        return requests.size();
+    }
 
-        sender.sendPacket(target, out.toByteArray());
+    private void ensureReplyChannel() {
+        if (replyChannelRegistered) return;
+        synchronized (this) {
+            if (!replyChannelRegistered) {
+                sender.registerChannel(replyChannel);
+                replyChannelRegistered = true;
+            }
+        }
+    }
+
+    private static final class ReplyFuture<R extends Packet> extends PendingRequest {
+        private final Class<R> replyType;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        ReplyFuture(Class<R> replyType) {
+            this.replyType = replyType;
+        }
+
+        @Override
+        boolean accepts(Packet reply) {
+            return replyType.isInstance(reply);
+        }
+
+        @Override
+        boolean onReply(Packet reply) {
+            future.complete(replyType.cast(reply));
+            return true;
+        }
+
+        @Override
+        void onTimeout() {
+            future.completeExceptionally(new TimeoutException("No " + replyType.getSimpleName() + " reply in time"));
+        }
+
+        @Override
+        void onFailure(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
     }
 
     /* =========================================================
@@ -100,19 +610,123 @@ public final class PacketManager implements IncomingPacketListener {
      * ========================================================= */
 
     public <T extends Packet> void subscribe(Class<T> packetClass, PacketSubscriber<T> subscriber) {
+        subscribeWith(packetClass, subscriber, SubscribeOptions.callerThread());
+    }
+
+    /**
+     * Subscribe with a delivery executor and optional ordered lanes (see {@link SubscribeOptions}).
+     * {@code packetClass} may be a superclass (even abstract) of the packets to receive:
+     * subscribing to {@code Packet.class} receives everything.
+     */
+    public <T extends Packet> void subscribe(Class<T> packetClass, PacketSubscriber<T> subscriber,
+                                             SubscribeOptions<? super T> options) {
+        subscribeWith(packetClass, subscriber, options);
+    }
+
+    /**
+     * Same as {@link #subscribe(Class, PacketSubscriber, SubscribeOptions)}, returning the
+     * handle that unsubscribes it.
+     */
+    public <T extends Packet> PacketSubscription<T> subscribeWith(Class<T> packetClass, PacketSubscriber<T> subscriber,
+                                                                  SubscribeOptions<? super T> options) {
         Objects.requireNonNull(packetClass, "packetClass");
         Objects.requireNonNull(subscriber, "subscriber");
+        Objects.requireNonNull(options, "options");
 
         @SuppressWarnings("unchecked")
         PacketSubscriptionQueue<T> queue =
                 (PacketSubscriptionQueue<T>) subscriptions.computeIfAbsent(
                         packetClass,
-                        c -> new PacketSubscriptionQueue<>(packetClass)
+                        c -> new PacketSubscriptionQueue<>(packetClass, this::invalidateInterest)
                 );
 
-        queue.subscribe(subscriber);
+        return queue.subscribeWith(subscriber, options);
+    }
+
+    public <T extends Packet> void unsubscribe(Class<T> packetClass, PacketSubscriber<T> subscriber) {
+        @SuppressWarnings("unchecked")
+        PacketSubscriptionQueue<T> queue = (PacketSubscriptionQueue<T>) subscriptions.get(packetClass);
+        if (queue != null) queue.unsubscribe(subscriber);
     }
 
+    /* =========================================================
+     * INTEREST
+     * ========================================================= */
+
+    /**
+     * Drop incoming frames of packet types without local subscribers (and of unknown
+     * types) by peeking at their header, before anything is decoded or allocated.
+     * RPC frames are always decoded. Enabled by default.
+     */
+    public void setInterestFiltering(boolean interestFiltering) {
+        this.interestFiltering = interestFiltering;
+    }
+
+    public boolean isInterestFiltering() {
+        return interestFiltering;
+    }
+
+    private void invalidateInterest() {
+        resetDispatchTables();
+        interestVersion.incrementAndGet();
+        publishInterest();
+    }
+
+    /**
+     * Tell a type-routing sender which packet types to receive (see {@link PacketSender#updateInterest}).
+     */
+    private synchronized void publishInterest() {
+        if (!initialized || !sender.routesByPacketType()) return;
+
+        sender.updateInterest(interestingDefinitions());
+    }
+
+    /**
+     * Registered packet types delivered to at least one subscriber.
+     */
+    private List<PacketDefinition<?>> interestingDefinitions() {
+        return interestingDefinitions(dispatchTable);
+    }
+
+    private List<PacketDefinition<?>> interestingDefinitions(ClassValue<PacketSubscription<?>[]> table) {
+        List<PacketDefinition<?>> definitions = new ArrayList<>();
+        for (PacketDefinition<?> definition : packetRegistry.getDefinitions()) {
+            if (table.get(definition.getPacketClass()).length > 0) definitions.add(definition);
+        }
+        return definitions;
+    }
+
+    /**
+     * Registry ids with at least one subscriber, rebuilt after subscription or registry changes.
+     */
+    private InterestTable interestTable() {
+        InterestTable table = interest;
+        int version = interestVersion.get();
+        int registrySize = packetRegistry.size();
+        if (table != null && table.version == version && table.registrySize == registrySize) {
+            return table;
+        }
+
+        table = new InterestTable(registryIds(interestingDefinitions(dispatchTable)),
+                registryIds(interestingDefinitions(selfDispatchTable)), version, registrySize);
+        interest = table;
+        return table;
+    }
+
+    private static ImmutableLongSet registryIds(List<PacketDefinition<?>> definitions) {
+        long[] ids = new long[definitions.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = definitions.get(i).getRegistryId();
+        }
+        return ImmutableLongSet.of(ids);
+    }
+
+    /**
+     * @param selfRegistryIds subset of {@code registryIds} also delivered when sent by this node
+     */
+    private record InterestTable(ImmutableLongSet registryIds, ImmutableLongSet selfRegistryIds,
+                                 int version, int registrySize) {}
+
     /* =========================================================
      * RECEIVE (IncomingPacketListener)
      * ========================================================= */
@@ -120,32 +734,250 @@ public final class PacketManager implements IncomingPacketListener {
     @Override
     public void onReceive(PacketChannel channel, byte[] content) {
         if (!initialized) return;
+        receiveMessage(channel, new FriendlyByteInputStream(content));
+    }
+
+    @Override
+    public void onReceive(PacketChannel channel, ByteBuffer content) {
+        if (!initialized) return;
+        receiveMessage(channel, new FriendlyByteInputStream(content));
+    }
+
+    private void receiveMessage(PacketChannel channel, FriendlyByteInputStream in) {
+        if (!PacketBatch.isBatch(in)) {
+            receive(channel, in);
+            return;
+        }
 
-        FriendlyByteInputStream in = new FriendlyByteInputStream(content);
-        long registryId = in.readLong();
+        stats.recordBatchReceived();
+        try {
+            PacketBatch.read(in, frame -> receive(channel, new FriendlyByteInputStream(frame)));
+        } catch (PacketUnderflowException e) {
+            stats.recordDropped(); // truncated batch → keep the frames already dispatched
+        }
+    }
+
+    private void receive(PacketChannel channel, FriendlyByteInputStream in) {
+        PacketEnvelope envelope = new PacketEnvelope();
+        PacketDefinition<?> definition = null;
+        Packet packet = null;
+        boolean self = false;
+        try {
+            if (PacketBatch.isBatch(in)) {
+                stats.recordDropped(); // batches do not nest
+                return;
+            }
+
+            boolean rpc = PacketEnvelope.peekFlag(in, PacketEnvelope.FLAG_CORRELATION);
+            if (echoSuppression && !rpc && PacketEnvelope.peekOriginNodeId(in) == nodeId) {
+                if (sender.echoesLocally()
+                        || !interestTable().selfRegistryIds().contains(PacketEnvelope.peekRegistryId(in))) {
+                    stats.recordDroppedSelf();
+                    return;
+                }
+                self = true;
+            }
+
+            if (interestFiltering && !rpc
+                    && !interestTable().registryIds().contains(PacketEnvelope.peekRegistryId(in))) {
+                stats.recordDroppedByInterest();
+                return;
+            }
+
+            envelope.read(in);
+
+            RecentIdSet seen = recentPacketIds;
+            UUID packetId = envelope.getPacketId();
+            if (seen != null && packetId != null
+                    && !seen.add(packetId.getMostSignificantBits(), packetId.getLeastSignificantBits())) {
+                stats.recordDuplicate();
+                return; // redelivery → body never decoded
+            }
+
+            definition = packetRegistry.getDefinition(envelope.getRegistryId());
+            if (definition == null) {
+                stats.recordDropped();
+                return; // unknown packet → silently ignore
+            }
+
+            if (envelope.getStringDictionaryId() >= 0) {
+                StringDictionary dictionary = stringDictionaries.get(envelope.getStringDictionaryId());
+                if (dictionary == null) {
+                    stats.recordDropped();
+                    return; // dictionary not configured here → cannot decode
+                }
+                in.setStringTable(dictionary.newTable());
+            }
+
+            if (envelope.hasFlag(PacketEnvelope.FLAG_COMPRESSED)) {
+                in = compression.decompress(in);
+            }
+
+            packet = definition.getProvider().createPacket();
+            if (envelope.getPacketId() != null) {
+                packet.setPacketId(envelope.getPacketId());
+            }
+            definition.readBody(packet, in);
+        } catch (PacketUnderflowException e) {
+            stats.recordDropped();
+            if (packet != null) recycle(definition, packet);
+            return; // truncated frame → drop
+        }
+
+        stats.recordReceived();
+        if (envelope.getOriginNodeId() != 0) {
+            packet.setOriginNodeId(envelope.getOriginNodeId());
+            nodesLastSeen.put(envelope.getOriginNodeId(), System.nanoTime());
+        }
+
+        if (envelope.getCorrelationId() != 0) {
+            if (envelope.isResponse()) {
+                if (!requests.reply(envelope.getCorrelationId(), packet)) {
+                    stats.recordUnmatchedReply(); // timed out, cancelled, already answered, or wrong type
+                    recycle(definition, packet);
+                } else if (definition.getProvider() instanceof PooledPacketProvider<?> pool) {
+                    pool.detach(packet); // the caller owns it now
+                }
+                return;
+            }
+            packet.setCorrelationId(envelope.getCorrelationId());
+        }
+
+        dispatch(channel, packet, recyclerOf(definition), self);
+    }
+
+    @Override
+    public boolean receivesPackets() {
+        return true;
+    }
 
-        PacketDefinition<?> definition = packetRegistry.getDefinition(registryId);
+    /**
+     * Packet handed over by a sender in this JVM: same filtering as {@link #receive}, no envelope to decode.
+     * The instance belongs to the sender and is never modified here: subscribers get a copy of its body
+     * (recycled like decoded packets), or the instance itself if its type is immutable.
+     */
+    @Override
+    public void onReceivePacket(PacketChannel channel, Packet packet, long originNodeId) {
+        if (!initialized) return;
+
+        PacketDefinition<? extends Packet> definition = packetRegistry.getDefinition(packet.getClass());
         if (definition == null) {
-            return; // unknown packet → silently ignore
+            stats.recordDropped();
+            return;
         }
 
-        Packet packet = definition.getProvider().createPacket();
-        packet.readData(in);
+        boolean self = echoSuppression && originNodeId == nodeId;
+        if (self && selfDispatchTable.get(packet.getClass()).length == 0) {
+            stats.recordDroppedSelf();
+            return;
+        }
+        if (interestFiltering && dispatchTable.get(packet.getClass()).length == 0) {
+            stats.recordDroppedByInterest();
+            return;
+        }
+
+        RecentIdSet seen = recentPacketIds;
+        if (seen != null) {
+            UUID packetId = packet.getPacketId(); // generated on the sending thread, before it is shared
+            if (!seen.add(packetId.getMostSignificantBits(), packetId.getLeastSignificantBits())) {
+                stats.recordDuplicate();
+                return;
+            }
+        }
 
-        dispatch(channel, packet);
+        stats.recordReceived();
+        if (originNodeId != 0) nodesLastSeen.put(originNodeId, System.nanoTime());
+
+        if (definition.isImmutable()) {
+            dispatch(channel, packet, null, self);
+        } else {
+            dispatch(channel, copy(definition, packet, originNodeId), recyclerOf(definition), self);
+        }
+    }
+
+    /**
+     * Copy of {@code source}'s body in a packet from {@code definition}'s provider, owned by this manager.
+     */
+    private static <T extends Packet> T copy(PacketDefinition<T> definition, Packet source, long originNodeId) {
+        T copy = definition.getProvider().createPacket();
+        try (FriendlyByteOutputStream out = FriendlyByteOutputStream.pooled()) {
+            definition.writeBody(source, out);
+            definition.readBody(copy, new FriendlyByteInputStream(out.toByteBuffer()));
+        }
+        if (source.hasPacketId()) copy.setPacketId(source.getPacketId());
+        copy.setOriginNodeId(originNodeId);
+        return copy;
     }
 
     /* =========================================================
      * DISPATCH
      * ========================================================= */
 
-    private <T extends Packet> void dispatch(PacketChannel channel, T packet) {
+    /**
+     * @param recycler called once every subscriber is done with {@code packet}, or null
+     * @param self whether {@code packet} was sent by this node (echo suppression on)
+     */
+    private <T extends Packet> void dispatch(PacketChannel channel, T packet, Consumer<T> recycler, boolean self) {
+        // Every subscription in the table accepts a supertype of packet's class
         @SuppressWarnings("unchecked")
-        PacketSubscriptionQueue<T> queue =
-                (PacketSubscriptionQueue<T>) subscriptions.get(packet.getClass());
+        PacketSubscription<T>[] targets =
+                (PacketSubscription<T>[]) (self ? selfDispatchTable : dispatchTable).get(packet.getClass());
+
+        if (targets.length == 0) {
+            if (recycler != null) recycler.accept(packet);
+            return;
+        }
+
+        PacketSubscriptionQueue.dispatch(targets, channel, packet, recycler);
+    }
+
+    private void resetDispatchTables() {
+        ClassValue<PacketSubscription<?>[]> table = newDispatchTable();
+        dispatchTable = table;
+        selfDispatchTable = newSelfDispatchTable(table);
+    }
+
+    private static ClassValue<PacketSubscription<?>[]> newSelfDispatchTable(ClassValue<PacketSubscription<?>[]> table) {
+        return new ClassValue<>() {
+            @Override
+            protected PacketSubscription<?>[] computeValue(Class<?> type) {
+                return Arrays.stream(table.get(type))
+                        .filter(subscription -> subscription.getOptions().isSelfDelivery())
+                        .toArray(PacketSubscription<?>[]::new);
+            }
+        };
+    }
+
+    /**
+     * Resolves a concrete class to the subscriptions of its own queue, then of its superclasses' queues.
+     */
+    private ClassValue<PacketSubscription<?>[]> newDispatchTable() {
+        return new ClassValue<>() {
+            @Override
+            protected PacketSubscription<?>[] computeValue(Class<?> type) {
+                List<PacketSubscription<?>> targets = new ArrayList<>();
+                for (Class<?> c = type; c != null && Packet.class.isAssignableFrom(c); c = c.getSuperclass()) {
+                    PacketSubscriptionQueue<? extends Packet> queue = subscriptions.get(c);
+                    if (queue != null) targets.addAll(queue.getSubscriptions());
+                }
+                return targets.toArray(new PacketSubscription<?>[0]);
+            }
+        };
+    }
+
+    private void recycle(PacketDefinition<?> definition, Packet packet) {
+        Consumer<Packet> recycler = recyclerOf(definition);
+        if (recycler != null) recycler.accept(packet);
+    }
 
-        if (queue == null) return;
-        queue.dispatch(channel, packet);
+    /**
+     * @return the pool's release callback if {@code definition} uses a {@link PooledPacketProvider}
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Packet> Consumer<T> recyclerOf(PacketDefinition<?> definition) {
+        return definition.getProvider() instanceof PooledPacketProvider<?> pool
+                ? (Consumer<T>) pool.releaser()
+                : null;
     }
 
     /* =========================================================
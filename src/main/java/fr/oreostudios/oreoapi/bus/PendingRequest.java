@@ -0,0 +1,36 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/PendingRequest.java
+package fr.oreostudios.oreoapi.bus;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.util.HashedWheelTimer;
+
+/**
+ * An outgoing request waiting for replies, tracked by {@link PendingRequests}.
+ * Callbacks for one request never run concurrently.
+ */
+abstract class PendingRequest {
+
+    long correlationId;
+    HashedWheelTimer.Timeout timeout;
+
+    /**
+     * Whether {@code reply} counts as a reply to this request (type, duplicate responder).
+     * Rejected packets are not passed to {@link #onReply}.
+     */
+    abstract boolean accepts(Packet reply);
+
+    /**
+     * @return true once no more replies are expected
+     */
+    abstract boolean onReply(Packet reply);
+
+    /**
+     * The deadline passed before {@link #onReply} returned true.
+     */
+    abstract void onTimeout();
+
+    /**
+     * Sending failed or the manager closed.
+     */
+    abstract void onFailure(Throwable cause);
+}
@@ -0,0 +1,105 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/PendingRequests.java
+package fr.oreostudios.oreoapi.bus;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.util.HashedWheelTimer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-flight requests of one {@link PacketManager}, keyed by correlation id.
+ * Deadlines run on a shared timer wheel (10 ms ticks), created on first use.
+ */
+final class PendingRequests {
+
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 512;
+
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+    private final Map<Long, PendingRequest> pending = new ConcurrentHashMap<>();
+    private HashedWheelTimer timer;
+
+    /**
+     * Assign a correlation id to {@code request} and start its deadline.
+     */
+    long open(PendingRequest request, Duration timeout) {
+        HashedWheelTimer wheel = timer();
+        long id = nextCorrelationId.incrementAndGet();
+        request.correlationId = id;
+        pending.put(id, request);
+        request.timeout = wheel.schedule(() -> {
+            if (pending.remove(id, request)) {
+                synchronized (request) {
+                    request.onTimeout();
+                }
+            }
+        }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        return id;
+    }
+
+    /**
+     * @return false if no request is waiting for this id (already completed or timed out)
+     *         or that request does not accept {@code reply}; the caller still owns the packet then
+     */
+    boolean reply(long correlationId, Packet reply) {
+        PendingRequest request = pending.get(correlationId);
+        if (request == null) return false;
+
+        synchronized (request) {
+            if (pending.get(correlationId) != request || !request.accepts(reply)) return false;
+            if (request.onReply(reply)) {
+                remove(request);
+            }
+        }
+        return true;
+    }
+
+    void fail(PendingRequest request, Throwable cause) {
+        if (remove(request)) {
+            synchronized (request) {
+                request.onFailure(cause);
+            }
+        }
+    }
+
+    /**
+     * Stop tracking {@code request} without notifying it (e.g. the caller cancelled).
+     */
+    boolean remove(PendingRequest request) {
+        if (!pending.remove(request.correlationId, request)) return false;
+        if (request.timeout != null) request.timeout.cancel();
+        return true;
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    private synchronized HashedWheelTimer timer() {
+        if (timer == null) {
+            timer = new HashedWheelTimer("oreo-bus-rpc-timer", TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+        }
+        return timer;
+    }
+
+    /**
+     * Fail every pending request and stop the timer.
+     */
+    void close() {
+        synchronized (this) {
+            if (timer != null) {
+                timer.close();
+                timer = null;
+            }
+        }
+
+        IllegalStateException cause = new IllegalStateException("PacketManager closed");
+        for (PendingRequest request : pending.values()) {
+            fail(request, cause);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/TickQueue.java
+package fr.oreostudios.oreoapi.bus;
+
+import fr.oreostudios.oreoapi.util.BoundedRingBuffer;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded hand-off from bus threads to a host's main (tick) thread.
+ *
+ * Use it as a subscription executor ({@code SubscribeOptions.on(tickQueue)}) and call
+ * {@link #drain(long)} once per tick from the main thread: tasks run in submission
+ * order until the time budget is spent, the rest waits for the next tick. When the
+ * queue is full, {@link #execute} rejects the task and the delivery is dropped.
+ *
+ * Any number of threads may submit; only one thread may drain.
+ */
+public final class TickQueue implements Executor {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final BoundedRingBuffer<Task> tasks;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAccumulator maxLagNanos = new LongAccumulator(Math::max, 0);
+    private long executed;
+    private volatile long lastDrainCount;
+    private volatile long lastDrainNanos;
+    private volatile long lastDrainLagNanos;
+
+    public TickQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TickQueue(int capacity) {
+        this.tasks = new BoundedRingBuffer<>(capacity);
+    }
+
+    /**
+     * @throws RejectedExecutionException if the queue is full
+     */
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command, "command");
+        if (!tasks.offer(new Task(command, System.nanoTime()))) {
+            rejected.increment();
+            throw new RejectedExecutionException("Tick queue full (" + tasks.capacity() + " tasks)");
+        }
+        submitted.increment();
+    }
+
+    /**
+     * Run queued tasks in order until the queue is empty or {@code nanosBudget} has elapsed.
+     * At least one task runs when the queue is not empty and the budget is positive.
+     * A task that throws is reported to the thread's uncaught exception handler.
+     *
+     * @return number of tasks run
+     */
+    public int drain(long nanosBudget) {
+        if (nanosBudget <= 0) return 0;
+
+        long start = System.nanoTime();
+        long deadline = start + nanosBudget;
+        long now = start;
+        long maxLag = 0;
+        int count = 0;
+
+        Task task;
+        while ((task = tasks.poll()) != null) {
+            maxLag = Math.max(maxLag, now - task.enqueuedNanos);
+            run(task.command);
+            count++;
+
+            now = System.nanoTime();
+            if (now - deadline >= 0) break;
+        }
+
+        executed += count;
+        lastDrainCount = count;
+        lastDrainNanos = now - start;
+        lastDrainLagNanos = maxLag;
+        maxLagNanos.accumulate(maxLag);
+        return count;
+    }
+
+    private static void run(Runnable command) {
+        try {
+            command.run();
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Metrics                                            */
+    /* -------------------------------------------------- */
+
+    /**
+     * Tasks currently waiting.
+     */
+    public int getDepth() {
+        return tasks.size();
+    }
+
+    public int getCapacity() {
+        return tasks.capacity();
+    }
+
+    /**
+     * How long the oldest waiting task has been queued; 0 when empty. Drain thread only.
+     */
+    public long getLagNanos() {
+        Task head = tasks.peek();
+        return head == null ? 0 : Math.max(0, System.nanoTime() - head.enqueuedNanos);
+    }
+
+    /**
+     * Longest queueing time among the tasks run by the last {@link #drain}.
+     */
+    public long getLastDrainLagNanos() {
+        return lastDrainLagNanos;
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos.get();
+    }
+
+    public long getLastDrainCount() {
+        return lastDrainCount;
+    }
+
+    /**
+     * Time spent in the last {@link #drain}, including the task that crossed the budget.
+     */
+    public long getLastDrainNanos() {
+        return lastDrainNanos;
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * Tasks run so far. Drain thread only.
+     */
+    public long getExecuted() {
+        return executed;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TickQueue{depth=" + getDepth() + "/" + getCapacity()
+                + ", lastDrain=" + lastDrainCount + " in " + lastDrainNanos / 1_000 + "us"
+                + ", lastLag=" + lastDrainLagNanos / 1_000 + "us"
+                + ", rejected=" + getRejected() + "}";
+    }
+
+    private record Task(Runnable command, long enqueuedNanos) {}
+}
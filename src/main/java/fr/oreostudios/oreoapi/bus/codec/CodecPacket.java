@@ -0,0 +1,36 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/codec/CodecPacket.java
+package fr.oreostudios.oreoapi.bus.codec;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
+
+/**
+ * Base class of packets annotated with {@link GenerateCodec}: the body is read and written
+ * by the generated {@link PacketCodec} instead of hand-written {@code read}/{@code write}.
+ */
+public abstract class CodecPacket extends Packet {
+
+    @Override
+    protected final void read(FriendlyByteInputStream stream) {
+        codec().read(this, stream);
+    }
+
+    @Override
+    protected final void write(FriendlyByteOutputStream stream) {
+        codec().write(this, stream);
+    }
+
+    /**
+     * @throws IllegalStateException if no codec was generated (oreoapi-processor not on the annotation processor path)
+     */
+    private PacketCodec<CodecPacket> codec() {
+        @SuppressWarnings("unchecked")
+        PacketCodec<CodecPacket> codec = PacketCodecs.find((Class<CodecPacket>) getClass());
+        if (codec == null) {
+            throw new IllegalStateException("No generated codec for " + getClass().getName()
+                    + " (is it annotated with @GenerateCodec and oreoapi-processor enabled?)");
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,19 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/codec/GenerateCodec.java
+package fr.oreostudios.oreoapi.bus.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ask the oreoapi-processor annotation processor to generate a {@link PacketCodec}
+ * for this packet class.
+ *
+ * Every {@link PacketField} is encoded in declaration order; other fields are ignored.
+ * The packet extends {@link CodecPacket}, which reads and writes it through that codec.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface GenerateCodec {
+}
@@ -0,0 +1,19 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/codec/PacketCodec.java
+package fr.oreostudios.oreoapi.bus.codec;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
+
+/**
+ * Reads/writes the body of one packet type (the packet UUID is handled by the envelope).
+ *
+ * Implementations are normally generated from {@link GenerateCodec} and found by
+ * {@link PacketCodecs}; they must be stateless.
+ */
+public interface PacketCodec<T extends Packet> {
+
+    void write(T packet, FriendlyByteOutputStream out);
+
+    void read(T packet, FriendlyByteInputStream in);
+}
@@ -0,0 +1,54 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/codec/PacketCodecs.java
+package fr.oreostudios.oreoapi.bus.codec;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+
+/**
+ * Lookup of generated codecs.
+ *
+ * The processor names the codec of {@code com.example.Outer.MyPacket}
+ * {@code com.example.Outer_MyPacket_Codec}; it is loaded through the packet's own
+ * class loader so codecs shipped by other plugins resolve correctly.
+ */
+public final class PacketCodecs {
+    private PacketCodecs() {}
+
+    public static final String SUFFIX = "_Codec";
+
+    private static final ClassValue<PacketCodec<?>> CODECS = new ClassValue<>() {
+        @Override
+        protected PacketCodec<?> computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    /**
+     * @return the generated codec for {@code packetClass}, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Packet> PacketCodec<T> find(Class<T> packetClass) {
+        return (PacketCodec<T>) CODECS.get(packetClass);
+    }
+
+    public static String codecClassName(Class<?> packetClass) {
+        String pkg = packetClass.getPackageName();
+        String binary = packetClass.getName();
+        String simpleChain = pkg.isEmpty() ? binary : binary.substring(pkg.length() + 1);
+        return (pkg.isEmpty() ? "" : pkg + ".") + simpleChain.replace('$', '_') + SUFFIX;
+    }
+
+    private static PacketCodec<?> load(Class<?> packetClass) {
+        Class<?> codecClass;
+        try {
+            codecClass = Class.forName(codecClassName(packetClass), true, packetClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+
+        try {
+            return (PacketCodec<?>) codecClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Invalid generated codec: " + codecClass.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/codec/PacketField.java
+package fr.oreostudios.oreoapi.bus.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field (or record component) encoded by a generated {@link PacketCodec}.
+ *
+ * Supported types: primitives and their boxes, String, UUID, BitSet, enums, records
+ * made of supported types, arrays and {@code java.util.List}s of supported types.
+ * Annotated fields must not be private, final or static.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface PacketField {
+
+    /**
+     * Prefix the value with a presence byte so it may be null.
+     */
+    boolean nullable() default false;
+}
@@ -0,0 +1,18 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/envelope/EnvelopeFormat.java
+package fr.oreostudios.oreoapi.bus.envelope;
+
+/**
+ * Header layout used when sending packets.
+ *
+ * Receivers always understand both layouts (see {@link PacketEnvelope}), so a
+ * network can be migrated by upgrading every node first and switching senders
+ * to {@link #COMPACT} afterwards.
+ */
+public enum EnvelopeFormat {
+
+    /** 8-byte registry id + 16-byte packet UUID, fixed-width size prefixes. Understood by every version. */
+    LEGACY,
+
+    /** Flags byte + varint registry id + optional packet UUID, varint size prefixes. */
+    COMPACT
+}
@@ -0,0 +1,60 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/envelope/PacketBatch.java
+package fr.oreostudios.oreoapi.bus.envelope;
+
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Several packet frames carried by one transport message:
+ * <pre>
+ * [COMPACT_MARKER | FLAG_BATCH] ([varint frameLength][frame])*
+ * </pre>
+ * Each frame is a complete envelope + body, in either layout. Batches do not nest.
+ */
+public final class PacketBatch {
+    private PacketBatch() {}
+
+    public static final int HEADER = PacketEnvelope.COMPACT_MARKER | PacketEnvelope.FLAG_BATCH;
+
+    /**
+     * @return true if the next byte of {@code in} starts a batch rather than a packet header
+     */
+    public static boolean isBatch(FriendlyByteInputStream in) {
+        return in.isReadable() && (in.peekByte() & HEADER) == HEADER;
+    }
+
+    public static void writeHeader(FriendlyByteOutputStream out) {
+        out.writeByte(HEADER);
+    }
+
+    /**
+     * Append the remaining bytes of {@code frame}, length-prefixed.
+     */
+    public static void writeFrame(FriendlyByteOutputStream out, ByteBuffer frame) {
+        out.writeVarInt(frame.remaining());
+        out.writeBytes(frame);
+    }
+
+    /**
+     * Bytes {@link #writeFrame} appends for a frame of {@code length} bytes.
+     */
+    public static int frameSize(int length) {
+        return FriendlyByteOutputStream.varIntSize(length) + length;
+    }
+
+    /**
+     * Hand every frame of the batch at the head of {@code in} to {@code frames},
+     * as zero-copy slices only valid during the callback.
+     *
+     * @throws fr.oreostudios.oreoapi.bus.stream.PacketUnderflowException if a frame is truncated
+     */
+    public static void read(FriendlyByteInputStream in, Consumer<ByteBuffer> frames) {
+        in.readByte();
+        while (in.isReadable()) {
+            frames.accept(in.readSlice(in.readVarInt()));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/envelope/PacketCompression.java
+package fr.oreostudios.oreoapi.bus.envelope;
+
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
+import fr.oreostudios.oreoapi.bus.stream.PacketUnderflowException;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable compression settings plus the codec that applies them.
+ *
+ * Deflater/Inflater instances are expensive to create (native zlib state), so
+ * each thread keeps one pair per settings instance and resets it between packets.
+ * An optional preset dictionary helps small, similar payloads; every node must
+ * configure the same dictionary (zlib checks its Adler-32 on inflate).
+ */
+public final class PacketCompression {
+
+    /** Upper bound for a single inflated body, protects against zip bombs. */
+    public static final int DEFAULT_MAX_INFLATED_SIZE = 16 * 1024 * 1024;
+
+    private static final int MAX_RETAINED_SCRATCH = 256 * 1024;
+
+    public static final PacketCompression DISABLED =
+            new PacketCompression(-1, Deflater.DEFAULT_COMPRESSION, null, DEFAULT_MAX_INFLATED_SIZE);
+
+    private final int threshold;
+    private final int level;
+    private final byte[] dictionary;
+    private final int maxInflatedSize;
+
+    private final ThreadLocal<Codec> codecs = ThreadLocal.withInitial(Codec::new);
+
+    private PacketCompression(int threshold, int level, byte[] dictionary, int maxInflatedSize) {
+        this.threshold = threshold;
+        this.level = level;
+        this.dictionary = dictionary;
+        this.maxInflatedSize = maxInflatedSize;
+    }
+
+    /**
+     * Compress bodies of at least {@code thresholdBytes}.
+     */
+    public static PacketCompression threshold(int thresholdBytes) {
+        if (thresholdBytes < 0) throw new IllegalArgumentException("thresholdBytes must be >= 0");
+        return new PacketCompression(thresholdBytes, Deflater.DEFAULT_COMPRESSION, null, DEFAULT_MAX_INFLATED_SIZE);
+    }
+
+    public PacketCompression withLevel(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid deflate level: " + level);
+        }
+        return new PacketCompression(threshold, level, dictionary, maxInflatedSize);
+    }
+
+    public PacketCompression withDictionary(byte[] dictionary) {
+        return new PacketCompression(threshold, level, dictionary != null ? dictionary.clone() : null, maxInflatedSize);
+    }
+
+    public PacketCompression withMaxInflatedSize(int maxInflatedSize) {
+        return new PacketCompression(threshold, level, dictionary, maxInflatedSize);
+    }
+
+    public boolean isEnabled() {
+        return threshold >= 0;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /* -------------------------------------------------- */
+    /* Codec                                              */
+    /* -------------------------------------------------- */
+
+    /**
+     * Replace everything written to {@code out} after {@code bodyStart} with
+     * {@code [varint rawLength][deflate data]}, unless that would not be smaller.
+     *
+     * @return true if the body was replaced, false if {@code out} was left untouched
+     */
+    public boolean compress(FriendlyByteOutputStream out, int bodyStart) {
+        ByteBuffer raw = out.toByteBuffer().position(bodyStart);
+        int rawLength = raw.remaining();
+        int budget = rawLength - FriendlyByteOutputStream.varIntSize(rawLength);
+        if (budget <= 0) return false;
+
+        Codec codec = codecs.get();
+        byte[] scratch = codec.scratch(budget);
+
+        Deflater deflater = codec.deflater;
+        deflater.reset();
+        if (dictionary != null) deflater.setDictionary(dictionary);
+        deflater.setInput(raw);
+        deflater.finish();
+
+        int written = 0;
+        while (!deflater.finished()) {
+            if (written == budget) return false; // not worth it
+            written += deflater.deflate(scratch, written, budget - written);
+        }
+
+        out.truncate(bodyStart);
+        out.writeVarInt(rawLength);
+        out.writeBytes(scratch, 0, written);
+        return true;
+    }
+
+    /**
+     * Inflate the rest of {@code in} (written by {@link #compress}) into a new reader
+     * that keeps the size-prefix mode and string table of {@code in}.
+     *
+     * @throws PacketUnderflowException if the data is corrupt, oversized or needs an unknown dictionary
+     */
+    public FriendlyByteInputStream decompress(FriendlyByteInputStream in) {
+        int rawLength = in.readVarInt();
+        byte[] raw = inflate(in.readSlice(in.remaining()), rawLength);
+
+        FriendlyByteInputStream body = new FriendlyByteInputStream(raw);
+        body.setCompact(in.isCompact());
+        body.setStringTable(in.getStringTable());
+        return body;
+    }
+
+    private byte[] inflate(ByteBuffer compressed, int rawLength) {
+        if (rawLength < 0 || rawLength > maxInflatedSize) throw PacketUnderflowException.INSTANCE;
+
+        Inflater inflater = codecs.get().inflater;
+        inflater.reset();
+        inflater.setInput(compressed);
+
+        byte[] raw = new byte[rawLength];
+        int read = 0;
+        try {
+            while (!inflater.finished()) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0) {
+                    if (inflater.needsDictionary() && dictionary != null && read == 0) {
+                        inflater.setDictionary(dictionary);
+                        continue;
+                    }
+                    throw PacketUnderflowException.INSTANCE; // truncated, overlong or unknown dictionary
+                }
+                read += n;
+            }
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw PacketUnderflowException.INSTANCE;
+        }
+
+        if (read != rawLength) throw PacketUnderflowException.INSTANCE;
+        return raw;
+    }
+
+    private final class Codec {
+        final Deflater deflater = new Deflater(level);
+        final Inflater inflater = new Inflater();
+        byte[] scratch = new byte[0];
+
+        byte[] scratch(int size) {
+            if (scratch.length >= size) return scratch;
+            if (size > MAX_RETAINED_SCRATCH) return new byte[size];
+            return scratch = new byte[size];
+        }
+    }
+}
@@ -0,0 +1,283 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/envelope/PacketEnvelope.java
+package fr.oreostudios.oreoapi.bus.envelope;
+
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Header that precedes every packet body on the wire.
+ *
+ * Both layouts are accepted on receive and told apart by the first byte:
+ * <pre>
+ * LEGACY  : [long registryId][UUID packetId][body]
+ * COMPACT : [flags][varlong registryId]
+ *           [UUID packetId       if FLAG_PACKET_ID]
+ *           [varint dictionaryId if FLAG_STRING_TABLE]
+ *           [varlong correlationId << 1 | response if FLAG_CORRELATION]
+ *           [long originNodeId  if FLAG_ORIGIN]
+ *           [body, or varint rawLength + deflate(body) if FLAG_COMPRESSED]
+ * </pre>
+ * Registry ids are small positive numbers, so a legacy frame always starts with 0x00,
+ * while a compact frame always has {@link #COMPACT_MARKER} set in its flags byte.
+ * Bodies behind a compact header use varint size prefixes.
+ * A first byte with {@link #FLAG_BATCH} starts a batch of frames instead (see PacketBatch).
+ */
+public final class PacketEnvelope {
+
+    /** Always set on a compact header; never set on the first byte of a legacy one. */
+    public static final int COMPACT_MARKER = 0x80;
+
+    /** A 16-byte packet UUID follows the registry id. */
+    public static final int FLAG_PACKET_ID = 0x01;
+
+    /** Body strings go through a StringTable seeded by the dictionary whose id follows. */
+    public static final int FLAG_STRING_TABLE = 0x02;
+
+    /** Body is deflated (see PacketCompression). */
+    public static final int FLAG_COMPRESSED = 0x04;
+
+    /** Not a packet header: the rest of the message is a PacketBatch. */
+    public static final int FLAG_BATCH = 0x08;
+
+    /** Request or response of a PacketManager RPC; the correlation id follows. */
+    public static final int FLAG_CORRELATION = 0x10;
+
+    /** The sending node id follows (requests use it as their reply address). */
+    public static final int FLAG_ORIGIN = 0x20;
+
+    private static final int DERIVED_FLAGS = FLAG_PACKET_ID | FLAG_STRING_TABLE | FLAG_CORRELATION | FLAG_ORIGIN;
+
+    private EnvelopeFormat format;
+    private int flags;
+    private long registryId;
+    private UUID packetId;
+    private int stringDictionaryId = -1;
+    private long correlationId;
+    private boolean response;
+    private long originNodeId;
+
+    public PacketEnvelope() {
+        this(EnvelopeFormat.LEGACY);
+    }
+
+    public PacketEnvelope(EnvelopeFormat format) {
+        this.format = Objects.requireNonNull(format, "format");
+    }
+
+    /* -------------------------------------------------- */
+    /* Wire                                               */
+    /* -------------------------------------------------- */
+
+    /**
+     * Read a header of either layout and switch {@code in} to the matching size-prefix mode.
+     */
+    public void read(FriendlyByteInputStream in) {
+        if ((in.peekByte() & COMPACT_MARKER) == 0) {
+            format = EnvelopeFormat.LEGACY;
+            flags = FLAG_PACKET_ID;
+            registryId = in.readLong();
+            packetId = in.readUUID();
+            stringDictionaryId = -1;
+            correlationId = 0;
+            response = false;
+            originNodeId = 0;
+            in.setCompact(false);
+            return;
+        }
+
+        format = EnvelopeFormat.COMPACT;
+        flags = in.readByte() & ~COMPACT_MARKER;
+        registryId = in.readVarLong();
+        packetId = hasFlag(FLAG_PACKET_ID) ? in.readUUID() : null;
+        stringDictionaryId = hasFlag(FLAG_STRING_TABLE) ? in.readVarInt() : -1;
+        if (hasFlag(FLAG_CORRELATION)) {
+            long correlation = in.readVarLong();
+            correlationId = correlation >>> 1;
+            response = (correlation & 1) != 0;
+        } else {
+            correlationId = 0;
+            response = false;
+        }
+        originNodeId = hasFlag(FLAG_ORIGIN) ? in.readLong() : 0;
+        in.setCompact(true);
+    }
+
+    /**
+     * Registry id of the header at the head of {@code in}, without consuming anything
+     * or allocating. Lets receivers drop uninteresting frames before decoding them.
+     */
+    public static long peekRegistryId(FriendlyByteInputStream in) {
+        int start = in.position();
+        try {
+            if ((in.peekByte() & COMPACT_MARKER) == 0) {
+                return in.readLong();
+            }
+            in.readByte();
+            return in.readVarLong();
+        } finally {
+            in.rewind(start);
+        }
+    }
+
+    /**
+     * Origin node id of the header at the head of {@code in}, or 0 if it carries none,
+     * without consuming anything or allocating.
+     */
+    public static long peekOriginNodeId(FriendlyByteInputStream in) {
+        if (!peekFlag(in, FLAG_ORIGIN)) return 0;
+
+        int start = in.position();
+        try {
+            int flags = in.readByte();
+            in.readVarLong();
+            if ((flags & FLAG_PACKET_ID) != 0) in.skipBytes(16);
+            if ((flags & FLAG_STRING_TABLE) != 0) in.readVarInt();
+            if ((flags & FLAG_CORRELATION) != 0) in.readVarLong();
+            return in.readLong();
+        } finally {
+            in.rewind(start);
+        }
+    }
+
+    /**
+     * @return true if the header at the head of {@code in} is a compact one carrying {@code flag}
+     */
+    public static boolean peekFlag(FriendlyByteInputStream in, int flag) {
+        int first = in.peekByte();
+        return (first & COMPACT_MARKER) != 0 && (first & flag) != 0;
+    }
+
+    /**
+     * Write this header and switch {@code out} to the matching size-prefix mode.
+     */
+    public void write(FriendlyByteOutputStream out) {
+        if (format == EnvelopeFormat.LEGACY) {
+            if (correlationId != 0 || originNodeId != 0) {
+                throw new IllegalStateException("Legacy headers cannot carry a correlation id or origin");
+            }
+            out.writeLong(registryId);
+            out.writeUUID(Objects.requireNonNull(packetId, "packetId"));
+            out.setCompact(false);
+            return;
+        }
+
+        int wireFlags = flags & ~DERIVED_FLAGS;
+        if (packetId != null) wireFlags |= FLAG_PACKET_ID;
+        if (stringDictionaryId >= 0) wireFlags |= FLAG_STRING_TABLE;
+        if (correlationId != 0) wireFlags |= FLAG_CORRELATION;
+        if (originNodeId != 0) wireFlags |= FLAG_ORIGIN;
+
+        flags = wireFlags;
+        out.writeByte(COMPACT_MARKER | wireFlags);
+        out.writeVarLong(registryId);
+        if (packetId != null) out.writeUUID(packetId);
+        if (stringDictionaryId >= 0) out.writeVarInt(stringDictionaryId);
+        if (correlationId != 0) out.writeVarLong(correlationId << 1 | (response ? 1 : 0));
+        if (originNodeId != 0) out.writeLong(originNodeId);
+        out.setCompact(true);
+    }
+
+    /* -------------------------------------------------- */
+    /* Fields                                             */
+    /* -------------------------------------------------- */
+
+    public EnvelopeFormat getFormat() {
+        return format;
+    }
+
+    public boolean isCompact() {
+        return format == EnvelopeFormat.COMPACT;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    /**
+     * Set a flag on a compact header already written at {@code headerStart} of {@code out}.
+     */
+    public void patchFlag(FriendlyByteOutputStream out, int headerStart, int flag) {
+        if (format != EnvelopeFormat.COMPACT) {
+            throw new IllegalStateException("Legacy headers have no flags");
+        }
+        flags |= flag;
+        out.setByte(headerStart, COMPACT_MARKER | flags);
+    }
+
+    public long getRegistryId() {
+        return registryId;
+    }
+
+    public void setRegistryId(long registryId) {
+        this.registryId = registryId;
+    }
+
+    /**
+     * @return the packet UUID carried by the header, or null if it was omitted
+     */
+    public UUID getPacketId() {
+        return packetId;
+    }
+
+    public void setPacketId(UUID packetId) {
+        this.packetId = packetId;
+    }
+
+    /**
+     * @return id of the StringDictionary the body was written with, or -1 if strings are inline
+     */
+    public int getStringDictionaryId() {
+        return stringDictionaryId;
+    }
+
+    /**
+     * Compact layout only; ignored by legacy headers.
+     */
+    public void setStringDictionaryId(int stringDictionaryId) {
+        this.stringDictionaryId = stringDictionaryId;
+    }
+
+    /**
+     * @return RPC correlation id, or 0 if this is not a request or response
+     */
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * @return true if the correlation id refers to a request sent by the receiving node
+     */
+    public boolean isResponse() {
+        return response;
+    }
+
+    /**
+     * Compact layout only. {@code correlationId} must be positive, or 0 to clear.
+     */
+    public void setCorrelation(long correlationId, boolean response) {
+        if (correlationId < 0) throw new IllegalArgumentException("correlationId must be >= 0");
+        this.correlationId = correlationId;
+        this.response = correlationId != 0 && response;
+    }
+
+    /**
+     * @return id of the sending node, or 0 if the header does not carry it
+     */
+    public long getOriginNodeId() {
+        return originNodeId;
+    }
+
+    /**
+     * Compact layout only; 0 to omit.
+     */
+    public void setOriginNodeId(long originNodeId) {
+        this.originNodeId = originNodeId;
+    }
+}
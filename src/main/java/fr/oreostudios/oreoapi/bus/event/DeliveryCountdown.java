@@ -0,0 +1,33 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/event/DeliveryCountdown.java
+package fr.oreostudios.oreoapi.bus.event;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Counts the executor deliveries of one packet still in flight and runs the
+ * completion callback when the last one (and the dispatching thread) is done.
+ */
+final class DeliveryCountdown<T extends Packet> {
+
+    private final AtomicInteger pending = new AtomicInteger(1); // held by the dispatching thread
+    private final T packet;
+    private final Consumer<? super T> onComplete;
+
+    DeliveryCountdown(T packet, Consumer<? super T> onComplete) {
+        this.packet = packet;
+        this.onComplete = onComplete;
+    }
+
+    void retain() {
+        pending.incrementAndGet();
+    }
+
+    void release() {
+        if (pending.decrementAndGet() == 0) {
+            onComplete.accept(packet);
+        }
+    }
+}
@@ -2,10 +2,41 @@ package fr.oreostudios.oreoapi.bus.event;
 
 
 import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.util.ByteBuffers;
+
+import java.nio.ByteBuffer;
 
 public interface IncomingPacketListener {
 
     void onReceive(PacketChannel channel, byte[] content);
 
-}
+    /**
+     * Receive the remaining bytes of {@code content}.
+     * The buffer is only valid for the duration of the call.
+     */
+    default void onReceive(PacketChannel channel, ByteBuffer content) {
+        onReceive(channel, ByteBuffers.copyOf(content)); // implementations may keep the array
+    }
+
+    /**
+     * Whether this listener accepts packet objects through {@link #onReceivePacket}.
+     * In-process senders fall back to encoded packets for listeners that do not.
+     */
+    default boolean receivesPackets() {
+        return false;
+    }
 
+    /**
+     * Receive a packet object sent in this JVM (see {@link PacketSender#sendLocal}), on the sending thread.
+     * The instance is the sender's and is shared with the other receivers: it must not be modified, and
+     * may only be kept past this call if its type is immutable (see PacketDefinition#isImmutable).
+     * Only called if {@link #receivesPackets()} is true.
+     *
+     * @param originNodeId the sending node, or 0 if unknown
+     */
+    default void onReceivePacket(PacketChannel channel, Packet packet, long originNodeId) {
+        throw new UnsupportedOperationException(getClass().getName() + " only receives encoded packets");
+    }
+
+}
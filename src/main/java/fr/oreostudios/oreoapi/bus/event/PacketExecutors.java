@@ -0,0 +1,48 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/event/PacketExecutors.java
+package fr.oreostudios.oreoapi.bus.event;
+
+import fr.oreostudios.oreoapi.util.NamedThreadFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for {@link SubscribeOptions}.
+ */
+public final class PacketExecutors {
+    private PacketExecutors() {}
+
+    private static final Executor CALLER_THREAD = Runnable::run;
+
+    private static final class VirtualThreads {
+        static final ExecutorService INSTANCE = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("oreo-bus-vt-", 0).factory());
+    }
+
+    /**
+     * Run handlers on the thread that received the packet (the transport's consumer thread).
+     * A slow handler delays every packet behind it.
+     */
+    public static Executor callerThread() {
+        return CALLER_THREAD;
+    }
+
+    /**
+     * Shared executor starting one virtual thread per delivery; suits blocking handlers.
+     */
+    public static Executor virtualThreads() {
+        return VirtualThreads.INSTANCE;
+    }
+
+    /**
+     * New pool of daemon platform threads; the caller owns it and shuts it down.
+     */
+    public static ExecutorService fixedPool(int threads, String name) {
+        return Executors.newFixedThreadPool(threads, new NamedThreadFactory(name, true));
+    }
+
+    static boolean isCallerThread(Executor executor) {
+        return executor == CALLER_THREAD;
+    }
+}
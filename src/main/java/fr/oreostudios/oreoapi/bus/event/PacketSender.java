@@ -2,6 +2,13 @@ package fr.oreostudios.oreoapi.bus.event;
 
 
 import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.namespace.PacketDefinition;
+import fr.oreostudios.oreoapi.bus.namespace.PacketPriority;
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.util.ByteBuffers;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
 
 public interface PacketSender {
 
@@ -9,5 +16,81 @@ public interface PacketSender {
     void registerChannel(PacketChannel channel);
     void registerListener(IncomingPacketListener listener);
 
+    /**
+     * Send the remaining bytes of {@code content}.
+     * The buffer may be recycled as soon as this returns, so implementations
+     * must not keep a reference to it.
+     */
+    default void sendPacket(PacketChannel channel, ByteBuffer content) {
+        sendPacket(channel, ByteBuffers.copyOf(content)); // implementations may keep the array
+    }
+
+    /**
+     * Send {@code content}, whose packets all have {@code priority}. Transports that
+     * support priorities deliver higher ones first when traffic backs up.
+     */
+    default void sendPacket(PacketChannel channel, ByteBuffer content, PacketPriority priority) {
+        sendPacket(channel, content);
+    }
+
+    /**
+     * Whether this transport can deliver packets by type (see {@link #updateInterest}).
+     * When true, the manager passes the packet type along with every single-type message.
+     */
+    default boolean routesByPacketType() {
+        return false;
+    }
+
+    /**
+     * Send {@code content}, which only holds packets of {@code definition}'s type.
+     * Transports that route by type deliver it only to nodes interested in that type.
+     * The priority is the definition's.
+     */
+    default void sendPacket(PacketChannel channel, PacketDefinition<?> definition, ByteBuffer content) {
+        sendPacket(channel, content, definition.getPriority());
+    }
+
+    /**
+     * Packet types this node has subscribers for, called again whenever the set changes.
+     */
+    default void updateInterest(Collection<PacketDefinition<?>> definitions) {
+    }
+
+    /**
+     * Whether {@link #sendLocal} may hand packet objects to listeners. The manager only calls
+     * it, and only prepares packets for sharing, when this is true.
+     */
+    default boolean deliversPackets() {
+        return false;
+    }
+
+    /**
+     * Hand {@code packet} itself to the listeners of this JVM that {@code channel} reaches,
+     * without encoding it (see {@link IncomingPacketListener#onReceivePacket}), before returning.
+     * Only called for plain sends, never for requests or replies.
+     *
+     * @param originNodeId the sending node, or 0 if its encoded frames do not carry it
+     * @return true if that reached every destination, false if the packet must still be encoded and sent
+     */
+    default boolean sendLocal(PacketChannel channel, Packet packet, long originNodeId) {
+        return false;
+    }
+
+    /**
+     * Whether {@link #sendLocal} already delivers this node's own packets to it while also
+     * sending them over the network. The manager then drops every echo of its plain sends.
+     */
+    default boolean echoesLocally() {
+        return false;
+    }
+
+    /**
+     * Whether a packet sent to {@code channel} may currently reach another node through this
+     * transport. Transports that cannot tell say true.
+     */
+    default boolean reachesRemoteNodes(PacketChannel channel) {
+        return true;
+    }
+
     void close();
 }
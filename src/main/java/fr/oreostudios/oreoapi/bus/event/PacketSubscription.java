@@ -0,0 +1,141 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/event/PacketSubscription.java
+package fr.oreostudios.oreoapi.bus.event;
+
+import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.util.SerialExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A subscriber registered with its {@link SubscribeOptions}. Closing it unsubscribes;
+ * deliveries already queued on an executor are skipped.
+ *
+ * Handler exceptions never reach the transport or other subscribers: they go to the
+ * uncaught exception handler of the thread that ran the handler. Deliveries rejected
+ * by the executor (e.g. a full TickQueue) are dropped; with lanes, so are the deliveries
+ * queued behind a lane whose drain the executor rejects.
+ */
+public final class PacketSubscription<T extends Packet> implements AutoCloseable {
+
+    private final PacketSubscriptionQueue<T> queue;
+    private final PacketSubscriber<T> subscriber;
+    private final SubscribeOptions<? super T> options;
+    private final Executor[] lanes;
+
+    private volatile boolean active = true;
+
+    PacketSubscription(PacketSubscriptionQueue<T> queue, PacketSubscriber<T> subscriber, SubscribeOptions<? super T> options) {
+        this.queue = queue;
+        this.subscriber = subscriber;
+        this.options = options;
+
+        if (options.hasLanes()) {
+            this.lanes = new Executor[options.getLaneCount()];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = new SerialExecutor(options.getExecutor(), task -> ((PacketSubscription<?>.Delivery) task).done());
+            }
+        } else {
+            this.lanes = null;
+        }
+    }
+
+    boolean isAsync() {
+        return !options.isCallerThread();
+    }
+
+    /**
+     * @param countdown retained until an executor delivery has run; null if nobody waits for it
+     */
+    void deliver(PacketChannel channel, T packet, DeliveryCountdown<T> countdown) {
+        if (options.isCallerThread()) {
+            invoke(channel, packet);
+            return;
+        }
+
+        if (countdown != null) countdown.retain();
+        Delivery delivery = new Delivery(channel, packet, countdown);
+        try {
+            executorFor(packet).execute(delivery);
+        } catch (RejectedExecutionException e) {
+            // executor saturated or shut down → drop this delivery, keep the others going
+            delivery.done();
+        }
+    }
+
+    private Executor executorFor(T packet) {
+        if (lanes == null) return options.getExecutor();
+
+        Object key = options.getLaneKey().apply(packet);
+        if (key == null) return lanes[0];
+
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return lanes[Math.floorMod(hash, lanes.length)];
+    }
+
+    private void invoke(PacketChannel channel, T packet) {
+        if (!active) return;
+        try {
+            subscriber.onReceive(channel, packet);
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    public PacketSubscriber<T> getSubscriber() {
+        return subscriber;
+    }
+
+    public SubscribeOptions<? super T> getOptions() {
+        return options;
+    }
+
+    public Class<T> getPacketClass() {
+        return queue.getPacketClass();
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void unsubscribe() {
+        active = false;
+        queue.remove(this);
+    }
+
+    @Override
+    public void close() {
+        unsubscribe();
+    }
+
+    /**
+     * One executor delivery; releases its countdown whether it runs or is dropped.
+     */
+    private final class Delivery implements Runnable {
+        private final PacketChannel channel;
+        private final T packet;
+        private final DeliveryCountdown<T> countdown;
+
+        Delivery(PacketChannel channel, T packet, DeliveryCountdown<T> countdown) {
+            this.channel = channel;
+            this.packet = packet;
+            this.countdown = countdown;
+        }
+
+        @Override
+        public void run() {
+            try {
+                invoke(channel, packet);
+            } finally {
+                done();
+            }
+        }
+
+        void done() {
+            if (countdown != null) countdown.release();
+        }
+    }
+}
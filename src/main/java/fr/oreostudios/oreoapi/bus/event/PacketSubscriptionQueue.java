@@ -4,33 +4,112 @@ package fr.oreostudios.oreoapi.bus.event;
 import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
 import fr.oreostudios.oreoapi.bus.packet.Packet;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class PacketSubscriptionQueue<T extends Packet> {
 
     private final Class<T> packetClass;
-    private final Queue<PacketSubscriber<T>> subscribers;
+    private final List<PacketSubscription<T>> subscriptions;
+    private final Runnable onChange;
 
     public PacketSubscriptionQueue(Class<T> packetClass) {
+        this(packetClass, () -> {});
+    }
+
+    /**
+     * @param onChange called after every subscribe / unsubscribe
+     */
+    public PacketSubscriptionQueue(Class<T> packetClass, Runnable onChange) {
         this.packetClass = packetClass;
-        this.subscribers = new ConcurrentLinkedQueue<>();
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.onChange = onChange;
     }
 
     public void subscribe(PacketSubscriber<T> subscriber) {
-        subscribers.add(subscriber);
+        subscribeWith(subscriber, SubscribeOptions.callerThread());
+    }
+
+    public void subscribe(PacketSubscriber<T> subscriber, SubscribeOptions<? super T> options) {
+        subscribeWith(subscriber, options);
     }
 
+    /**
+     * Same as {@link #subscribe(PacketSubscriber, SubscribeOptions)}, returning the handle that unsubscribes it.
+     */
+    public PacketSubscription<T> subscribeWith(PacketSubscriber<T> subscriber, SubscribeOptions<? super T> options) {
+        PacketSubscription<T> subscription = new PacketSubscription<>(this, subscriber, options);
+        subscriptions.add(subscription);
+        onChange.run();
+        return subscription;
+    }
+
+    /**
+     * Remove every subscription of {@code subscriber}.
+     */
     public void unsubscribe(PacketSubscriber<T> subscriber) {
-        subscribers.remove(subscriber);
+        for (PacketSubscription<T> subscription : subscriptions) {
+            if (subscription.getSubscriber().equals(subscriber)) {
+                subscription.unsubscribe();
+            }
+        }
+    }
+
+    void remove(PacketSubscription<T> subscription) {
+        if (subscriptions.remove(subscription)) {
+            onChange.run();
+        }
     }
 
     public void dispatch(PacketChannel channel, T packet) {
-        subscribers.forEach(subscriber -> subscriber.onReceive(channel, packet));
+        for (PacketSubscription<T> subscription : subscriptions) {
+            subscription.deliver(channel, packet, null);
+        }
+    }
+
+    /**
+     * Dispatch {@code packet} to subscriptions of several queues, e.g. those of its class and
+     * of its superclasses, then call {@code onComplete} once every subscriber is done with it,
+     * including deliveries queued on executors.
+     *
+     * @param onComplete may be null
+     */
+    public static <T extends Packet> void dispatch(PacketSubscription<T>[] subscriptions, PacketChannel channel,
+                                                   T packet, Consumer<? super T> onComplete) {
+        if (onComplete == null) {
+            for (PacketSubscription<T> subscription : subscriptions) {
+                subscription.deliver(channel, packet, null);
+            }
+            return;
+        }
+
+        DeliveryCountdown<T> countdown = null;
+        try {
+            for (PacketSubscription<T> subscription : subscriptions) {
+                if (subscription.isAsync() && countdown == null) {
+                    countdown = new DeliveryCountdown<>(packet, onComplete);
+                }
+                subscription.deliver(channel, packet, countdown);
+            }
+        } finally {
+            if (countdown != null) countdown.release();
+            else onComplete.accept(packet);
+        }
+    }
+
+    /**
+     * Snapshot of the current subscriptions, in subscription order.
+     */
+    public List<PacketSubscription<T>> getSubscriptions() {
+        return List.copyOf(subscriptions);
+    }
+
+    public boolean isEmpty() {
+        return subscriptions.isEmpty();
     }
 
     public Class<T> getPacketClass() {
         return packetClass;
     }
 }
-
@@ -0,0 +1,89 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/event/SubscribeOptions.java
+package fr.oreostudios.oreoapi.bus.event;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Immutable delivery settings of one subscription.
+ *
+ * By default handlers run on the receiving thread. With {@link #on(Executor)} they run
+ * on that executor instead; adding {@link #withLanes(Function) lanes} keeps packets with
+ * the same key (e.g. a player UUID) in arrival order while different keys run in parallel.
+ * Keys are hashed onto a fixed number of lanes, so unrelated keys may share one.
+ * Packets sent by this node itself are skipped unless {@link #withSelfDelivery(boolean)} is set.
+ */
+public final class SubscribeOptions<T extends Packet> {
+
+    public static final int DEFAULT_LANE_COUNT = Runtime.getRuntime().availableProcessors() * 4;
+
+    private final Executor executor;
+    private final Function<? super T, ?> laneKey;
+    private final int laneCount;
+    private final boolean selfDelivery;
+
+    private SubscribeOptions(Executor executor, Function<? super T, ?> laneKey, int laneCount, boolean selfDelivery) {
+        this.executor = executor;
+        this.laneKey = laneKey;
+        this.laneCount = laneCount;
+        this.selfDelivery = selfDelivery;
+    }
+
+    public static <T extends Packet> SubscribeOptions<T> callerThread() {
+        return new SubscribeOptions<>(PacketExecutors.callerThread(), null, DEFAULT_LANE_COUNT, false);
+    }
+
+    /**
+     * Deliver on {@code executor}; without lanes, packets may be handled concurrently and out of order.
+     */
+    public static <T extends Packet> SubscribeOptions<T> on(Executor executor) {
+        return new SubscribeOptions<>(Objects.requireNonNull(executor, "executor"), null, DEFAULT_LANE_COUNT, false);
+    }
+
+    /**
+     * Order deliveries per {@code key(packet)}; a null key goes to lane 0.
+     * Ignored on the caller thread, which is already ordered.
+     */
+    public SubscribeOptions<T> withLanes(Function<? super T, ?> key) {
+        return new SubscribeOptions<>(executor, Objects.requireNonNull(key, "key"), laneCount, selfDelivery);
+    }
+
+    public SubscribeOptions<T> withLaneCount(int laneCount) {
+        if (laneCount < 1) throw new IllegalArgumentException("laneCount must be >= 1");
+        return new SubscribeOptions<>(executor, laneKey, laneCount, selfDelivery);
+    }
+
+    /**
+     * Also receive packets this node sent itself (see PacketManager#setEchoSuppression).
+     */
+    public SubscribeOptions<T> withSelfDelivery(boolean selfDelivery) {
+        return new SubscribeOptions<>(executor, laneKey, laneCount, selfDelivery);
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public Function<? super T, ?> getLaneKey() {
+        return laneKey;
+    }
+
+    public int getLaneCount() {
+        return laneCount;
+    }
+
+    public boolean isSelfDelivery() {
+        return selfDelivery;
+    }
+
+    public boolean isCallerThread() {
+        return PacketExecutors.isCallerThread(executor);
+    }
+
+    public boolean hasLanes() {
+        return laneKey != null && !isCallerThread();
+    }
+}
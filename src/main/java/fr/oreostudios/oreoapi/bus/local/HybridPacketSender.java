@@ -0,0 +1,253 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/local/HybridPacketSender.java
+package fr.oreostudios.oreoapi.bus.local;
+
+import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.envelope.PacketBatch;
+import fr.oreostudios.oreoapi.bus.envelope.PacketEnvelope;
+import fr.oreostudios.oreoapi.bus.event.IncomingPacketListener;
+import fr.oreostudios.oreoapi.bus.event.PacketSender;
+import fr.oreostudios.oreoapi.bus.namespace.PacketDefinition;
+import fr.oreostudios.oreoapi.bus.namespace.PacketPriority;
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.PacketUnderflowException;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Network transport whose plain sends reach the managers of this JVM as objects.
+ *
+ * A sender is one node; {@link #newPeer} creates another node of this JVM, with its own
+ * remote transport, sharing the in-process network (like LoopbackPacketSender#newPeer).
+ * A plain send goes straight to every node of the network that registered its channel,
+ * the sending one included (its self-delivery subscriptions only), and over {@code remote}
+ * only if that may reach another node (see PacketSender#reachesRemoteNodes). Copies of it
+ * coming back over {@code remote} are dropped before they reach the managers.
+ *
+ * This needs compact envelopes with echo suppression on, so that frames carry their origin.
+ * Otherwise packets simply take the network path, as without this wrapper. If a node of the
+ * network has a listener that only takes bytes (see {@link IncomingPacketListener#receivesPackets}),
+ * packets to its channels are sent over {@code remote} too, and that listener gets them from there.
+ * Requests and replies always take the network path.
+ */
+public final class HybridPacketSender implements PacketSender {
+
+    private final Network network;
+    private final PacketSender remote;
+    private final Set<IncomingPacketListener> listeners = new CopyOnWriteArraySet<>();
+    /** Concrete channel name -> channel it was registered with. */
+    private final Map<String, PacketChannel> channels = new ConcurrentHashMap<>();
+
+    public HybridPacketSender(PacketSender remote) {
+        this(new Network(), remote);
+    }
+
+    private HybridPacketSender(Network network, PacketSender remote) {
+        this.network = network;
+        this.remote = remote;
+        network.members.add(this);
+    }
+
+    /**
+     * Another node of this JVM on the same in-process network, sending over {@code remote}.
+     */
+    public HybridPacketSender newPeer(PacketSender remote) {
+        return new HybridPacketSender(network, remote);
+    }
+
+    @Override
+    public void registerChannel(PacketChannel channel) {
+        remote.registerChannel(channel);
+        for (String ch : channel) {
+            channels.putIfAbsent(ch, channel);
+        }
+    }
+
+    /**
+     * Listeners that take packet objects only get, from {@code remote}, what the network's
+     * nodes did not already hand them.
+     */
+    @Override
+    public void registerListener(IncomingPacketListener listener) {
+        listeners.add(listener);
+        remote.registerListener(listener.receivesPackets() ? new EchoFilter(listener) : listener);
+    }
+
+    @Override
+    public boolean deliversPackets() {
+        return true;
+    }
+
+    @Override
+    public boolean sendLocal(PacketChannel channel, Packet packet, long originNodeId) {
+        if (originNodeId == 0) return false; // the copy coming back could not be told apart
+        network.nodeIds.add(originNodeId);
+
+        boolean encode = false;
+        for (HybridPacketSender peer : network.members) {
+            for (String ch : channel) {
+                PacketChannel registered = peer.channels.get(ch);
+                if (registered == null) continue;
+                for (IncomingPacketListener listener : peer.listeners) {
+                    if (listener.receivesPackets()) {
+                        listener.onReceivePacket(registered, packet, originNodeId);
+                    } else {
+                        encode = true;
+                    }
+                }
+            }
+        }
+        return !encode && !remote.reachesRemoteNodes(channel);
+    }
+
+    @Override
+    public boolean echoesLocally() {
+        return true;
+    }
+
+    @Override
+    public boolean reachesRemoteNodes(PacketChannel channel) {
+        return remote.reachesRemoteNodes(channel);
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, byte[] content) {
+        remote.sendPacket(channel, content);
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, ByteBuffer content) {
+        remote.sendPacket(channel, content);
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, ByteBuffer content, PacketPriority priority) {
+        remote.sendPacket(channel, content, priority);
+    }
+
+    @Override
+    public boolean routesByPacketType() {
+        return remote.routesByPacketType();
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, PacketDefinition<?> definition, ByteBuffer content) {
+        remote.sendPacket(channel, definition, content);
+    }
+
+    @Override
+    public void updateInterest(Collection<PacketDefinition<?>> definitions) {
+        remote.updateInterest(definitions);
+    }
+
+    public PacketSender getRemote() {
+        return remote;
+    }
+
+    /**
+     * Nodes currently on this sender's network, itself included.
+     */
+    public int getPeerCount() {
+        return network.members.size();
+    }
+
+    @Override
+    public void close() {
+        network.members.remove(this);
+        listeners.clear();
+        channels.clear();
+        remote.close();
+    }
+
+    /**
+     * Nodes of one JVM, and the origin of every manager that sent through them
+     * (a few bytes per manager, kept until the network is gone).
+     */
+    private static final class Network {
+        final List<HybridPacketSender> members = new CopyOnWriteArrayList<>();
+        final Set<Long> nodeIds = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Drops the plain frames sent by a node of the network, which were handed over as objects.
+     */
+    private final class EchoFilter implements IncomingPacketListener {
+        private final IncomingPacketListener delegate;
+
+        EchoFilter(IncomingPacketListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onReceive(PacketChannel channel, byte[] content) {
+            onReceive(channel, ByteBuffer.wrap(content));
+        }
+
+        @Override
+        public void onReceive(PacketChannel channel, ByteBuffer content) {
+            FriendlyByteInputStream in = new FriendlyByteInputStream(content);
+            if (!PacketBatch.isBatch(in)) {
+                if (!fromNetwork(content)) delegate.onReceive(channel, content);
+                return;
+            }
+            if (!anyFromNetwork(content)) {
+                delegate.onReceive(channel, content);
+                return;
+            }
+
+            try {
+                // frames of any kind share a batch: keep requests, replies and other nodes' sends
+                PacketBatch.read(in, frame -> {
+                    if (!fromNetwork(frame)) delegate.onReceive(channel, frame);
+                });
+            } catch (PacketUnderflowException ignored) {
+                // truncated batch → keep the frames already passed on
+            }
+        }
+
+        /**
+         * @return true if some frame of the batch {@code content} is a plain send of a node of the network
+         */
+        private boolean anyFromNetwork(ByteBuffer content) {
+            boolean[] found = new boolean[1];
+            try {
+                PacketBatch.read(new FriendlyByteInputStream(content), frame -> {
+                    if (!found[0] && fromNetwork(frame)) found[0] = true;
+                });
+            } catch (PacketUnderflowException ignored) {
+                // truncated → decide on the frames read so far
+            }
+            return found[0];
+        }
+
+        /**
+         * @return true if the single frame {@code content} is a plain send of a node of the network
+         */
+        private boolean fromNetwork(ByteBuffer content) {
+            try {
+                FriendlyByteInputStream in = new FriendlyByteInputStream(content);
+                return !PacketEnvelope.peekFlag(in, PacketEnvelope.FLAG_CORRELATION)
+                        && network.nodeIds.contains(PacketEnvelope.peekOriginNodeId(in));
+            } catch (PacketUnderflowException e) {
+                return false; // malformed → let the manager count it
+            }
+        }
+
+        @Override
+        public boolean receivesPackets() {
+            return true;
+        }
+
+        @Override
+        public void onReceivePacket(PacketChannel channel, Packet packet, long originNodeId) {
+            delegate.onReceivePacket(channel, packet, originNodeId);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/local/LoopbackPacketSender.java
+package fr.oreostudios.oreoapi.bus.local;
+
+import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.event.IncomingPacketListener;
+import fr.oreostudios.oreoapi.bus.event.PacketSender;
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * In-process transport: packets go straight to the managers of this JVM, as objects,
+ * on the sending thread. Each manager delivers a copy of the body to its subscribers, or
+ * the sender's instance itself for immutable types (see PacketDefinition#isImmutable);
+ * no envelope is built either way. Requests and replies are handed over as bytes without
+ * leaving the JVM either.
+ *
+ * A sender is one node; {@link #newPeer()} creates another node on the same in-process
+ * network (e.g. one per plugin, or one per simulated server in tests). A peer receives what
+ * is sent to the channels it registered, like with a broker, including its own broadcasts
+ * unless the manager's echo suppression drops them. If a listener reached by a packet
+ * only takes bytes (see {@link IncomingPacketListener#receivesPackets}), that packet is
+ * encoded and every receiver gets the bytes.
+ */
+public final class LoopbackPacketSender implements PacketSender {
+
+    private final List<LoopbackPacketSender> network;
+    private final Set<IncomingPacketListener> listeners = new CopyOnWriteArraySet<>();
+    /** Concrete channel name -> channel it was registered with. */
+    private final Map<String, PacketChannel> channels = new ConcurrentHashMap<>();
+
+    public LoopbackPacketSender() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private LoopbackPacketSender(List<LoopbackPacketSender> network) {
+        this.network = network;
+        network.add(this);
+    }
+
+    /**
+     * Another node on the same in-process network.
+     */
+    public LoopbackPacketSender newPeer() {
+        return new LoopbackPacketSender(network);
+    }
+
+    @Override
+    public void registerChannel(PacketChannel channel) {
+        for (String ch : channel) {
+            channels.putIfAbsent(ch, channel);
+        }
+    }
+
+    @Override
+    public void registerListener(IncomingPacketListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean deliversPackets() {
+        return true;
+    }
+
+    @Override
+    public boolean sendLocal(PacketChannel channel, Packet packet, long originNodeId) {
+        if (!allReceivePackets(channel)) return false; // encoded and sent through sendPacket instead
+
+        for (LoopbackPacketSender peer : network) {
+            for (String ch : channel) {
+                PacketChannel registered = peer.channels.get(ch);
+                if (registered == null) continue;
+                for (IncomingPacketListener listener : peer.listeners) {
+                    listener.onReceivePacket(registered, packet, originNodeId);
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean allReceivePackets(PacketChannel channel) {
+        for (LoopbackPacketSender peer : network) {
+            for (String ch : channel) {
+                if (!peer.channels.containsKey(ch)) continue;
+                for (IncomingPacketListener listener : peer.listeners) {
+                    if (!listener.receivesPackets()) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, byte[] content) {
+        sendPacket(channel, ByteBuffer.wrap(content));
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, ByteBuffer content) {
+        for (LoopbackPacketSender peer : network) {
+            for (String ch : channel) {
+                PacketChannel registered = peer.channels.get(ch);
+                if (registered == null) continue;
+                for (IncomingPacketListener listener : peer.listeners) {
+                    listener.onReceive(registered, content.duplicate());
+                }
+            }
+        }
+    }
+
+    /**
+     * Nodes currently on this sender's network, itself included.
+     */
+    public int getPeerCount() {
+        return network.size();
+    }
+
+    @Override
+    public void close() {
+        network.remove(this);
+        listeners.clear();
+        channels.clear();
+    }
+}
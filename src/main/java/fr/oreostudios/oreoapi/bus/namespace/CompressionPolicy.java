@@ -0,0 +1,17 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/namespace/CompressionPolicy.java
+package fr.oreostudios.oreoapi.bus.namespace;
+
+/**
+ * Per packet type compression preference (compact envelopes only).
+ */
+public enum CompressionPolicy {
+
+    /** Compress when the PacketManager's compression is enabled and the body reaches its threshold. */
+    DEFAULT,
+
+    /** Always try to compress, whatever the threshold (kept only if it actually shrinks the body). */
+    ALWAYS,
+
+    /** Never compress (already-compressed payloads, latency-critical packets...). */
+    NEVER
+}
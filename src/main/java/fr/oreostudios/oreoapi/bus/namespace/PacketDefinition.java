@@ -1,7 +1,11 @@
 // File: src/main/java/fr/oreostudios/oreoapi/bus/namespace/PacketDefinition.java
 package fr.oreostudios.oreoapi.bus.namespace;
 
+import fr.oreostudios.oreoapi.bus.codec.PacketCodec;
+import fr.oreostudios.oreoapi.bus.codec.PacketCodecs;
 import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
 
 import java.util.Objects;
 
@@ -12,6 +16,8 @@ import java.util.Objects;
  * - registryId <-> packet class
  * - packet provider
  * - namespace
+ * - per-type wire options (compression, priority)
+ * - generated body codec, if any (resolved once, at definition time)
  */
 public final class PacketDefinition<T extends Packet> {
 
@@ -19,17 +25,58 @@ public final class PacketDefinition<T extends Packet> {
     private final Class<T> packetClass;
     private final PacketProvider<T> provider;
     private final PacketNamespace namespace;
+    private final CompressionPolicy compression;
+    private final PacketPriority priority;
+    private final boolean immutable;
+    private final PacketCodec<T> codec;
 
     public PacketDefinition(
             long registryId,
             Class<T> packetClass,
             PacketProvider<T> provider,
             PacketNamespace namespace
+    ) {
+        this(registryId, packetClass, provider, namespace, CompressionPolicy.DEFAULT);
+    }
+
+    public PacketDefinition(
+            long registryId,
+            Class<T> packetClass,
+            PacketProvider<T> provider,
+            PacketNamespace namespace,
+            CompressionPolicy compression
+    ) {
+        this(registryId, packetClass, provider, namespace, compression, PacketPriority.NORMAL);
+    }
+
+    public PacketDefinition(
+            long registryId,
+            Class<T> packetClass,
+            PacketProvider<T> provider,
+            PacketNamespace namespace,
+            CompressionPolicy compression,
+            PacketPriority priority
+    ) {
+        this(registryId, packetClass, provider, namespace, compression, priority, false);
+    }
+
+    public PacketDefinition(
+            long registryId,
+            Class<T> packetClass,
+            PacketProvider<T> provider,
+            PacketNamespace namespace,
+            CompressionPolicy compression,
+            PacketPriority priority,
+            boolean immutable
     ) {
         this.registryId = registryId;
         this.packetClass = Objects.requireNonNull(packetClass, "packetClass");
         this.provider = Objects.requireNonNull(provider, "provider");
         this.namespace = Objects.requireNonNull(namespace, "namespace");
+        this.compression = Objects.requireNonNull(compression, "compression");
+        this.priority = Objects.requireNonNull(priority, "priority");
+        this.immutable = immutable;
+        this.codec = PacketCodecs.find(packetClass);
     }
 
     public long getRegistryId() {
@@ -48,6 +95,66 @@ public final class PacketDefinition<T extends Packet> {
         return namespace;
     }
 
+    public CompressionPolicy getCompression() {
+        return compression;
+    }
+
+    public PacketPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Whether instances are never modified once sent, so in-process transports may hand the
+     * sender's instance to every receiver instead of a copy.
+     */
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * @return the generated codec of this packet type, or null if it hand-writes read/write
+     */
+    public PacketCodec<T> getCodec() {
+        return codec;
+    }
+
+    /**
+     * Write the packet body, through the generated codec when there is one.
+     */
+    public void writeBody(Packet packet, FriendlyByteOutputStream out) {
+        if (codec != null) codec.write(packetClass.cast(packet), out);
+        else packet.writeBody(out);
+    }
+
+    /**
+     * Read the packet body, through the generated codec when there is one.
+     */
+    public void readBody(Packet packet, FriendlyByteInputStream in) {
+        if (codec != null) codec.read(packetClass.cast(packet), in);
+        else packet.readBody(in);
+    }
+
+    /**
+     * Copy of this definition with another compression policy.
+     */
+    public PacketDefinition<T> withCompression(CompressionPolicy compression) {
+        return new PacketDefinition<>(registryId, packetClass, provider, namespace, compression, priority, immutable);
+    }
+
+    /**
+     * Copy of this definition with another priority.
+     */
+    public PacketDefinition<T> withPriority(PacketPriority priority) {
+        return new PacketDefinition<>(registryId, packetClass, provider, namespace, compression, priority, immutable);
+    }
+
+    /**
+     * Copy of this definition with another immutability flag (see {@link #isImmutable()}).
+     */
+    public PacketDefinition<T> withImmutable(boolean immutable) {
+        return new PacketDefinition<>(registryId, packetClass, provider, namespace, compression, priority, immutable);
+    }
+
     /**
      * Convenience factory that infers the namespace from the packet class package
      * (only if your PacketNamespace supports such logic elsewhere).
@@ -72,7 +179,10 @@ public final class PacketDefinition<T extends Packet> {
         return registryId == other.registryId
                 && packetClass.equals(other.packetClass)
                 && provider.equals(other.provider)
-                && namespace.equals(other.namespace);
+                && namespace.equals(other.namespace)
+                && compression == other.compression
+                && priority == other.priority
+                && immutable == other.immutable;
     }
 
     @Override
@@ -81,6 +191,9 @@ public final class PacketDefinition<T extends Packet> {
         result = 31 * result + packetClass.hashCode();
         result = 31 * result + provider.hashCode();
         result = 31 * result + namespace.hashCode();
+        result = 31 * result + compression.hashCode();
+        result = 31 * result + priority.hashCode();
+        result = 31 * result + Boolean.hashCode(immutable);
         return result;
     }
 
@@ -91,6 +204,9 @@ public final class PacketDefinition<T extends Packet> {
                 + ", packetClass=" + packetClass.getName()
                 + ", provider=" + provider
                 + ", namespace=" + namespace
+                + ", compression=" + compression
+                + ", priority=" + priority
+                + ", immutable=" + immutable
                 + '}';
     }
 }
@@ -31,9 +31,34 @@ public abstract class PacketNamespace {
             long packetId,
             Class<T> packetClass,
             PacketProvider<T> provider
+    ) {
+        registerPacket(packetId, packetClass, provider, CompressionPolicy.DEFAULT);
+    }
+
+    /**
+     * Register a packet inside this namespace with an explicit compression policy.
+     */
+    protected final <T extends Packet> void registerPacket(
+            long packetId,
+            Class<T> packetClass,
+            PacketProvider<T> provider,
+            CompressionPolicy compression
+    ) {
+        registerPacket(packetId, packetClass, provider, compression, PacketPriority.NORMAL);
+    }
+
+    /**
+     * Register a packet inside this namespace with explicit compression and delivery priority.
+     */
+    protected final <T extends Packet> void registerPacket(
+            long packetId,
+            Class<T> packetClass,
+            PacketProvider<T> provider,
+            CompressionPolicy compression,
+            PacketPriority priority
     ) {
         PacketDefinition<T> def =
-                new PacketDefinition<>(packetId, packetClass, provider, this);
+                new PacketDefinition<>(packetId, packetClass, provider, this, compression, priority);
         definitions.add(def);
     }
 
@@ -0,0 +1,28 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/namespace/PacketPriority.java
+package fr.oreostudios.oreoapi.bus.namespace;
+
+/**
+ * Per packet type delivery priority. Transports that support it deliver higher
+ * priorities first when traffic backs up; others ignore it.
+ */
+public enum PacketPriority {
+
+    /** Stats, leaderboards, cache warm-up... */
+    BULK,
+
+    /** Everything else. */
+    NORMAL,
+
+    /** Latency-sensitive packets (player transfer, kick, chat); never held back by batching. */
+    CRITICAL;
+
+    /** Highest {@link #level()}. */
+    public static final int MAX_LEVEL = 2;
+
+    /**
+     * @return 0 (lowest) to {@link #MAX_LEVEL}, usable as an AMQP message priority
+     */
+    public int level() {
+        return ordinal();
+    }
+}
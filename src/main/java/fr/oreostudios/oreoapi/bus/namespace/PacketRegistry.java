@@ -3,12 +3,17 @@ package fr.oreostudios.oreoapi.bus.namespace;
 
 import fr.oreostudios.oreoapi.bus.packet.Packet;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Central registry for packet definitions.
@@ -37,6 +42,9 @@ public final class PacketRegistry {
     /** Next id for dynamic packets (safe high range) */
     private final AtomicLong nextDynamicId = new AtomicLong(10_000);
 
+    /** Called after a type's priority changed */
+    private final List<Runnable> priorityListeners = new CopyOnWriteArrayList<>();
+
     /* -------------------------------------------------- */
     /* Namespace registration                             */
     /* -------------------------------------------------- */
@@ -51,11 +59,18 @@ public final class PacketRegistry {
 
     /**
      * Register a single packet definition.
+     * Registry ids must not be negative: the envelope tells legacy headers (a big-endian id)
+     * from compact ones by the top bit of their first byte.
      *
+     * @throws IllegalArgumentException if the registryId is negative
      * @throws IllegalStateException if the registryId or packetClass is already registered
      */
     public <T extends Packet> void register(PacketDefinition<T> definition) {
         Objects.requireNonNull(definition, "definition");
+        if (definition.getRegistryId() < 0) {
+            throw new IllegalArgumentException(
+                    "Negative registryId " + definition.getRegistryId() + " for " + definition.getPacketClass().getName());
+        }
 
         // prevent silent overriding (very common source of "random" runtime bugs)
         PacketDefinition<?> prevById = byId.putIfAbsent(definition.getRegistryId(), definition);
@@ -98,13 +113,24 @@ public final class PacketRegistry {
             Class<T> packetClass,
             Supplier<? extends T> constructor
     ) {
-        Objects.requireNonNull(packetClass, "packetClass");
         Objects.requireNonNull(constructor, "constructor");
+        registerProvider(packetClass, constructor::get);
+    }
+
+    /**
+     * Same as {@link #register(Class, Supplier)} with an explicit provider
+     * (e.g. a {@link PooledPacketProvider}).
+     */
+    public <T extends Packet> void registerProvider(
+            Class<T> packetClass,
+            PacketProvider<T> provider
+    ) {
+        Objects.requireNonNull(packetClass, "packetClass");
+        Objects.requireNonNull(provider, "provider");
 
         // Atomic, thread-safe: only one thread creates & installs the definition.
         byClass.computeIfAbsent(packetClass, cls -> {
             long id = nextDynamicId.getAndIncrement();
-            PacketProvider<T> provider = constructor::get;
 
             PacketDefinition<T> def = new PacketDefinition<>(
                     id,
@@ -122,6 +148,73 @@ public final class PacketRegistry {
         });
     }
 
+    /* -------------------------------------------------- */
+    /* Per-type options                                   */
+    /* -------------------------------------------------- */
+
+    /**
+     * Change the compression policy of an already registered packet type.
+     *
+     * @throws IllegalStateException if the class is not registered
+     */
+    public void setCompression(Class<? extends Packet> packetClass, CompressionPolicy compression) {
+        Objects.requireNonNull(packetClass, "packetClass");
+        Objects.requireNonNull(compression, "compression");
+
+        update(packetClass, def -> def.withCompression(compression));
+    }
+
+    /**
+     * Change the delivery priority of an already registered packet type. Priority listeners
+     * are told, so a PacketManager moves the type's bindings to the new lane.
+     *
+     * @throws IllegalStateException if the class is not registered
+     */
+    public void setPriority(Class<? extends Packet> packetClass, PacketPriority priority) {
+        Objects.requireNonNull(packetClass, "packetClass");
+        Objects.requireNonNull(priority, "priority");
+
+        update(packetClass, def -> def.withPriority(priority));
+        for (Runnable listener : priorityListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Run {@code listener} after every {@link #setPriority} call.
+     */
+    public void addPriorityListener(Runnable listener) {
+        priorityListeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    /**
+     * Declare that instances of an already registered packet type are never modified once
+     * sent (see {@link PacketDefinition#isImmutable()}).
+     *
+     * @throws IllegalStateException if the class is not registered
+     */
+    public void setImmutable(Class<? extends Packet> packetClass, boolean immutable) {
+        Objects.requireNonNull(packetClass, "packetClass");
+
+        update(packetClass, def -> def.withImmutable(immutable));
+    }
+
+    /**
+     * Replace the definition of {@code packetClass} in both maps within one atomic compute,
+     * so concurrent updates of a type cannot leave them holding different definitions.
+     */
+    private void update(Class<? extends Packet> packetClass,
+                        UnaryOperator<PacketDefinition<? extends Packet>> change) {
+        PacketDefinition<? extends Packet> updated = byClass.computeIfPresent(packetClass, (cls, def) -> {
+            PacketDefinition<? extends Packet> next = change.apply(def);
+            byId.put(next.getRegistryId(), next);
+            return next;
+        });
+        if (updated == null) {
+            throw new IllegalStateException("Packet type not registered: " + packetClass.getName());
+        }
+    }
+
     /* -------------------------------------------------- */
     /* Lookup                                             */
     /* -------------------------------------------------- */
@@ -135,6 +228,13 @@ public final class PacketRegistry {
         return byClass.get(packetClass);
     }
 
+    /**
+     * Live, unmodifiable view of every registered definition.
+     */
+    public Collection<PacketDefinition<?>> getDefinitions() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
     public Optional<PacketDefinition<?>> findDefinition(long registryId) {
         return Optional.ofNullable(byId.get(registryId));
     }
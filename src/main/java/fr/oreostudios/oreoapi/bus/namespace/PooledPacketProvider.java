@@ -0,0 +1,201 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/namespace/PooledPacketProvider.java
+package fr.oreostudios.oreoapi.bus.namespace;
+
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.util.BoundedRingBuffer;
+
+import java.lang.ref.Cleaner;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Provider that recycles inbound packet instances of one type.
+ *
+ * PacketManager hands each decoded packet back through {@link #release} once every
+ * subscriber has returned (or, for executor-based subscriptions, once every queued
+ * delivery has run), after calling the reset hook. Subscribers must therefore not keep
+ * a reference to the packet past {@code onReceive}; copy what you need instead.
+ * Replies completed through {@code PacketManager.request} or {@code gather} belong to the caller:
+ * they are {@link #detach}ed from the pool and never recycled.
+ *
+ * With leak detection on (debug only: it records a stack trace per packet), packets that
+ * become unreachable without being released, and packets released twice, are logged.
+ * Enable it per provider or JVM-wide with {@code -D}{@value #LEAK_DETECTION_PROPERTY}{@code =true}.
+ * Leak tracking keys packets by {@code equals}, so pooled types should keep identity equality.
+ */
+public final class PooledPacketProvider<T extends Packet> implements PacketProvider<T> {
+
+    public static final String LEAK_DETECTION_PROPERTY = "oreoapi.packetPool.leakDetection";
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final System.Logger LOGGER = System.getLogger(PooledPacketProvider.class.getName());
+
+    private static final class CleanerHolder {
+        static final Cleaner INSTANCE = Cleaner.create();
+    }
+
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> reset;
+    private final BoundedRingBuffer<T> idle;
+    private final Consumer<T> releaser = this::release;
+
+    private volatile boolean leakDetection = Boolean.getBoolean(LEAK_DETECTION_PROPERTY);
+    private final Map<T, LeakTracker> checkedOut = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+
+    /**
+     * @param reset clears a packet's fields before it is reused; the packet id and
+     *              request context are cleared by the pool itself
+     */
+    public PooledPacketProvider(Supplier<? extends T> factory, Consumer<? super T> reset) {
+        this(factory, reset, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum number of idle packets kept (rounded up to a power of two)
+     */
+    public PooledPacketProvider(Supplier<? extends T> factory, Consumer<? super T> reset, int capacity) {
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.reset = Objects.requireNonNull(reset, "reset");
+        this.idle = new BoundedRingBuffer<>(capacity);
+    }
+
+    @Override
+    public T createPacket() {
+        T packet = idle.poll();
+        if (packet == null) {
+            packet = Objects.requireNonNull(factory.get(), "factory returned null");
+            created.increment();
+        } else {
+            reused.increment();
+        }
+
+        if (leakDetection) track(packet);
+        return packet;
+    }
+
+    /**
+     * Reset {@code packet} and keep it for reuse (dropped if the pool is full or the reset hook throws).
+     * The caller must not touch the packet afterwards.
+     */
+    public void release(T packet) {
+        if (leakDetection && !untrack(packet)) return;
+
+        try {
+            reset.accept(packet);
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            return; // half-reset packet → let the GC have it
+        }
+        packet.setPacketId(null);
+        packet.setOriginNodeId(0);
+        packet.setCorrelationId(0);
+
+        idle.offer(packet);
+    }
+
+    /**
+     * Stop tracking {@code packet} without recycling it: it left the pool for good (e.g. a reply
+     * handed to the caller) and will not be released. No-op without leak detection.
+     */
+    public void detach(Packet packet) {
+        LeakTracker tracker = checkedOut.remove(packet);
+        if (tracker == null) return;
+        tracker.released = true;
+        tracker.cleanable.clean();
+    }
+
+    /**
+     * {@link #release} as a shared, allocation-free callback.
+     */
+    public Consumer<T> releaser() {
+        return releaser;
+    }
+
+    public void setLeakDetection(boolean leakDetection) {
+        this.leakDetection = leakDetection;
+    }
+
+    public boolean isLeakDetection() {
+        return leakDetection;
+    }
+
+    /* -------------------------------------------------- */
+    /* Metrics                                            */
+    /* -------------------------------------------------- */
+
+    /** Packets built by the factory (pool misses). */
+    public long getCreated() {
+        return created.sum();
+    }
+
+    /** Packets served from the pool. */
+    public long getReused() {
+        return reused.sum();
+    }
+
+    public int getIdle() {
+        return idle.size();
+    }
+
+    /** Leaks reported so far (leak detection only). */
+    public long getLeaksDetected() {
+        return leaks.sum();
+    }
+
+    /* -------------------------------------------------- */
+    /* Leak detection                                     */
+    /* -------------------------------------------------- */
+
+    private void track(T packet) {
+        LeakTracker tracker = new LeakTracker(packet.getClass().getName(), leaks);
+        tracker.cleanable = CleanerHolder.INSTANCE.register(packet, tracker);
+        checkedOut.put(packet, tracker);
+    }
+
+    /**
+     * @return false if the packet was not checked out (double release)
+     */
+    private boolean untrack(T packet) {
+        LeakTracker tracker = checkedOut.remove(packet);
+        if (tracker == null) {
+            LOGGER.log(System.Logger.Level.WARNING, "Pooled packet " + packet.getClass().getName()
+                    + " released twice (or not obtained from this provider)", new Throwable("Released here"));
+            return false;
+        }
+        tracker.released = true;
+        tracker.cleanable.clean();
+        return true;
+    }
+
+    /** Cleaning action; must not reference the packet. */
+    private static final class LeakTracker implements Runnable {
+        private final String type;
+        private final LongAdder leaks;
+        private final Throwable acquiredAt = new Throwable("Acquired here");
+        private volatile boolean released;
+        private Cleaner.Cleanable cleanable;
+
+        LeakTracker(String type, LongAdder leaks) {
+            this.type = type;
+            this.leaks = leaks;
+        }
+
+        @Override
+        public void run() {
+            if (released) return;
+            leaks.increment();
+            LOGGER.log(System.Logger.Level.WARNING, "Pooled packet " + type
+                    + " was garbage collected without being released", acquiredAt);
+        }
+    }
+}
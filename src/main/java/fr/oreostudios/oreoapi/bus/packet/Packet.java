@@ -2,6 +2,8 @@ package fr.oreostudios.oreoapi.bus.packet;
 
 
 
+import fr.oreostudios.oreoapi.bus.codec.CodecPacket;
+import fr.oreostudios.oreoapi.bus.codec.GenerateCodec;
 import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
 import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
 
@@ -9,18 +11,24 @@ import java.util.UUID;
 
 public abstract class Packet {
 
-    // ✅ Ensures the packet always has a valid ID
-    private UUID packetId = UUID.randomUUID();
+    // Assigned lazily (see getPacketId): inbound packets get theirs from the envelope
+    private UUID packetId;
+
+    // Filled in by PacketManager on receive (0 = unknown / not a request)
+    private long originNodeId;
+    private long correlationId;
 
     /**
      * Called after UUID is read from the stream.
-     * Subclasses must implement this to deserialize custom fields.
+     * Subclasses must implement this to deserialize custom fields, unless they extend
+     * {@link CodecPacket} and use a generated codec (see {@link GenerateCodec}).
      */
     protected abstract void read(FriendlyByteInputStream stream);
 
     /**
      * Called before UUID is written to the stream.
-     * Subclasses must implement this to serialize custom fields.
+     * Subclasses must implement this to serialize custom fields, unless they extend
+     * {@link CodecPacket} and use a generated codec (see {@link GenerateCodec}).
      */
     protected abstract void write(FriendlyByteOutputStream stream);
 
@@ -36,22 +44,78 @@ public abstract class Packet {
      * Writes full packet data including internal packet UUID.
      */
     public void writeData(FriendlyByteOutputStream stream) {
-        stream.writeUUID(packetId);
+        stream.writeUUID(getPacketId());
+        write(stream);
+    }
+
+    /**
+     * Reads packet fields only (the packet UUID travels in the envelope header).
+     */
+    public void readBody(FriendlyByteInputStream stream) {
+        read(stream);
+    }
+
+    /**
+     * Writes packet fields only (the packet UUID travels in the envelope header).
+     */
+    public void writeBody(FriendlyByteOutputStream stream) {
         write(stream);
     }
 
     /**
-     * Optional getter if you need to access packetId externally.
+     * Packet id, generated by {@link PacketIds} on first access (or when the packet is sent).
+     * Not thread-safe: share a packet across threads only after its id was assigned.
      */
     public UUID getPacketId() {
-        return packetId;
+        UUID id = packetId;
+        if (id == null) {
+            id = PacketIds.nextId();
+            packetId = id;
+        }
+        return id;
+    }
+
+    /**
+     * @return true if an id was already assigned (received, set, or generated)
+     */
+    public boolean hasPacketId() {
+        return packetId != null;
     }
 
     /**
      * Optional setter (in case a manual UUID is needed).
+     * Passing null clears the id; a new one is generated on next access.
      */
     public void setPacketId(UUID packetId) {
-        this.packetId = packetId != null ? packetId : UUID.randomUUID();
+        this.packetId = packetId;
     }
-}
 
+    /**
+     * @return id of the node that sent this packet, or 0 if the envelope did not carry it
+     */
+    public long getOriginNodeId() {
+        return originNodeId;
+    }
+
+    public void setOriginNodeId(long originNodeId) {
+        this.originNodeId = originNodeId;
+    }
+
+    /**
+     * @return correlation id of the request this packet is, or 0 if it was not sent with PacketManager.request
+     */
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * @return true if the sender waits for a {@code PacketManager.reply}
+     */
+    public boolean isRequest() {
+        return correlationId != 0 && originNodeId != 0;
+    }
+}
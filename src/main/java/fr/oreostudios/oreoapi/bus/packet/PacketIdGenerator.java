@@ -0,0 +1,14 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/packet/PacketIdGenerator.java
+package fr.oreostudios.oreoapi.bus.packet;
+
+import java.util.UUID;
+
+/**
+ * Source of packet ids. Must be thread-safe; ids only need to be unique across
+ * the network for the lifetime of a packet, not cryptographically random.
+ */
+@FunctionalInterface
+public interface PacketIdGenerator {
+
+    UUID nextId();
+}
@@ -0,0 +1,71 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/packet/PacketIds.java
+package fr.oreostudios.oreoapi.bus.packet;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Built-in {@link PacketIdGenerator}s and the JVM-wide generator used by {@link Packet}.
+ *
+ * The default, {@link #sequential()}, avoids {@link UUID#randomUUID()} (SecureRandom
+ * on every call): the high 64 bits are a random node id picked once per JVM, the low
+ * 64 bits a counter starting at a random offset.
+ */
+public final class PacketIds {
+    private PacketIds() {}
+
+    private static final long NODE_ID = ThreadLocalRandom.current().nextLong();
+    private static final AtomicLong SEQUENCE = new AtomicLong(ThreadLocalRandom.current().nextLong());
+
+    private static final PacketIdGenerator SEQUENTIAL =
+            () -> new UUID(NODE_ID, SEQUENCE.getAndIncrement());
+
+    private static final PacketIdGenerator RANDOM = () -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong());
+    };
+
+    private static volatile PacketIdGenerator generator = SEQUENTIAL;
+
+    /**
+     * Node id + monotonic counter. Cheapest option; ids from one JVM share their high bits.
+     */
+    public static PacketIdGenerator sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * 128 random bits from {@link ThreadLocalRandom} (not cryptographically secure).
+     */
+    public static PacketIdGenerator random() {
+        return RANDOM;
+    }
+
+    /**
+     * {@link UUID#randomUUID()}: the previous behaviour, kept for callers that need RFC 4122 ids.
+     */
+    public static PacketIdGenerator secureRandom() {
+        return UUID::randomUUID;
+    }
+
+    /**
+     * Random id of this JVM, shared by {@link #sequential()} ids.
+     */
+    public static long nodeId() {
+        return NODE_ID;
+    }
+
+    public static PacketIdGenerator getGenerator() {
+        return generator;
+    }
+
+    public static void setGenerator(PacketIdGenerator generator) {
+        PacketIds.generator = Objects.requireNonNull(generator, "generator");
+    }
+
+    public static UUID nextId() {
+        return generator.nextId();
+    }
+}
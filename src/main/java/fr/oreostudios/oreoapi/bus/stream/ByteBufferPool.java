@@ -0,0 +1,45 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/stream/ByteBufferPool.java
+package fr.oreostudios.oreoapi.bus.stream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Thread-local recycler for the heap buffers backing {@link FriendlyByteOutputStream}.
+ *
+ * Each thread keeps at most one idle buffer. Buffers that grew past
+ * {@link #MAX_RETAINED_CAPACITY} are dropped on release so a single huge
+ * packet does not pin memory forever.
+ */
+public final class ByteBufferPool {
+    private ByteBufferPool() {}
+
+    public static final int DEFAULT_CAPACITY = 512;
+    public static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> IDLE = new ThreadLocal<>();
+
+    /**
+     * Borrow a cleared buffer of at least {@code minCapacity} bytes.
+     */
+    public static ByteBuffer acquire(int minCapacity) {
+        ByteBuffer buffer = IDLE.get();
+        if (buffer != null && buffer.capacity() >= minCapacity) {
+            IDLE.remove();
+            return buffer.clear();
+        }
+        return ByteBuffer.allocate(Math.max(minCapacity, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Give a buffer back to the calling thread's slot.
+     * The caller must not touch the buffer (or any slice of it) afterwards.
+     */
+    public static void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() > MAX_RETAINED_CAPACITY) return;
+
+        ByteBuffer idle = IDLE.get();
+        if (idle == null || idle.capacity() < buffer.capacity()) {
+            IDLE.set(buffer);
+        }
+    }
+}
@@ -2,85 +2,323 @@ package fr.oreostudios.oreoapi.bus.stream;
 
 
 
-import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.UUID;
 import java.util.function.Supplier;
 
+/**
+ * Bounds-checked big-endian reader over a {@link ByteBuffer} view.
+ *
+ * Nothing is copied on construction: the reader works directly on the given
+ * array or slice. Reading past the end throws {@link PacketUnderflowException}.
+ */
 public class FriendlyByteInputStream {
 
-    private final ByteArrayInputStream stream;
+    private final ByteBuffer buffer;
+
+    /** When set, size prefixes (strings, enums, collections) are read as varints. */
+    private boolean compact;
+
+    /** When set, strings may be table references (see FriendlyByteOutputStream#writeString). */
+    private StringTable stringTable;
 
     public FriendlyByteInputStream(byte[] bytes) {
-        this.stream = new ByteArrayInputStream(bytes);
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    public FriendlyByteInputStream(byte[] bytes, int offset, int length) {
+        this.buffer = ByteBuffer.wrap(bytes, offset, length).slice();
+    }
+
+    /**
+     * Reader over the remaining bytes of {@code buffer}.
+     * The source buffer's position is not modified.
+     */
+    public FriendlyByteInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
     }
 
     public FriendlyByteInputStream() {
-        this.stream = new ByteArrayInputStream(new byte[0]);
+        this.buffer = ByteBuffer.allocate(0);
     }
 
-    private int u() {
-        int v = stream.read();
-        return (v < 0) ? 0 : v; // avoid -1 poisoning
+    private void require(int length) {
+        if (length < 0 || buffer.remaining() < length) {
+            throw PacketUnderflowException.INSTANCE;
+        }
     }
 
     public byte readByte() {
-        return (byte) u();
+        require(1);
+        return buffer.get();
+    }
+
+    /**
+     * Returns the next byte without consuming it.
+     */
+    public byte peekByte() {
+        require(1);
+        return buffer.get(buffer.position());
     }
 
     public int readInt() {
-        return (u() << 24) | (u() << 16) | (u() << 8) | u();
+        require(4);
+        return buffer.getInt();
     }
 
     public short readShort() {
-        return (short) ((u() << 8) | u());
+        require(2);
+        return buffer.getShort();
     }
 
     public long readLong() {
-        long v = 0;
-        for (int i = 0; i < 8; i++) v = (v << 8) | (u() & 0xFFL);
-        return v;
+        require(8);
+        return buffer.getLong();
     }
 
     public float readFloat() {
-        return Float.intBitsToFloat(readInt());
+        require(4);
+        return buffer.getFloat();
     }
 
     public double readDouble() {
-        return Double.longBitsToDouble(readLong());
+        require(8);
+        return buffer.getDouble();
     }
 
     public boolean readBoolean() {
         return readByte() == 1;
     }
 
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw PacketUnderflowException.INSTANCE; // more than 5 bytes: corrupt frame
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw PacketUnderflowException.INSTANCE; // more than 10 bytes: corrupt frame
+    }
+
+    public int readSignedVarInt() {
+        return unZigZag(readVarInt());
+    }
+
+    public long readSignedVarLong() {
+        return unZigZag(readVarLong());
+    }
+
+    public static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Size/count prefix written by {@link FriendlyByteOutputStream#writeSize(int)}.
+     */
+    public int readSize() {
+        return compact ? readVarInt() : readInt();
+    }
+
+    /**
+     * Size prefix for {@code count} elements of {@code elementBytes} each, rejected
+     * before any allocation if the frame cannot possibly hold them.
+     */
+    private int readCount(int elementBytes) {
+        int count = readSize();
+        if (count < 0 || (long) count * elementBytes > buffer.remaining()) {
+            throw PacketUnderflowException.INSTANCE;
+        }
+        return count;
+    }
+
     public String readString() {
-        int length = readShort() & 0xFFFF;
-        byte[] bytes = new byte[length];
-        for (int i = 0; i < length; i++) bytes[i] = readByte();
-        return new String(bytes);
+        if (stringTable != null) {
+            int header = readVarInt();
+            if ((header & 1) != 0) return stringTable.get(header >>> 1);
+
+            int length = header >>> 1;
+            String value = readUtf8(length);
+            stringTable.add(value, length, false);
+            return value;
+        }
+
+        int length = compact ? readVarInt() : readShort() & 0xFFFF;
+        return readUtf8(length);
+    }
+
+    private String readUtf8(int length) {
+        require(length);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
     }
 
     public byte[] readBytes(int length) {
+        require(length);
         byte[] bytes = new byte[length];
-        for (int i = 0; i < length; i++) bytes[i] = readByte();
+        buffer.get(bytes);
         return bytes;
     }
 
+    /**
+     * Zero-copy view over the next {@code length} bytes; advances past them.
+     */
+    public ByteBuffer readSlice(int length) {
+        require(length);
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    public void skipBytes(int length) {
+        require(length);
+        buffer.position(buffer.position() + length);
+    }
+
+    /* -------------------------------------------------- */
+    /* Bulk arrays                                        */
+    /* -------------------------------------------------- */
+
+    public byte[] readByteArray() {
+        int count = readCount(1);
+        byte[] values = new byte[count];
+        buffer.get(values);
+        return values;
+    }
+
+    public int[] readIntArray() {
+        int count = readCount(4);
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+
+    public long[] readLongArray() {
+        int count = readCount(8);
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + count * 8);
+        return values;
+    }
+
+    public double[] readDoubleArray() {
+        int count = readCount(8);
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * 8);
+        return values;
+    }
+
+    public UUID[] readUUIDArray() {
+        int count = readCount(16);
+        UUID[] values = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = new UUID(buffer.getLong(), buffer.getLong());
+        }
+        return values;
+    }
+
+    public boolean[] readBooleanArray() {
+        int count = readSize();
+        if (count < 0 || ((long) count + 7) >>> 3 > buffer.remaining()) {
+            throw PacketUnderflowException.INSTANCE;
+        }
+
+        boolean[] values = new boolean[count];
+        int i = 0;
+        while (i < count) {
+            int packed = buffer.get();
+            for (int bit = 0; bit < 8 && i < count; bit++, i++) {
+                values[i] = (packed & (1 << bit)) != 0;
+            }
+        }
+        return values;
+    }
+
+    public BitSet readBitSet() {
+        int count = readCount(1);
+        BitSet value = BitSet.valueOf(buffer.slice(buffer.position(), count));
+        buffer.position(buffer.position() + count);
+        return value;
+    }
+
     public UUID readUUID() {
-        return new UUID(readLong(), readLong());
+        require(16);
+        return new UUID(buffer.getLong(), buffer.getLong());
     }
 
     public <T extends Enum<T>> T readEnum(Class<T> clazz) {
-        int idx = readInt(); // match writeEnum(int)
+        int idx = readSize(); // match writeEnum(int)
         T[] vals = clazz.getEnumConstants();
         return (idx >= 0 && idx < vals.length) ? vals[idx] : vals[0];
     }
 
     public <T> Collection<T> readCollection(Collection<T> collection, Supplier<T> reader) {
-        int size = readInt();
+        int size = readSize();
         for (int i = 0; i < size; i++) collection.add(reader.get());
         return collection;
     }
-}
 
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public StringTable getStringTable() {
+        return stringTable;
+    }
+
+    public void setStringTable(StringTable stringTable) {
+        this.stringTable = stringTable;
+    }
+
+    public int remaining() {
+        return buffer.remaining();
+    }
+
+    public boolean isReadable() {
+        return buffer.hasRemaining();
+    }
+
+    public int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Move back to a position previously returned by {@link #position()} (header peeking).
+     */
+    public void rewind(int position) {
+        if (position < 0 || position > buffer.position()) {
+            throw new IndexOutOfBoundsException("position " + position + " outside [0, " + buffer.position() + "]");
+        }
+        buffer.position(position);
+    }
+}
@@ -1,79 +1,327 @@
 package fr.oreostudios.oreoapi.bus.stream;
 
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.UUID;
 import java.util.function.Consumer;
 
-public class FriendlyByteOutputStream {
+/**
+ * Growable big-endian writer backed by a heap {@link ByteBuffer}.
+ *
+ * Use {@link #pooled()} on hot paths: the backing buffer is borrowed from the
+ * calling thread's {@link ByteBufferPool} and handed back on {@link #close()}.
+ */
+public class FriendlyByteOutputStream implements AutoCloseable {
 
-    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    private ByteBuffer buffer;
+    private final boolean pooled;
+
+    /** When set, size prefixes (strings, enums, collections) are written as varints. */
+    private boolean compact;
+
+    /** When set, strings are written as table references where possible (compact mode only). */
+    private StringTable stringTable;
+
+    public FriendlyByteOutputStream() {
+        this(ByteBufferPool.DEFAULT_CAPACITY);
+    }
+
+    public FriendlyByteOutputStream(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(Math.max(initialCapacity, 16));
+        this.pooled = false;
+    }
+
+    private FriendlyByteOutputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.pooled = true;
+    }
+
+    /**
+     * Writer backed by a buffer borrowed from the calling thread's pool.
+     * Must be closed on the same thread once the written bytes have been consumed.
+     */
+    public static FriendlyByteOutputStream pooled() {
+        return new FriendlyByteOutputStream(ByteBufferPool.acquire(ByteBufferPool.DEFAULT_CAPACITY));
+    }
+
+    private void ensureCapacity(int extra) {
+        if (buffer.remaining() >= extra) return;
+
+        int required = buffer.position() + extra;
+        int newCapacity = Math.max(buffer.capacity() << 1, required);
+        ByteBuffer grown = ByteBuffer.allocate(newCapacity);
+        grown.put(buffer.flip());
+        buffer = grown;
+    }
 
     public void writeByte(int value) {
-        outputStream.write(value);
+        ensureCapacity(1);
+        buffer.put((byte) value);
     }
 
     public void writeShort(short value) {
-        outputStream.write(value >> 8);
-        outputStream.write(value);
+        ensureCapacity(2);
+        buffer.putShort(value);
     }
 
     public void writeInt(int value) {
-        outputStream.write(value >> 24);
-        outputStream.write(value >> 16);
-        outputStream.write(value >> 8);
-        outputStream.write(value);
+        ensureCapacity(4);
+        buffer.putInt(value);
     }
 
     public void writeLong(long value) {
-        outputStream.write((int) (value >> 56));
-        outputStream.write((int) (value >> 48));
-        outputStream.write((int) (value >> 40));
-        outputStream.write((int) (value >> 32));
-        outputStream.write((int) (value >> 24));
-        outputStream.write((int) (value >> 16));
-        outputStream.write((int) (value >> 8));
-        outputStream.write((int) value);
+        ensureCapacity(8);
+        buffer.putLong(value);
     }
 
     public void writeFloat(float value) {
-        writeInt(Float.floatToIntBits(value));
+        ensureCapacity(4);
+        buffer.putFloat(value);
     }
 
     public void writeDouble(double value) {
-        writeLong(Double.doubleToLongBits(value));
+        ensureCapacity(8);
+        buffer.putDouble(value);
     }
 
     public void writeBoolean(boolean value) {
-        outputStream.write(value ? 1 : 0);
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Unsigned LEB128: 7 bits per byte, high bit set on every byte but the last.
+     * Negative values always take 5 bytes; use {@link #writeSignedVarInt(int)} for those.
+     */
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /** ZigZag + varint, so small negative numbers stay small on the wire. */
+    public void writeSignedVarInt(int value) {
+        writeVarInt(zigZag(value));
+    }
+
+    public void writeSignedVarLong(long value) {
+        writeVarLong(zigZag(value));
     }
 
+    public static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Number of bytes {@link #writeVarInt(int)} uses for {@code value}.
+     */
+    public static int varIntSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /**
+     * Size/count prefix: a varint in compact mode, a 4-byte int otherwise.
+     */
+    public void writeSize(int size) {
+        if (compact) writeVarInt(size);
+        else writeInt(size);
+    }
+
+    /**
+     * UTF-8 string. Length prefix is an unsigned short (legacy) or a varint (compact).
+     * With a string table, the varint carries either {@code index << 1 | 1} for a
+     * table reference or {@code length << 1} for a literal.
+     */
     public void writeString(String value) {
-        byte[] bytes = value.getBytes();
+        int length = utf8Length(value);
+
+        if (stringTable != null) {
+            int idx = stringTable.indexOf(value);
+            if (idx >= 0) {
+                writeVarInt((idx << 1) | 1);
+                return;
+            }
+            writeVarInt(length << 1);
+            putUtf8(value, length);
+            stringTable.add(value, length, true);
+            return;
+        }
+
+        if (compact) writeVarInt(length);
+        else writeShort((short) length);
+        putUtf8(value, length);
+    }
+
+    private static int utf8Length(String value) {
+        int chars = value.length();
+        int length = chars;
+
+        for (int i = 0; i < chars; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) continue;
 
-        writeShort((short) bytes.length);
-        writeBytes(bytes);
+            if (c < 0x800) {
+                length += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 2; // 4 bytes for 2 chars
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate -> '?'
+            } else {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encode straight into the backing array: no intermediate byte[] per string.
+     */
+    private void putUtf8(String value, int encodedLength) {
+        ensureCapacity(encodedLength);
+
+        byte[] dst = buffer.array();
+        int pos = buffer.arrayOffset() + buffer.position();
+        int chars = value.length();
+
+        if (encodedLength == chars) {
+            // ASCII fast path
+            for (int i = 0; i < chars; i++) dst[pos++] = (byte) value.charAt(i);
+        } else {
+            for (int i = 0; i < chars; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    dst[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    dst[pos++] = (byte) (0xC0 | (c >> 6));
+                    dst[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    dst[pos++] = (byte) (0xF0 | (cp >> 18));
+                    dst[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    dst[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    dst[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    dst[pos++] = (byte) '?';
+                } else {
+                    dst[pos++] = (byte) (0xE0 | (c >> 12));
+                    dst[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    dst[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        buffer.position(pos - buffer.arrayOffset());
     }
 
     public void writeBytes(byte[] bytes) {
-        outputStream.write(bytes, 0, bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        buffer.put(bytes, offset, length);
+    }
+
+    public void writeBytes(ByteBuffer bytes) {
+        ensureCapacity(bytes.remaining());
+        buffer.put(bytes);
     }
 
     public <T> void writeCollection(Collection<T> collection, Consumer<T> writer) {
-        writeInt(collection.size());
+        writeSize(collection.size());
 
         for (T entry : collection) {
             writer.accept(entry);
         }
     }
 
-    public void writeUUID(java.util.UUID value) {
-        writeLong(value.getMostSignificantBits());
-        writeLong(value.getLeastSignificantBits());
+    /* -------------------------------------------------- */
+    /* Bulk arrays                                        */
+    /* -------------------------------------------------- */
+
+    /** Size prefix + raw bytes. */
+    public void writeByteArray(byte[] values) {
+        writeSize(values.length);
+        writeBytes(values);
+    }
+
+    public void writeIntArray(int[] values) {
+        writeSize(values.length);
+        ensureCapacity(values.length * 4);
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+
+    public void writeLongArray(long[] values) {
+        writeSize(values.length);
+        ensureCapacity(values.length * 8);
+        buffer.asLongBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 8);
+    }
+
+    public void writeDoubleArray(double[] values) {
+        writeSize(values.length);
+        ensureCapacity(values.length * 8);
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 8);
+    }
+
+    /** UUIDs as consecutive (most, least) significant long pairs. */
+    public void writeUUIDArray(UUID[] values) {
+        writeSize(values.length);
+        ensureCapacity(values.length * 16);
+        for (UUID value : values) {
+            buffer.putLong(value.getMostSignificantBits());
+            buffer.putLong(value.getLeastSignificantBits());
+        }
+    }
+
+    /** Size prefix (in booleans) + values packed 8 per byte, LSB first. */
+    public void writeBooleanArray(boolean[] values) {
+        writeSize(values.length);
+        ensureCapacity((values.length + 7) >>> 3);
+
+        int i = 0;
+        while (i < values.length) {
+            int packed = 0;
+            for (int bit = 0; bit < 8 && i < values.length; bit++, i++) {
+                if (values[i]) packed |= 1 << bit;
+            }
+            buffer.put((byte) packed);
+        }
+    }
+
+    /** Size prefix (in bytes) + {@link BitSet#toByteArray()} (little-endian, trailing zeros trimmed). */
+    public void writeBitSet(BitSet value) {
+        writeByteArray(value.toByteArray());
+    }
+
+    public void writeUUID(UUID value) {
+        ensureCapacity(16);
+        buffer.putLong(value.getMostSignificantBits());
+        buffer.putLong(value.getLeastSignificantBits());
     }
 
     public void writeEnum(Enum<?> value) {
-        writeInt(value.ordinal());
+        writeSize(value.ordinal());
     }
 
     public void writeNullable(Object value, Consumer<Object> writer) {
@@ -84,8 +332,82 @@ public class FriendlyByteOutputStream {
         }
     }
 
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public StringTable getStringTable() {
+        return stringTable;
+    }
+
+    /**
+     * Start referencing strings through {@code table} (null to stop).
+     * Only meaningful in compact mode; the reader must use a table seeded the same way.
+     */
+    public void setStringTable(StringTable stringTable) {
+        this.stringTable = stringTable;
+    }
+
+    /**
+     * Number of bytes written so far.
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Discard everything written so far, keeping the backing buffer.
+     */
+    public void reset() {
+        buffer.clear();
+    }
+
+    /**
+     * Discard everything written after the first {@code size} bytes.
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > buffer.position()) {
+            throw new IndexOutOfBoundsException("size " + size + " outside [0, " + buffer.position() + "]");
+        }
+        buffer.position(size);
+    }
+
+    /**
+     * Overwrite an already written byte (header patching).
+     */
+    public void setByte(int index, int value) {
+        if (index < 0 || index >= buffer.position()) {
+            throw new IndexOutOfBoundsException("index " + index + " outside [0, " + buffer.position() + ")");
+        }
+        buffer.put(index, (byte) value);
+    }
+
+    /**
+     * Zero-copy view over the written bytes (position 0, limit {@link #size()}).
+     * The view is only valid until the next write, {@link #reset()} or {@link #close()}.
+     */
+    public ByteBuffer toByteBuffer() {
+        return buffer.slice(0, buffer.position());
+    }
+
     public byte[] toByteArray() {
-        return outputStream.toByteArray();
+        byte[] bytes = new byte[buffer.position()];
+        buffer.get(0, bytes);
+        return bytes;
     }
-}
 
+    /**
+     * Return the backing buffer to the pool (no-op for non-pooled writers).
+     */
+    @Override
+    public void close() {
+        if (pooled && buffer != null) {
+            ByteBufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/stream/PacketUnderflowException.java
+package fr.oreostudios.oreoapi.bus.stream;
+
+/**
+ * Thrown when a read runs past the end of a packet frame
+ * (or hits a length prefix that cannot belong to a valid frame).
+ *
+ * A single stackless instance is shared: truncated frames are expected on a
+ * public bus and must be cheap to reject.
+ */
+public final class PacketUnderflowException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final PacketUnderflowException INSTANCE = new PacketUnderflowException();
+
+    private PacketUnderflowException() {
+        super("Packet frame truncated", null, false, false);
+    }
+}
@@ -0,0 +1,66 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/stream/StringDictionary.java
+package fr.oreostudios.oreoapi.bus.stream;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable, pre-shared list of strings that packets may reference by index
+ * (server ids, world names, common keys...).
+ *
+ * Every node must register the same dictionary under the same id: the id is
+ * carried in the envelope and an unknown id makes the frame undecodable.
+ * {@link #EMPTY} (id 0) enables per-frame string references without seeds.
+ */
+public final class StringDictionary {
+
+    public static final StringDictionary EMPTY = new StringDictionary(0, List.of());
+
+    private final int id;
+    private final List<String> entries;
+    private final Map<String, Integer> indexByValue;
+
+    private StringDictionary(int id, List<String> entries) {
+        this.id = id;
+        this.entries = List.copyOf(entries);
+        this.indexByValue = new HashMap<>(this.entries.size() * 2);
+        for (int i = 0; i < this.entries.size(); i++) {
+            indexByValue.putIfAbsent(this.entries.get(i), i);
+        }
+    }
+
+    /**
+     * @param id positive id shared by every node using this dictionary
+     */
+    public static StringDictionary of(int id, List<String> entries) {
+        if (id <= 0) throw new IllegalArgumentException("Dictionary id must be > 0 (0 is reserved for EMPTY)");
+        Objects.requireNonNull(entries, "entries");
+        return new StringDictionary(id, entries);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    String get(int index) {
+        return entries.get(index);
+    }
+
+    int indexOf(String value) {
+        Integer idx = indexByValue.get(value);
+        return idx != null ? idx : -1;
+    }
+
+    /**
+     * Fresh per-frame table seeded with this dictionary.
+     */
+    public StringTable newTable() {
+        return new StringTable(this);
+    }
+}
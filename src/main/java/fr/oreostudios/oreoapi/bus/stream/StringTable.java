@@ -0,0 +1,69 @@
+// File: src/main/java/fr/oreostudios/oreoapi/bus/stream/StringTable.java
+package fr.oreostudios.oreoapi.bus.stream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-frame string table: seeded from a {@link StringDictionary}, then grows as
+ * new short strings are written (or read), in the same order on both ends.
+ *
+ * Scoped to a single frame on purpose: a broker fan-out has late joiners and
+ * several senders per channel, so no state may survive between messages.
+ */
+public final class StringTable {
+
+    /** Longer strings are never worth a table slot. */
+    static final int MAX_ENTRY_BYTES = 255;
+    static final int MAX_FRAME_ENTRIES = 1024;
+
+    private final StringDictionary dictionary;
+    private List<String> frameEntries;
+    private Map<String, Integer> frameIndex;
+
+    StringTable(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    int indexOf(String value) {
+        int idx = dictionary.indexOf(value);
+        if (idx >= 0 || frameIndex == null) return idx;
+
+        Integer frameIdx = frameIndex.get(value);
+        return frameIdx != null ? dictionary.size() + frameIdx : -1;
+    }
+
+    String get(int index) {
+        if (index < dictionary.size()) return dictionary.get(index);
+
+        int frameIdx = index - dictionary.size();
+        if (frameEntries == null || frameIdx >= frameEntries.size()) {
+            throw PacketUnderflowException.INSTANCE; // reference to an entry that was never sent
+        }
+        return frameEntries.get(frameIdx);
+    }
+
+    /**
+     * Record a string sent (or received) literally. Both ends apply the same
+     * limits, so indexes stay in sync without any acknowledgement.
+     *
+     * @param indexed true on the writing side, which needs value -> index lookups
+     */
+    void add(String value, int encodedLength, boolean indexed) {
+        if (encodedLength > MAX_ENTRY_BYTES) return;
+        if (frameEntries == null) frameEntries = new ArrayList<>();
+        if (frameEntries.size() >= MAX_FRAME_ENTRIES) return;
+
+        if (indexed) {
+            if (frameIndex == null) frameIndex = new HashMap<>();
+            frameIndex.putIfAbsent(value, frameEntries.size());
+        }
+        frameEntries.add(value);
+    }
+}
@@ -0,0 +1,148 @@
+// File: src/main/java/fr/oreostudios/oreoapi/mesh/CoLocatedPacketSender.java
+package fr.oreostudios.oreoapi.mesh;
+
+import fr.oreostudios.oreoapi.bus.PacketManager;
+import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.event.IncomingPacketListener;
+import fr.oreostudios.oreoapi.bus.event.PacketSender;
+import fr.oreostudios.oreoapi.bus.namespace.PacketDefinition;
+import fr.oreostudios.oreoapi.bus.namespace.PacketPriority;
+import fr.oreostudios.oreoapi.rabbit.RabbitPacketSenderImpl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Transport for several servers on one host: they exchange packets over a local mesh
+ * (typically Unix domain sockets, see {@link MeshSettings#withPeerDirectory}) and reach
+ * the other hosts through {@code remote}.
+ *
+ * Every packet goes over the mesh to the peers connected right now, and to {@code remote}
+ * listing those peers: they drop the Rabbit copy, while the nodes of the host the mesh did not
+ * reach (not found or connected yet, buffer full) take it. Every node of the host must use the
+ * same {@code RabbitPacketSenderOptions.withHostId}. A frame the mesh took is still lost if its
+ * connection drops before writing it, as on the mesh alone. Replies to a node of this host that
+ * the mesh reached never leave it.
+ *
+ * Other packets are still published, since nodes of other hosts may want them: the broker copies
+ * them into the queue of every node of this host too, which drops them on receipt. So by default
+ * the mesh cuts intra-host latency, not broker load. Channels that only nodes of this host receive
+ * can be declared host-local: those are not published once the mesh reached every peer that
+ * receives them (a peer not discovered yet misses them).
+ */
+public final class CoLocatedPacketSender implements PacketSender {
+
+    private final TcpMeshPacketSender local;
+    private final RabbitPacketSenderImpl remote;
+    private final Predicate<String> hostLocal;
+
+    /**
+     * @throws IllegalStateException if {@code remote} has no host id
+     */
+    public CoLocatedPacketSender(TcpMeshPacketSender local, RabbitPacketSenderImpl remote) {
+        this(local, remote, ch -> false);
+    }
+
+    /**
+     * @param hostLocal channel names no node of another host receives
+     * @throws IllegalStateException if {@code remote} has no host id
+     */
+    public CoLocatedPacketSender(TcpMeshPacketSender local, RabbitPacketSenderImpl remote, Predicate<String> hostLocal) {
+        this.local = local;
+        this.remote = remote;
+        this.hostLocal = hostLocal;
+        remote.setLocalAddress(local.getLocalAddress());
+    }
+
+    @Override
+    public void registerChannel(PacketChannel channel) {
+        local.registerChannel(channel);
+        remote.registerChannel(channel);
+    }
+
+    @Override
+    public void registerListener(IncomingPacketListener listener) {
+        local.registerListener(listener);
+        remote.registerListener(listener);
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, byte[] content) {
+        sendPacket(channel, ByteBuffer.wrap(content));
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, ByteBuffer content) {
+        send(channel, null, PacketPriority.NORMAL, content);
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, ByteBuffer content, PacketPriority priority) {
+        send(channel, null, priority, content);
+    }
+
+    @Override
+    public boolean routesByPacketType() {
+        return remote.routesByPacketType();
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, PacketDefinition<?> definition, ByteBuffer content) {
+        send(channel, definition, definition != null ? definition.getPriority() : PacketPriority.NORMAL, content);
+    }
+
+    private void send(PacketChannel channel, PacketDefinition<?> definition, PacketPriority priority, ByteBuffer content) {
+        Map<String, List<String>> delivered = new HashMap<>();
+        for (String ch : channel) {
+            delivered.put(ch, local.sendToConnected(ch, content));
+        }
+        PacketChannel target = remoteTarget(channel, delivered);
+        if (target != null) remote.sendPacket(target, definition, priority, content, delivered);
+    }
+
+    @Override
+    public void updateInterest(Collection<PacketDefinition<?>> definitions) {
+        remote.updateInterest(definitions);
+    }
+
+    /**
+     * {@code channel} without the reply channels the mesh delivered and the host-local ones it
+     * delivered to every peer, or null if nothing is left.
+     */
+    private PacketChannel remoteTarget(PacketChannel channel, Map<String, List<String>> delivered) {
+        List<String> remaining = new ArrayList<>();
+        boolean filtered = false;
+        for (String ch : channel) {
+            List<String> reached = delivered.get(ch);
+            if (ch.startsWith(PacketManager.REPLY_CHANNEL_PREFIX) ? !reached.isEmpty()
+                    : hostLocal.test(ch) && local.reachedEveryPeer(ch, reached)) {
+                filtered = true;
+            } else {
+                remaining.add(ch);
+            }
+        }
+
+        if (!filtered) return channel;
+        if (remaining.isEmpty()) return null;
+        return PacketChannel.multiple(remaining.toArray(String[]::new));
+    }
+
+    public TcpMeshPacketSender getLocal() {
+        return local;
+    }
+
+    public RabbitPacketSenderImpl getRemote() {
+        return remote;
+    }
+
+    @Override
+    public void close() {
+        local.close();
+        remote.close();
+    }
+}
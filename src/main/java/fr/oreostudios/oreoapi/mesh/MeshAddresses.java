@@ -0,0 +1,98 @@
+// File: src/main/java/fr/oreostudios/oreoapi/mesh/MeshAddresses.java
+package fr.oreostudios.oreoapi.mesh;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Conversions between mesh address strings and socket addresses:
+ * {@code host:port} for TCP, {@code unix:<path>} for Unix domain sockets.
+ */
+final class MeshAddresses {
+
+    static final String UNIX_PREFIX = "unix:";
+
+    private MeshAddresses() {}
+
+    /**
+     * Socket address for {@code address}; host names are only looked up when dialling.
+     *
+     * @throws IllegalArgumentException if the address is malformed
+     */
+    static SocketAddress parse(String address) {
+        if (address.startsWith(UNIX_PREFIX)) {
+            String path = address.substring(UNIX_PREFIX.length());
+            if (path.isEmpty()) throw new IllegalArgumentException("Expected unix:<path>, got " + address);
+            return UnixDomainSocketAddress.of(path);
+        }
+
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0 || colon == address.length() - 1) {
+            throw new IllegalArgumentException("Expected host:port, got " + address);
+        }
+
+        String host = address.substring(0, colon);
+        if (host.startsWith("[") && host.endsWith("]")) host = host.substring(1, host.length() - 1);
+        int port;
+        try {
+            port = Integer.parseInt(address.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid port in " + address, e);
+        }
+        if (port < 0 || port > 0xFFFF) throw new IllegalArgumentException("Invalid port in " + address);
+        return InetSocketAddress.createUnresolved(host, port);
+    }
+
+    /**
+     * Resolved form of a {@link #parse}d address, looked up again on every call.
+     */
+    static SocketAddress resolve(SocketAddress address) {
+        if (address instanceof InetSocketAddress inet && inet.isUnresolved()) {
+            return new InetSocketAddress(inet.getHostString(), inet.getPort());
+        }
+        return address;
+    }
+
+    /**
+     * Address other nodes can dial to reach {@code bound}: a wildcard host becomes this host's address.
+     */
+    static String advertise(SocketAddress bound) {
+        if (bound instanceof UnixDomainSocketAddress unix) {
+            return UNIX_PREFIX + unix.getPath().toAbsolutePath();
+        }
+
+        InetSocketAddress inet = (InetSocketAddress) bound;
+        InetAddress host = inet.getAddress();
+        if (host.isAnyLocalAddress()) {
+            try {
+                host = InetAddress.getLocalHost();
+            } catch (UnknownHostException e) {
+                host = InetAddress.getLoopbackAddress();
+            }
+        }
+        return format(host.getHostAddress(), inet.getPort());
+    }
+
+    static boolean isUnix(SocketAddress address) {
+        return address instanceof UnixDomainSocketAddress;
+    }
+
+    static SocketChannel openChannel(SocketAddress address) throws IOException {
+        return isUnix(address) ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open();
+    }
+
+    static ServerSocketChannel openServer(SocketAddress address) throws IOException {
+        return isUnix(address) ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+    }
+
+    private static String format(String host, int port) {
+        return (host.indexOf(':') >= 0 ? "[" + host + "]" : host) + ":" + port;
+    }
+}
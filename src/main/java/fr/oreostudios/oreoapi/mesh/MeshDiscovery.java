@@ -0,0 +1,115 @@
+// File: src/main/java/fr/oreostudios/oreoapi/mesh/MeshDiscovery.java
+package fr.oreostudios.oreoapi.mesh;
+
+import fr.oreostudios.oreoapi.sync.ISyncBus;
+import fr.oreostudios.oreoapi.sync.SyncPacket;
+import fr.oreostudios.oreoapi.util.NamedThreadFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds mesh peers through the sync bus: every node announces its address on
+ * {@link #ROUTING_KEY} each interval and adds the nodes it hears from. A node not heard from
+ * for three intervals is removed, and a node that shuts down says so right away.
+ */
+public final class MeshDiscovery implements AutoCloseable {
+
+    public static final String ROUTING_KEY = "oreo.mesh";
+
+    private static final System.Logger LOGGER = System.getLogger(MeshDiscovery.class.getName());
+
+    private static final String ANNOUNCE = "ANNOUNCE";
+    private static final String LEAVE = "LEAVE";
+    private static final int EXPIRY_INTERVALS = 3;
+
+    private final TcpMeshPacketSender sender;
+    private final ISyncBus bus;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("oreo-mesh-discovery", true));
+
+    /** Address -> nanoTime of its last announcement. */
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    private MeshDiscovery(TcpMeshPacketSender sender, ISyncBus bus, Duration interval) {
+        this.sender = sender;
+        this.bus = bus;
+        this.interval = interval;
+    }
+
+    /**
+     * Announce {@code sender} on {@code bus} every {@code interval} and add the peers it hears from.
+     */
+    public static MeshDiscovery start(TcpMeshPacketSender sender, ISyncBus bus, Duration interval) {
+        Objects.requireNonNull(sender, "sender");
+        Objects.requireNonNull(bus, "bus");
+        Objects.requireNonNull(interval, "interval");
+        if (interval.toMillis() < 100) throw new IllegalArgumentException("interval must be >= 100 ms");
+
+        MeshDiscovery discovery = new MeshDiscovery(sender, bus, interval);
+        bus.subscribe(ROUTING_KEY, discovery::onMessage);
+        discovery.scheduler.scheduleAtFixedRate(discovery::tick, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        return discovery;
+    }
+
+    private void onMessage(SyncPacket packet) {
+        if (closed || packet.payload() == null) return;
+        if (!(packet.payload().get("address") instanceof String address)) return;
+
+        try {
+            switch (packet.type()) {
+                case ANNOUNCE -> {
+                    lastSeen.put(address, System.nanoTime());
+                    sender.addPeer(address);
+                }
+                case LEAVE -> {
+                    lastSeen.remove(address);
+                    sender.removePeer(address);
+                }
+                default -> {
+                    // newer message type → ignore
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // malformed address from a misconfigured node → ignore
+        }
+    }
+
+    private void tick() {
+        try {
+            bus.publish(ROUTING_KEY, ANNOUNCE, Map.of("address", sender.getLocalAddress()));
+        } catch (RuntimeException e) {
+            // a failed run would cancel the schedule
+            LOGGER.log(System.Logger.Level.WARNING, "Cannot announce mesh address", e);
+        }
+
+        long cutoff = System.nanoTime() - interval.toNanos() * EXPIRY_INTERVALS;
+        for (Iterator<Map.Entry<String, Long>> it = lastSeen.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Long> entry = it.next();
+            if (entry.getValue() - cutoff < 0) {
+                it.remove();
+                sender.removePeer(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Stop announcing and tell the other nodes this one is leaving. Does not close the sender.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        scheduler.shutdownNow();
+        bus.publish(ROUTING_KEY, LEAVE, Map.of("address", sender.getLocalAddress()));
+    }
+}
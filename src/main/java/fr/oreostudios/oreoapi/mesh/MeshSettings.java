@@ -0,0 +1,179 @@
+// File: src/main/java/fr/oreostudios/oreoapi/mesh/MeshSettings.java
+package fr.oreostudios.oreoapi.mesh;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable settings of a {@link TcpMeshPacketSender}.
+ *
+ * Addresses are {@code host:port} strings ({@code [v6]:port} for IPv6 literals), or
+ * {@code unix:<path>} for Unix domain sockets between nodes of one host. The listen
+ * address may use port 0 in tests; the advertised address is what other nodes dial, and
+ * defaults to the bound one (with this host's address in place of a wildcard).
+ */
+public final class MeshSettings {
+
+    public static final int DEFAULT_MAX_FRAME_BYTES = 16 * 1024 * 1024;
+    public static final int DEFAULT_MAX_PENDING_BYTES = 8 * 1024 * 1024;
+    public static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final String listenAddress;
+    private final String advertisedAddress;
+    private final List<String> peers;
+    private final int maxFrameBytes;
+    private final int maxPendingBytes;
+    private final Duration reconnectDelay;
+    private final Path peerDirectory;
+    private final String secret;
+
+    private MeshSettings(String listenAddress, String advertisedAddress, List<String> peers,
+                         int maxFrameBytes, int maxPendingBytes, Duration reconnectDelay, Path peerDirectory,
+                         String secret) {
+        this.listenAddress = listenAddress;
+        this.advertisedAddress = advertisedAddress;
+        this.peers = peers;
+        this.maxFrameBytes = maxFrameBytes;
+        this.maxPendingBytes = maxPendingBytes;
+        this.reconnectDelay = reconnectDelay;
+        this.peerDirectory = peerDirectory;
+        this.secret = secret;
+    }
+
+    /**
+     * Accept connections on {@code address} (e.g. {@code 0.0.0.0:25590}).
+     */
+    public static MeshSettings listen(String address) {
+        MeshAddresses.parse(Objects.requireNonNull(address, "address"));
+        return new MeshSettings(address, null, List.of(), DEFAULT_MAX_FRAME_BYTES,
+                DEFAULT_MAX_PENDING_BYTES, DEFAULT_RECONNECT_DELAY, null, null);
+    }
+
+    public MeshSettings withAdvertisedAddress(String advertisedAddress) {
+        if (advertisedAddress != null) MeshAddresses.parse(advertisedAddress);
+        return new MeshSettings(listenAddress, advertisedAddress, peers, maxFrameBytes, maxPendingBytes,
+                reconnectDelay, peerDirectory, secret);
+    }
+
+    /**
+     * Static peers, dialled on start. Nodes that connect to this one are added as peers as well,
+     * so a list on one side is enough; see {@link MeshDiscovery} for peers found through the sync bus.
+     */
+    public MeshSettings withPeers(Collection<String> peers) {
+        List<String> copy = new ArrayList<>(peers.size());
+        for (String peer : peers) {
+            MeshAddresses.parse(Objects.requireNonNull(peer, "peer"));
+            copy.add(peer);
+        }
+        return new MeshSettings(listenAddress, advertisedAddress, List.copyOf(copy), maxFrameBytes,
+                maxPendingBytes, reconnectDelay, peerDirectory, secret);
+    }
+
+    /**
+     * Largest frame accepted from a peer; a connection sending a bigger one is closed. Every
+     * node of a mesh should use the same value: packets too big for it are not sent to peers
+     * (they still reach local receivers) and count as dropped.
+     */
+    public MeshSettings withMaxFrameBytes(int maxFrameBytes) {
+        if (maxFrameBytes < 1024) throw new IllegalArgumentException("maxFrameBytes must be >= 1 KiB");
+        return new MeshSettings(listenAddress, advertisedAddress, peers, maxFrameBytes, maxPendingBytes,
+                reconnectDelay, peerDirectory, secret);
+    }
+
+    /**
+     * Bytes queued per peer while it is slow or unreachable; frames that do not fit are dropped.
+     */
+    public MeshSettings withMaxPendingBytes(int maxPendingBytes) {
+        if (maxPendingBytes < 64 * 1024) throw new IllegalArgumentException("maxPendingBytes must be >= 64 KiB");
+        return new MeshSettings(listenAddress, advertisedAddress, peers, maxFrameBytes, maxPendingBytes,
+                reconnectDelay, peerDirectory, secret);
+    }
+
+    /**
+     * Longest wait between reconnection attempts; the delay doubles from 50 ms up to it.
+     */
+    public MeshSettings withReconnectDelay(Duration reconnectDelay) {
+        Objects.requireNonNull(reconnectDelay, "reconnectDelay");
+        if (reconnectDelay.toMillis() < 50) throw new IllegalArgumentException("reconnectDelay must be >= 50 ms");
+        return new MeshSettings(listenAddress, advertisedAddress, peers, maxFrameBytes, maxPendingBytes,
+                reconnectDelay, peerDirectory, secret);
+    }
+
+    /**
+     * Dial every Unix domain socket ({@code *.sock}) in {@code directory}, rescanned every second;
+     * sockets that disappear stop being peers. Nodes of one host listening in a shared directory
+     * ({@code unix:/run/oreo/<server>.sock}) find each other this way. Null to disable.
+     */
+    public MeshSettings withPeerDirectory(Path peerDirectory) {
+        return new MeshSettings(listenAddress, advertisedAddress, peers, maxFrameBytes, maxPendingBytes,
+                reconnectDelay, peerDirectory, secret);
+    }
+
+    /**
+     * Shared secret every node of the mesh must be configured with. Both ends of a connection
+     * prove they know it (an HMAC over a nonce from each side) before any frame other than the
+     * handshake is sent or accepted, and connections that cannot are closed. Traffic itself is
+     * neither encrypted nor signed. Null (the default) accepts any node, which is only safe on
+     * a private network.
+     */
+    public MeshSettings withSecret(String secret) {
+        if (secret != null && secret.isEmpty()) throw new IllegalArgumentException("secret must not be empty");
+        return new MeshSettings(listenAddress, advertisedAddress, peers, maxFrameBytes, maxPendingBytes,
+                reconnectDelay, peerDirectory, secret);
+    }
+
+    public String getListenAddress() {
+        return listenAddress;
+    }
+
+    /**
+     * @return the configured advertised address, or null to derive it from the bound one
+     */
+    public String getAdvertisedAddress() {
+        return advertisedAddress;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    public int getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    public int getMaxPendingBytes() {
+        return maxPendingBytes;
+    }
+
+    public Duration getReconnectDelay() {
+        return reconnectDelay;
+    }
+
+    public Path getPeerDirectory() {
+        return peerDirectory;
+    }
+
+    /**
+     * @return the shared secret, or null if inbound connections are not authenticated
+     */
+    public String getSecret() {
+        return secret;
+    }
+
+    @Override
+    public String toString() {
+        return "MeshSettings{listen=" + listenAddress
+                + ", advertised=" + advertisedAddress
+                + ", peers=" + peers
+                + ", maxFrameBytes=" + maxFrameBytes
+                + ", maxPendingBytes=" + maxPendingBytes
+                + ", reconnectDelay=" + reconnectDelay
+                + ", peerDirectory=" + peerDirectory
+                + ", secret=" + (secret != null ? "***" : null)
+                + "}";
+    }
+}
@@ -0,0 +1,955 @@
+// File: src/main/java/fr/oreostudios/oreoapi/mesh/TcpMeshPacketSender.java
+package fr.oreostudios.oreoapi.mesh;
+
+import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.event.IncomingPacketListener;
+import fr.oreostudios.oreoapi.bus.event.PacketSender;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Packet transport over direct TCP connections between nodes, without a broker, or over
+ * Unix domain sockets between the nodes of one host (see {@link CoLocatedPacketSender}).
+ *
+ * Every node listens on one address and dials each peer once. A node's own connection to
+ * a peer carries what it sends; the peer's connection back carries the rest. Frames are
+ * length-prefixed:
+ * <pre>
+ * [int length][byte type][short keyLength][utf-8 key][payload]
+ * HELLO    : key = sender's advertised address, payload = one of, in handshake order:
+ *            1. accepting side: its nonce
+ *            2. dialling side: its nonce + proof
+ *            3. accepting side: proof
+ * CHANNELS : key empty, payload = [int count]([short length][utf-8 channel])*
+ * DATA     : key = channel, payload = packet bytes
+ * </pre>
+ * A proof is HMAC-SHA256(secret, role + both nonces + both addresses), empty without a secret
+ * (see {@link MeshSettings#withSecret}). Each side checks the other's, so neither can be
+ * replayed on another connection or in the other direction. The dialling side sends its
+ * CHANNELS and pending frames only once the accepting side proved itself, and a connection
+ * carrying anything but HELLO before its handshake completed is closed. Outgoing connections
+ * never take anything but HELLO.
+ *
+ * A node only sends DATA for the channels a peer registered (all of them until its CHANNELS
+ * frame arrives), and delivers what it sends to its own channels locally, like a broker would.
+ *
+ * One selector thread does all network I/O and delivers received packets. Senders append
+ * frames to a per-peer buffer and wake it up once; everything appended until it runs goes
+ * out in a single write, which coalesces bursts without adding latency. Frames queue (up to
+ * {@link MeshSettings#getMaxPendingBytes()}) while a peer is unreachable and go out once it
+ * is reconnected; a connection that drops loses what it had not written yet. Priorities are
+ * not used: frames go out in send order.
+ */
+public final class TcpMeshPacketSender implements PacketSender {
+
+    private static final System.Logger LOGGER = System.getLogger(TcpMeshPacketSender.class.getName());
+
+    static final byte HELLO = 1;
+    static final byte CHANNELS = 2;
+    static final byte DATA = 3;
+
+    private static final byte[] NO_KEY = new byte[0];
+
+    private static final long MIN_RECONNECT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long SELECT_TIMEOUT_MILLIS = 100;
+    private static final long CLOSE_JOIN_MILLIS = 2_000;
+    private static final long DIRECTORY_SCAN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String SOCKET_SUFFIX = ".sock";
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+    private static final int NONCE_BYTES = 16;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    /** Role byte of each side's proof. */
+    private static final byte DIALLER = 'D';
+    private static final byte ACCEPTOR = 'A';
+
+    private final MeshSettings settings;
+    private final String localAddress;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    /** Socket file of a Unix domain listener, deleted on close; null for TCP. */
+    private final Path socketFile;
+    private final Thread ioThread;
+    private long nextDirectoryScan;
+    /** Keyed with the shared secret, or null; I/O thread only. */
+    private final Mac mac;
+    private final SecureRandom random = new SecureRandom();
+
+    /** Address as dialled -> peer. */
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final Queue<Peer> ready = new ConcurrentLinkedQueue<>();
+    private final Set<IncomingPacketListener> listeners = new CopyOnWriteArraySet<>();
+    /** Concrete channel name -> channel it was registered with. */
+    private final Map<String, PacketChannel> channels = new ConcurrentHashMap<>();
+    /** UTF-8 form of the registered channel names. */
+    private final Map<String, byte[]> channelKeys = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder framesReceived = new LongAdder();
+    private final LongAdder framesDropped = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    /**
+     * Bind the listen address and start dialling the static peers.
+     *
+     * @throws UncheckedIOException if the address cannot be bound
+     */
+    public TcpMeshPacketSender(MeshSettings settings) {
+        this.settings = Objects.requireNonNull(settings, "settings");
+        this.mac = settings.getSecret() != null ? newMac(settings.getSecret()) : null;
+        SocketAddress listen = MeshAddresses.resolve(MeshAddresses.parse(settings.getListenAddress()));
+        try {
+            if (listen instanceof UnixDomainSocketAddress unix) {
+                this.socketFile = unix.getPath().toAbsolutePath();
+                if (socketFile.getParent() != null) Files.createDirectories(socketFile.getParent());
+                Files.deleteIfExists(socketFile); // left over by a node that did not shut down cleanly
+            } else {
+                this.socketFile = null;
+            }
+            this.selector = Selector.open();
+            this.server = MeshAddresses.openServer(listen);
+            server.bind(listen);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            this.localAddress = settings.getAdvertisedAddress() != null
+                    ? settings.getAdvertisedAddress()
+                    : MeshAddresses.advertise(server.getLocalAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen on " + settings.getListenAddress(), e);
+        }
+
+        for (String peer : settings.getPeers()) {
+            addPeer(peer);
+        }
+
+        this.ioThread = new Thread(this::run, "oreo-mesh-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    private static Mac newMac(String secret) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + MAC_ALGORITHM, e);
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Peers                                              */
+    /* -------------------------------------------------- */
+
+    /**
+     * Address other nodes reach this one at.
+     */
+    public String getLocalAddress() {
+        return localAddress;
+    }
+
+    /**
+     * Start sending to the node at {@code address}; no-op if it is already a peer (or this node).
+     *
+     * @throws IllegalArgumentException if the address is malformed
+     */
+    public void addPeer(String address) {
+        SocketAddress socketAddress = MeshAddresses.parse(address);
+        if (closed || address.equals(localAddress) || isKnown(address)) return;
+
+        Peer peer = new Peer(address, socketAddress);
+        if (peers.putIfAbsent(address, peer) == null) {
+            LOGGER.log(System.Logger.Level.DEBUG, "Added mesh peer " + address);
+            schedule(peer);
+        }
+    }
+
+    /**
+     * Stop sending to {@code address} and close the connection to it.
+     */
+    public void removePeer(String address) {
+        Peer peer = peers.remove(address);
+        if (peer == null) return;
+
+        peer.removed = true;
+        schedule(peer);
+    }
+
+    private boolean isKnown(String address) {
+        return findPeer(address) != null;
+    }
+
+    /**
+     * Peer dialled at {@code address} or advertising it, or null.
+     */
+    private Peer findPeer(String address) {
+        Peer peer = peers.get(address);
+        if (peer != null) return peer;
+        for (Peer candidate : peers.values()) {
+            if (address.equals(candidate.canonicalAddress)) return candidate;
+        }
+        return null;
+    }
+
+    /**
+     * Addresses of the current peers, as dialled.
+     */
+    public Set<String> getPeers() {
+        return Set.copyOf(peers.keySet());
+    }
+
+    public boolean isConnected(String address) {
+        Peer peer = peers.get(address);
+        return peer != null && peer.connected;
+    }
+
+    /**
+     * Whether a connected peer registered {@code channel} (as far as its last CHANNELS frame says).
+     */
+    public boolean isReceivedByPeer(String channel) {
+        for (Peer peer : peers.values()) {
+            Set<String> names = peer.remoteChannels;
+            if (names != null && names.contains(channel)) return true;
+        }
+        return false;
+    }
+
+    /* -------------------------------------------------- */
+    /* PacketSender                                       */
+    /* -------------------------------------------------- */
+
+    /**
+     * True if a peer receives one of {@code channel}'s names, or has not said what it receives yet.
+     */
+    @Override
+    public boolean reachesRemoteNodes(PacketChannel channel) {
+        for (Peer peer : peers.values()) {
+            if (peer.removed) continue;
+            for (String ch : channel) {
+                if (peer.receives(ch)) return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void registerChannel(PacketChannel channel) {
+        boolean added = false;
+        for (String ch : channel) {
+            if (channels.putIfAbsent(ch, channel) == null) {
+                channelKeys.put(ch, ch.getBytes(StandardCharsets.UTF_8));
+                added = true;
+            }
+        }
+        if (!added) return;
+
+        ByteBuffer payload = channelsPayload();
+        for (Peer peer : peers.values()) {
+            peer.append(CHANNELS, NO_KEY, payload.duplicate(), Integer.MAX_VALUE);
+            schedule(peer);
+        }
+    }
+
+    @Override
+    public void registerListener(IncomingPacketListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, byte[] content) {
+        sendPacket(channel, ByteBuffer.wrap(content));
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, ByteBuffer content) {
+        for (String ch : channel) {
+            send(ch, content, null);
+        }
+    }
+
+    /**
+     * Send {@code content} on channel name {@code ch} to the peers that are connected right now
+     * only, nothing being queued for the others (see {@link CoLocatedPacketSender}).
+     *
+     * @return advertised addresses of the nodes that got it: this one if it registered {@code ch},
+     *         and the connected peers whose buffer took the frame
+     */
+    public List<String> sendToConnected(String ch, ByteBuffer content) {
+        List<String> delivered = new ArrayList<>();
+        send(ch, content, delivered);
+        return delivered;
+    }
+
+    /**
+     * Whether every peer that receives {@code ch}, or has not said what it receives, is among
+     * {@code delivered} (as returned by {@link #sendToConnected}). Peers not discovered yet are not counted.
+     */
+    public boolean reachedEveryPeer(String ch, List<String> delivered) {
+        for (Peer peer : peers.values()) {
+            if (peer.removed || !peer.receives(ch)) continue;
+            String address = peer.canonicalAddress;
+            if (address == null || !delivered.contains(address)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param delivered null to queue for every peer, or where to collect the nodes reached, connected peers only
+     */
+    private void send(String ch, ByteBuffer content, List<String> delivered) {
+        byte[] key = channelKeys.get(ch);
+        if (key == null) key = ch.getBytes(StandardCharsets.UTF_8);
+        // peers close the connection on a frame past their limit, losing everything pending with it
+        boolean fits = 3 + key.length + content.remaining() <= settings.getMaxFrameBytes();
+
+        for (Peer peer : peers.values()) {
+            if (!peer.receives(ch)) continue;
+            if (delivered != null && !peer.connected) continue;
+            if (fits && peer.append(DATA, key, content.duplicate(), settings.getMaxPendingBytes())) {
+                framesSent.increment();
+                schedule(peer);
+                if (delivered != null) delivered.add(peer.canonicalAddress);
+            } else {
+                framesDropped.increment();
+            }
+        }
+
+        PacketChannel local = channels.get(ch);
+        if (local != null) {
+            deliver(local, content.duplicate());
+            if (delivered != null) delivered.add(localAddress);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        selector.wakeup();
+        try {
+            ioThread.join(CLOSE_JOIN_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        listeners.clear();
+    }
+
+    private void deliver(PacketChannel channel, ByteBuffer content) {
+        for (IncomingPacketListener listener : listeners) {
+            try {
+                listener.onReceive(channel, content.duplicate());
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Mesh listener failed on " + channel, e);
+            }
+        }
+    }
+
+    /**
+     * Hand {@code peer} to the I/O thread, waking it up unless it is already due to run.
+     */
+    private void schedule(Peer peer) {
+        if (peer.scheduled.compareAndSet(false, true)) {
+            ready.add(peer);
+            selector.wakeup();
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Metrics                                            */
+    /* -------------------------------------------------- */
+
+    /**
+     * DATA frames queued for peers (one per peer and channel).
+     */
+    public long getFramesSent() {
+        return framesSent.sum();
+    }
+
+    public long getFramesReceived() {
+        return framesReceived.sum();
+    }
+
+    /**
+     * DATA frames dropped because a peer's pending buffer was full or the frame was larger
+     * than {@link MeshSettings#getMaxFrameBytes()}.
+     */
+    public long getFramesDropped() {
+        return framesDropped.sum();
+    }
+
+    /**
+     * Socket writes; frames sent per write is the coalescing ratio.
+     */
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /* -------------------------------------------------- */
+    /* I/O thread                                         */
+    /* -------------------------------------------------- */
+
+    private void run() {
+        long timeout = SELECT_TIMEOUT_MILLIS;
+        while (!closed) {
+            try {
+                selector.select(this::handle, timeout);
+            } catch (IOException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Mesh selector failed", e);
+            }
+
+            Peer peer;
+            while ((peer = ready.poll()) != null) {
+                peer.scheduled.set(false); // appends from now on schedule it again
+                service(peer);
+            }
+            timeout = reconnectDue();
+            if (settings.getPeerDirectory() != null && System.nanoTime() - nextDirectoryScan >= 0) {
+                scanPeerDirectory(settings.getPeerDirectory());
+                nextDirectoryScan = System.nanoTime() + DIRECTORY_SCAN_NANOS;
+            }
+        }
+        shutdown();
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        Peer peer = connection.peer;
+        try {
+            if (key.isConnectable()) {
+                // wait for the accepting side's HELLO before writing anything
+                if (connection.channel.finishConnect()) key.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+            if (key.isReadable()) read(connection);
+            if (peer != null && key.isValid() && key.isWritable()) write(peer);
+        } catch (IOException | RuntimeException e) {
+            if (peer != null) {
+                disconnect(peer, e);
+            } else {
+                closeInbound(connection, e);
+            }
+        }
+    }
+
+    /**
+     * Connect, write or close {@code peer}, whichever it needs.
+     */
+    private void service(Peer peer) {
+        if (peer.removed) {
+            disconnect(peer, null);
+            return;
+        }
+        if (peer.connection == null) {
+            if (System.nanoTime() - peer.reconnectAt >= 0) connect(peer);
+            return;
+        }
+        if (peer.connected) {
+            try {
+                write(peer);
+            } catch (IOException e) {
+                disconnect(peer, e);
+            }
+        }
+    }
+
+    /**
+     * Dial the peers whose reconnection delay elapsed.
+     *
+     * @return milliseconds until the next one is due (capped)
+     */
+    private long reconnectDue() {
+        long now = System.nanoTime();
+        long timeout = SELECT_TIMEOUT_MILLIS;
+        for (Peer peer : peers.values()) {
+            if (peer.connection != null || peer.removed) continue;
+            long wait = peer.reconnectAt - now;
+            if (wait <= 0) {
+                connect(peer);
+            } else {
+                timeout = Math.min(timeout, Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+            }
+        }
+        return timeout;
+    }
+
+    /**
+     * Make every socket file in {@code directory} a peer, and drop the peers whose file is gone.
+     */
+    private void scanPeerDirectory(Path directory) {
+        Set<String> found = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SOCKET_SUFFIX)) {
+            for (Path file : stream) {
+                found.add(MeshAddresses.UNIX_PREFIX + file.toAbsolutePath());
+            }
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.DEBUG, "Cannot scan mesh peer directory " + directory, e);
+            return;
+        }
+
+        for (String address : found) {
+            addPeer(address);
+        }
+
+        String prefix = MeshAddresses.UNIX_PREFIX + directory.toAbsolutePath();
+        for (String address : peers.keySet()) {
+            if (address.startsWith(prefix) && !found.contains(address)) removePeer(address);
+        }
+    }
+
+    private void connect(Peer peer) {
+        try {
+            SocketChannel channel = MeshAddresses.openChannel(peer.socketAddress);
+            Connection connection = new Connection(channel, peer);
+            peer.connection = connection;
+            channel.configureBlocking(false);
+            if (!MeshAddresses.isUnix(peer.socketAddress)) channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            connection.key = channel.register(selector, 0, connection);
+            connection.key.interestOps(channel.connect(MeshAddresses.resolve(peer.socketAddress))
+                    ? SelectionKey.OP_READ
+                    : SelectionKey.OP_CONNECT);
+        } catch (IOException | UnresolvedAddressException e) {
+            disconnect(peer, e);
+        }
+    }
+
+    /**
+     * The accepting side proved itself on our connection to {@code peer}: send our channels,
+     * then what is pending.
+     */
+    private void onConnected(Peer peer) throws IOException {
+        ByteBuffer handshake = put(ByteBuffer.allocate(256), CHANNELS, NO_KEY, channelsPayload());
+        handshake.flip();
+
+        synchronized (peer) {
+            ByteBuffer pending = peer.pending;
+            pending.flip();
+            ByteBuffer merged = ByteBuffer.allocate(Math.max(pending.capacity(), handshake.remaining() + pending.remaining()));
+            merged.put(handshake).put(pending);
+            peer.pending = merged;
+        }
+
+        peer.connected = true;
+        peer.backoffNanos = MIN_RECONNECT_NANOS;
+        LOGGER.log(System.Logger.Level.DEBUG, "Connected to mesh peer " + peer.address);
+        write(peer);
+    }
+
+    private void write(Peer peer) throws IOException {
+        SelectionKey key = peer.connection.key;
+        synchronized (peer) {
+            ByteBuffer pending = peer.pending;
+            if (pending.position() > 0) {
+                pending.flip();
+                try {
+                    int written = peer.connection.channel.write(pending);
+                    writes.increment();
+                    bytesWritten.add(written);
+                } finally {
+                    pending.compact();
+                }
+            }
+            key.interestOps(pending.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Close the connection to {@code peer} and plan the next attempt unless it was removed.
+     */
+    private void disconnect(Peer peer, Throwable cause) {
+        Connection connection = peer.connection;
+        if (connection != null) {
+            closeQuietly(connection);
+            peer.connection = null;
+        }
+
+        boolean wasConnected = peer.connected;
+        peer.connected = false;
+        if (wasConnected) {
+            synchronized (peer) {
+                peer.pending.clear(); // may end with half a frame: restart from a frame boundary
+            }
+        }
+        if (peer.removed) return;
+
+        peer.reconnectAt = System.nanoTime() + peer.backoffNanos;
+        peer.backoffNanos = Math.min(peer.backoffNanos * 2, settings.getReconnectDelay().toNanos());
+        if (wasConnected) {
+            LOGGER.log(System.Logger.Level.WARNING, "Lost connection to mesh peer " + peer.address + ": " + cause);
+        } else {
+            LOGGER.log(System.Logger.Level.DEBUG, "Cannot reach mesh peer " + peer.address, cause);
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            channel = server.accept();
+            if (channel == null) return;
+
+            channel.configureBlocking(false);
+            if (socketFile == null) channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            // Tell the dialling side how we advertise ourselves, so it can spot duplicate and self
+            // connections, and give it the nonce to authenticate with
+            Connection connection = new Connection(channel, null);
+            connection.nonce = newNonce();
+            sendHello(connection, ByteBuffer.wrap(connection.nonce));
+
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Cannot accept mesh connection", e);
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.buffer;
+        int read = connection.channel.read(buffer);
+        if (read < 0) throw new IOException("Connection closed by peer");
+
+        buffer.flip();
+        try {
+            while (buffer.remaining() >= 4) {
+                int length = buffer.getInt(buffer.position());
+                if (length < 3 || length > settings.getMaxFrameBytes()) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (buffer.remaining() < 4 + length) break;
+
+                int start = buffer.position() + 4;
+                ByteBuffer frame = buffer.slice(start, length);
+                buffer.position(start + length);
+                onFrame(connection, frame);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Malformed frame", e);
+        } finally {
+            buffer.compact();
+        }
+
+        if (!buffer.hasRemaining()) {
+            int grown = Math.min(buffer.capacity() * 2, settings.getMaxFrameBytes() + 4);
+            connection.buffer = ByteBuffer.allocate(grown).put(buffer.flip());
+        }
+    }
+
+    private void onFrame(Connection connection, ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        byte[] keyBytes = new byte[frame.getShort() & 0xFFFF];
+        frame.get(keyBytes);
+        if (type != HELLO && !connection.authenticated) {
+            throw new IOException("Mesh frame " + type + " received before authentication");
+        }
+        if (type != HELLO && connection.peer != null) {
+            throw new IOException("Mesh frame " + type + " received on an outgoing connection");
+        }
+
+        switch (type) {
+            case DATA -> {
+                framesReceived.increment();
+                PacketChannel channel = channels.get(new String(keyBytes, StandardCharsets.UTF_8));
+                if (channel != null) deliver(channel, frame);
+            }
+            case HELLO -> {
+                byte[] payload = new byte[frame.remaining()];
+                frame.get(payload);
+                onHello(connection, keyBytes, payload);
+            }
+            case CHANNELS -> {
+                Set<String> names = new HashSet<>();
+                for (int i = frame.getInt(); i > 0; i--) {
+                    byte[] name = new byte[frame.getShort() & 0xFFFF];
+                    frame.get(name);
+                    names.add(new String(name, StandardCharsets.UTF_8));
+                }
+                Peer peer = connection.remoteAddress != null ? findPeer(connection.remoteAddress) : null;
+                if (peer != null) peer.remoteChannels = Set.copyOf(names);
+            }
+            default -> {
+                // unknown frame type from a newer node → ignore
+            }
+        }
+    }
+
+    private void onHello(Connection connection, byte[] addressBytes, byte[] payload) throws IOException {
+        String address = new String(addressBytes, StandardCharsets.UTF_8);
+        byte[] local = localAddress.getBytes(StandardCharsets.UTF_8);
+        Peer peer = connection.peer;
+        if (peer == null) {
+            // Accepted connection: the node that dialled in answers our nonce with its own and its
+            // proof; we prove ourselves in turn, and it becomes a peer
+            if (connection.authenticated) return;
+            if (payload.length < NONCE_BYTES) throw new IOException("Malformed mesh HELLO");
+            byte[] diallerNonce = Arrays.copyOf(payload, NONCE_BYTES);
+            byte[] diallerProof = Arrays.copyOfRange(payload, NONCE_BYTES, payload.length);
+            if (!MessageDigest.isEqual(diallerProof, proof(DIALLER, connection.nonce, diallerNonce, addressBytes, local))) {
+                LOGGER.log(System.Logger.Level.WARNING, "Rejected mesh connection from " + connection.channel.getRemoteAddress()
+                        + " claiming to be " + address + ": wrong secret");
+                throw new IOException("Mesh HELLO failed authentication");
+            }
+            sendHello(connection, ByteBuffer.wrap(proof(ACCEPTOR, connection.nonce, diallerNonce, local, addressBytes)));
+            connection.authenticated = true;
+            connection.remoteAddress = address;
+            addPeer(address);
+            return;
+        }
+        if (peer.connected) return;
+
+        if (connection.remoteNonce == null) {
+            // Our own connection: the accepting node says how it advertises itself
+            if (payload.length != NONCE_BYTES) throw new IOException("Malformed mesh HELLO");
+            peer.canonicalAddress = address;
+            if (address.equals(localAddress)) {
+                LOGGER.log(System.Logger.Level.DEBUG, "Mesh peer " + peer.address + " is this node");
+                removePeer(peer.address);
+            } else if (!address.equals(peer.address) && peers.containsKey(address)) {
+                LOGGER.log(System.Logger.Level.DEBUG, "Mesh peer " + peer.address + " is also known as " + address);
+                removePeer(peer.address);
+            } else {
+                connection.remoteNonce = payload;
+                connection.nonce = newNonce();
+                byte[] proof = proof(DIALLER, payload, connection.nonce, local, addressBytes);
+                sendHello(connection, ByteBuffer.allocate(NONCE_BYTES + proof.length).put(connection.nonce).put(proof).flip());
+            }
+            return;
+        }
+
+        // Our own connection, answered: the accepting node proves it knows the secret too
+        byte[] acceptor = peer.canonicalAddress.getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(payload, proof(ACCEPTOR, connection.remoteNonce, connection.nonce, acceptor, local))) {
+            LOGGER.log(System.Logger.Level.WARNING, "Mesh peer " + peer.address + " failed authentication: wrong secret");
+            throw new IOException("Mesh HELLO failed authentication");
+        }
+        connection.authenticated = true;
+        onConnected(peer);
+    }
+
+    /**
+     * Proof that the {@code role} side of a connection knows the secret; empty without a secret.
+     *
+     * @param from advertised address of the side proving itself
+     * @param to   advertised address of the side checking the proof
+     */
+    private byte[] proof(byte role, byte[] acceptorNonce, byte[] diallerNonce, byte[] from, byte[] to) {
+        if (mac == null) return NO_KEY;
+        mac.update(role);
+        mac.update(acceptorNonce);
+        mac.update(diallerNonce);
+        mac.update((byte) (from.length >>> 8));
+        mac.update((byte) from.length);
+        mac.update(from);
+        return mac.doFinal(to);
+    }
+
+    private byte[] newNonce() {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * Write a handshake HELLO straight to {@code connection}; it fits an empty socket buffer.
+     */
+    private void sendHello(Connection connection, ByteBuffer payload) throws IOException {
+        ByteBuffer hello = put(ByteBuffer.allocate(128), HELLO, localAddress.getBytes(StandardCharsets.UTF_8), payload);
+        hello.flip();
+        connection.channel.write(hello);
+    }
+
+    private void closeInbound(Connection connection, Throwable cause) {
+        closeQuietly(connection);
+        LOGGER.log(System.Logger.Level.DEBUG, "Mesh connection from " + connection.remoteAddress + " closed", cause);
+
+        Peer peer = connection.remoteAddress != null ? findPeer(connection.remoteAddress) : null;
+        if (peer != null) peer.remoteChannels = null; // unknown until it reconnects
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection.key != null) connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Last attempt at writing what is pending, then close every connection.
+     */
+    private void shutdown() {
+        for (Peer peer : peers.values()) {
+            if (peer.connected) {
+                try {
+                    write(peer);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+            }
+        }
+        try {
+            selector.close();
+            if (socketFile != null) Files.deleteIfExists(socketFile);
+        } catch (IOException ignored) {
+        }
+        peers.clear();
+    }
+
+    /* -------------------------------------------------- */
+    /* Frames                                             */
+    /* -------------------------------------------------- */
+
+    private ByteBuffer channelsPayload() {
+        Set<String> names = channels.keySet();
+        ByteBuffer payload = ByteBuffer.allocate(64);
+        int count = 0;
+        payload.putInt(0);
+        for (String name : names) {
+            byte[] bytes = channelKeys.get(name);
+            if (bytes == null) continue;
+            payload = ensure(payload, 2 + bytes.length);
+            payload.putShort((short) bytes.length).put(bytes);
+            count++;
+        }
+        payload.putInt(0, count);
+        return payload.flip();
+    }
+
+    /**
+     * Append a frame to {@code buffer}, growing it as needed.
+     */
+    private static ByteBuffer put(ByteBuffer buffer, byte type, byte[] key, ByteBuffer payload) {
+        int length = 1 + 2 + key.length + payload.remaining();
+        buffer = ensure(buffer, 4 + length);
+        buffer.putInt(length).put(type).putShort((short) key.length).put(key).put(payload);
+        return buffer;
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) return buffer;
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+        return ByteBuffer.allocate(capacity).put(buffer.flip());
+    }
+
+    /* -------------------------------------------------- */
+    /* State                                              */
+    /* -------------------------------------------------- */
+
+    private final class Peer {
+        final String address;
+        final SocketAddress socketAddress;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** Frames not written yet, in write mode; guarded by this. */
+        ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+
+        // I/O thread only
+        Connection connection;
+        long reconnectAt = System.nanoTime();
+        long backoffNanos = MIN_RECONNECT_NANOS;
+
+        volatile boolean connected;
+        volatile boolean removed;
+        /** Address the peer advertises, once its HELLO came back. */
+        volatile String canonicalAddress;
+        /** Channels the peer receives, or null until it said so. */
+        volatile Set<String> remoteChannels;
+
+        Peer(String address, SocketAddress socketAddress) {
+            this.address = address;
+            this.socketAddress = socketAddress;
+        }
+
+        boolean receives(String channel) {
+            Set<String> names = remoteChannels;
+            return names == null || names.contains(channel);
+        }
+
+        /**
+         * @return false if the frame would take the pending bytes past {@code limit}
+         */
+        synchronized boolean append(byte type, byte[] key, ByteBuffer payload, int limit) {
+            if (removed) return false;
+            if (pending.position() + 7 + key.length + payload.remaining() > limit) return false;
+            pending = put(pending, type, key, payload);
+            return true;
+        }
+    }
+
+    private static final class Connection {
+        final SocketChannel channel;
+        /** Peer this connection sends to, or null for an accepted connection. */
+        final Peer peer;
+        SelectionKey key;
+        ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        /** Nonce this side issued for the other side's proof. */
+        byte[] nonce;
+        /** Nonce the accepting side issued (outgoing connections). */
+        byte[] remoteNonce;
+        /** Whether the other side proved it knows the secret. */
+        boolean authenticated;
+        /** Advertised address of the node that dialled in, once authenticated (accepted connections). */
+        String remoteAddress;
+
+        Connection(SocketChannel channel, Peer peer) {
+            this.channel = channel;
+            this.peer = peer;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/BufferedRabbitService.java
+package fr.oreostudios.oreoapi.rabbit;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.DeliverCallback;
+import fr.oreostudios.oreoapi.util.BoundedRingBuffer;
+import fr.oreostudios.oreoapi.util.NamedThreadFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous publishing in front of another {@link IRabbitService}.
+ *
+ * Publishers only copy the message into a bounded lock-free ring buffer; a dedicated
+ * thread hands it to the delegate. While the delegate is disconnected messages wait
+ * in the buffer and are flushed once it reconnects, so publish never throws because
+ * of a reconnect. When the buffer is full the {@link OverflowPolicy} decides what is
+ * lost; every loss is counted. Everything but publishing goes straight to the delegate.
+ *
+ * With a disk spool (see {@link RabbitSpooling}), messages published while disconnected
+ * or past the high-water mark are appended to the spool instead, and every later message
+ * follows them there until the spool has been replayed, which keeps publish order.
+ * Once its disk budget is exhausted, new messages never bypass the spooled ones:
+ * BLOCK waits for room, every other policy drops the new message. A message too large
+ * for a segment is dropped right away while the spool holds anything.
+ */
+public final class BufferedRabbitService implements IRabbitService {
+
+    private static final System.Logger LOGGER = System.getLogger(BufferedRabbitService.class.getName());
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int DROP_OLDEST_ATTEMPTS = 8;
+    /** Publish attempts of one message while the delegate reports being connected. */
+    private static final int MAX_CONNECTED_ATTEMPTS = 3;
+    private static final long CLOSE_FLUSH_MILLIS = 2_000;
+
+    private final IRabbitService delegate;
+    private final RabbitBuffering settings;
+    private final BoundedRingBuffer<Entry> queue;
+    /** Conflation key -> latest queued entry with it (CONFLATE with a key only). */
+    private final Map<Object, Entry> conflating;
+    private final Thread publisher;
+
+    /** Guarded by itself; null without spooling. */
+    private final DiskSpool spool;
+    /** Set while the spool holds messages: new ones must queue behind them. */
+    private volatile boolean spooling;
+    private long nextReplayNanos;
+
+    private volatile boolean closed;
+    private volatile boolean parked;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LongAdder spooled = new LongAdder();
+
+    public BufferedRabbitService(IRabbitService delegate) {
+        this(delegate, RabbitBuffering.defaults());
+    }
+
+    public BufferedRabbitService(IRabbitService delegate, RabbitBuffering settings) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.settings = Objects.requireNonNull(settings, "settings");
+        this.queue = new BoundedRingBuffer<>(settings.getCapacity());
+        this.conflating = settings.getOverflow() == OverflowPolicy.CONFLATE && settings.getConflationKey() != null
+                ? new ConcurrentHashMap<>() : null;
+        this.spool = settings.getSpool() != null ? new DiskSpool(settings.getSpool()) : null;
+        this.spooling = spool != null && !spool.isEmpty(); // left over by a previous run
+        this.publisher = new NamedThreadFactory("oreo-rabbit-publisher", true).newThread(this::run);
+        this.publisher.start();
+    }
+
+    /* -------------------------------------------------- */
+    /* Publish                                            */
+    /* -------------------------------------------------- */
+
+    @Override
+    public void publish(String routingKey, String json) {
+        Objects.requireNonNull(json, "json");
+        enqueue(new RabbitMessage(Objects.requireNonNull(routingKey, "routingKey"),
+                json.getBytes(StandardCharsets.UTF_8), null));
+    }
+
+    @Override
+    public void publish(String routingKey, byte[] data) {
+        publish(routingKey, data, null);
+    }
+
+    /**
+     * The remaining bytes are copied: callers may recycle the buffer right away.
+     */
+    @Override
+    public void publish(String routingKey, ByteBuffer data) {
+        Objects.requireNonNull(data, "data");
+        byte[] body = new byte[data.remaining()];
+        data.duplicate().get(body);
+        enqueue(new RabbitMessage(Objects.requireNonNull(routingKey, "routingKey"), body, null));
+    }
+
+    /**
+     * {@code data} is copied: callers may reuse the array right away.
+     */
+    @Override
+    public void publish(String routingKey, byte[] data, AMQP.BasicProperties properties) {
+        Objects.requireNonNull(data, "data");
+        enqueue(new RabbitMessage(Objects.requireNonNull(routingKey, "routingKey"), data.clone(), properties));
+    }
+
+    private void enqueue(RabbitMessage message) {
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+
+        if (spool != null && (spooling || !delegate.isConnected()
+                || queue.size() >= settings.getSpool().getHighWaterMark())) {
+            if (appendToSpool(message)) return;
+        }
+
+        Object key = conflating != null ? settings.getConflationKey().apply(message) : null;
+        Entry entry = new Entry(key, message);
+        if (!offer(entry)) {
+            if (key == null || !conflate(key, message)) dropped.increment();
+            return;
+        }
+        if (key != null) {
+            conflating.put(key, entry);
+            if (entry.message.get() == null) conflating.remove(key, entry); // published meanwhile
+        }
+
+        if (parked) LockSupport.unpark(publisher);
+    }
+
+    /**
+     * @return false if the message must be queued in memory instead (it does not fit but the spool is empty)
+     */
+    private boolean appendToSpool(RabbitMessage message) {
+        boolean block = settings.getOverflow() == OverflowPolicy.BLOCK;
+        long deadline = block ? System.nanoTime() + settings.getBlockTimeout().toNanos() : 0;
+        while (true) {
+            DiskSpool.Append result;
+            synchronized (spool) {
+                spooling = true;
+                result = spool.append(message);
+                if (result == DiskSpool.Append.APPENDED) break;
+                if (spool.isEmpty()) return false; // nothing older on disk to overtake
+            }
+
+            if (result == DiskSpool.Append.TOO_LARGE) {
+                // waiting frees no room for it, and memory would publish it ahead of the spooled messages
+                LOGGER.log(System.Logger.Level.WARNING, "Dropping message to " + message.routingKey()
+                        + ": " + message.body().length + " bytes do not fit in a spool segment");
+                dropped.increment();
+                return true;
+            }
+
+            // disk budget exhausted: memory would publish this ahead of the spooled messages
+            if (!block || closed || System.nanoTime() - deadline >= 0) {
+                dropped.increment();
+                return true;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        spooled.increment();
+        if (parked) LockSupport.unpark(publisher);
+        return true;
+    }
+
+    /**
+     * Buffer full: replace the message of a still-queued entry with the same key.
+     */
+    private boolean conflate(Object key, RabbitMessage message) {
+        Entry queued = conflating.get(key);
+        if (queued == null) return false;
+
+        RabbitMessage current;
+        while ((current = queued.message.get()) != null) {
+            if (queued.message.compareAndSet(current, message)) {
+                conflated.increment();
+                return true;
+            }
+        }
+        return false; // already taken by the publisher
+    }
+
+    private boolean offer(Entry entry) {
+        if (queue.offer(entry)) return true;
+
+        switch (settings.getOverflow()) {
+            case DROP_OLDEST -> {
+                for (int attempt = 0; attempt < DROP_OLDEST_ATTEMPTS; attempt++) {
+                    Entry oldest = queue.poll();
+                    if (oldest != null && take(oldest) != null) dropped.increment();
+                    if (queue.offer(entry)) return true;
+                }
+                return false;
+            }
+            case BLOCK -> {
+                long deadline = System.nanoTime() + settings.getBlockTimeout().toNanos();
+                while (!closed && System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    if (queue.offer(entry)) return true;
+                }
+                return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Publisher thread                                   */
+    /* -------------------------------------------------- */
+
+    private void run() {
+        RabbitMessage pending = null;
+        boolean fromSpool = false;
+        int attempts = 0;
+
+        while (true) {
+            if (pending == null) {
+                // Memory first: while spooling, it only holds messages older than the spool's
+                pending = poll();
+                fromSpool = false;
+                attempts = 0;
+                if (pending == null && spool != null) {
+                    pending = peekSpool();
+                    fromSpool = pending != null;
+                }
+            }
+            if (pending == null) {
+                if (closed) return;
+                idle();
+                continue;
+            }
+
+            if (!delegate.isConnected()) {
+                if (closed) return;
+                LockSupport.parkNanos(IDLE_PARK_NANOS); // flushed once the delegate reconnects
+                continue;
+            }
+
+            if (fromSpool) throttleReplay();
+
+            try {
+                delegate.publish(pending.routingKey(), pending.body(), pending.properties());
+                published.increment();
+                if (fromSpool) commitSpool();
+                pending = null;
+            } catch (RuntimeException e) {
+                publishFailures.increment();
+                if (delegate.isConnected() && ++attempts >= MAX_CONNECTED_ATTEMPTS) {
+                    LOGGER.log(System.Logger.Level.WARNING,
+                            "Dropping message to " + pending.routingKey() + " after " + attempts + " attempts", e);
+                    dropped.increment();
+                    if (fromSpool) commitSpool();
+                    pending = null;
+                } else {
+                    if (closed) return;
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the oldest spooled message, or null after leaving spooling mode
+     */
+    private RabbitMessage peekSpool() {
+        synchronized (spool) {
+            RabbitMessage message = spool.peek();
+            if (message == null) spooling = false;
+            return message;
+        }
+    }
+
+    private void commitSpool() {
+        synchronized (spool) {
+            spool.commit();
+        }
+    }
+
+    private void throttleReplay() {
+        int rate = settings.getSpool().getReplayRate();
+        if (rate == 0) return;
+
+        long now = System.nanoTime();
+        if (nextReplayNanos - now > 0) {
+            LockSupport.parkNanos(nextReplayNanos - now);
+            now = nextReplayNanos;
+        }
+        nextReplayNanos = Math.max(nextReplayNanos, now - 1_000_000_000L / rate) + 1_000_000_000L / rate;
+    }
+
+    private RabbitMessage poll() {
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            RabbitMessage message = take(entry);
+            if (message != null) return message;
+        }
+        return null;
+    }
+
+    private RabbitMessage take(Entry entry) {
+        if (entry.key != null) conflating.remove(entry.key, entry);
+        return entry.message.getAndSet(null);
+    }
+
+    private void idle() {
+        parked = true;
+        try {
+            if (queue.isEmpty() && !spooling && !closed) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        } finally {
+            parked = false;
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Delegation                                         */
+    /* -------------------------------------------------- */
+
+    @Override
+    public void connect() {
+        delegate.connect();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    @Override
+    public RabbitSubscription subscribe(String routingKey, DeliverCallback callback) {
+        return delegate.subscribe(routingKey, callback);
+    }
+
+    @Override
+    public RabbitSubscription subscribeOnOwnChannel(String routingKey, DeliverCallback callback) {
+        return delegate.subscribeOnOwnChannel(routingKey, callback);
+    }
+
+    @Override
+    public void unsubscribe(RabbitSubscription sub) {
+        delegate.unsubscribe(sub);
+    }
+
+    @Override
+    public void bind(RabbitSubscription sub, String routingKey) {
+        delegate.bind(sub, routingKey);
+    }
+
+    @Override
+    public void unbind(RabbitSubscription sub, String routingKey) {
+        delegate.unbind(sub, routingKey);
+    }
+
+    /**
+     * Publish what is still buffered (if connected, for up to 2 seconds), then close the delegate.
+     * Messages still spooled are kept on disk and replayed by the next service using the directory.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(publisher);
+        try {
+            publisher.join(CLOSE_FLUSH_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        publisher.interrupt();
+
+        int lost = queue.size();
+        if (lost > 0) {
+            LOGGER.log(System.Logger.Level.WARNING, lost + " buffered Rabbit messages were not published");
+        }
+        if (spool != null) {
+            synchronized (spool) {
+                spool.close();
+            }
+        }
+        delegate.close();
+    }
+
+    /* -------------------------------------------------- */
+    /* Metrics                                            */
+    /* -------------------------------------------------- */
+
+    /**
+     * Messages waiting to be published.
+     */
+    public int getDepth() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /**
+     * Messages lost to the overflow policy, to repeated publish failures, or published after close.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Messages replaced by a newer one with the same conflation key.
+     */
+    public long getConflated() {
+        return conflated.sum();
+    }
+
+    /**
+     * Failed delegate publishes (each retried, see {@link #getDropped()}).
+     */
+    public long getPublishFailures() {
+        return publishFailures.sum();
+    }
+
+    /**
+     * Messages written to the disk spool.
+     */
+    public long getSpooled() {
+        return spooled.sum();
+    }
+
+    /**
+     * Messages waiting in the disk spool (0 without a spool).
+     */
+    public long getSpoolDepth() {
+        if (spool == null) return 0;
+        synchronized (spool) {
+            return spool.size();
+        }
+    }
+
+    /**
+     * Spooled messages skipped on replay because they could not be decoded.
+     */
+    public long getSpoolSkipped() {
+        if (spool == null) return 0;
+        synchronized (spool) {
+            return spool.skipped();
+        }
+    }
+
+    public int getSpoolSegments() {
+        if (spool == null) return 0;
+        synchronized (spool) {
+            return spool.segmentCount();
+        }
+    }
+
+    public RabbitBuffering getSettings() {
+        return settings;
+    }
+
+    /**
+     * A queued message; emptied when published, dropped or conflated away.
+     */
+    private static final class Entry {
+        private final Object key;
+        private final AtomicReference<RabbitMessage> message;
+
+        Entry(Object key, RabbitMessage message) {
+            this.key = key;
+            this.message = new AtomicReference<>(message);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/DiskSpool.java
+package fr.oreostudios.oreoapi.rabbit;
+
+import com.rabbitmq.client.AMQP;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of {@link RabbitMessage}s over memory-mapped segment files.
+ *
+ * <pre>
+ * segment : [int MAGIC][int readOffset][long sequence] record* [int 0]
+ * record  : [int length][int crc32c(payload)][payload]
+ * payload : [short keyLength][key][int propertiesLength or -1][properties][body]
+ * </pre>
+ * Properties are stored whole (headers, content type, priority, app id...) in our own
+ * {@link SpoolProperties} format, so replayed messages carry all of them whatever the
+ * amqp-client version. A record whose properties cannot be decoded is skipped and counted.
+ * Every append is followed by a 0 terminator, so recycled segments need no zeroing.
+ * The reader persists its offset in the segment header, and segments are replayed
+ * in header sequence order, so a restarted process resumes where the previous one
+ * stopped. A record with a bad checksum (torn write) ends its segment.
+ * Not thread-safe: callers synchronize.
+ */
+final class DiskSpool implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(DiskSpool.class.getName());
+
+    private static final int MAGIC = 0x4F535033; // "OSP3"
+    private static final int HEADER_BYTES = 16;
+    private static final int READ_OFFSET_AT = 4;
+    private static final int SEQUENCE_AT = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String SUFFIX = ".spool";
+
+    private final RabbitSpooling settings;
+    /** Oldest first; the last one is being written. */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Deque<Segment> free = new ArrayDeque<>();
+    private final CRC32C crc = new CRC32C();
+    private final SpoolProperties propertyCodec = new SpoolProperties();
+
+    private long nextSequence;
+    private int nextFileId;
+    private long pending;
+    private long skipped;
+    private long lastForceNanos = System.nanoTime();
+    private boolean dirty;
+
+    DiskSpool(RabbitSpooling settings) {
+        this.settings = settings;
+        try {
+            Files.createDirectories(settings.getDirectory());
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open spool " + settings.getDirectory(), e);
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Write                                              */
+    /* -------------------------------------------------- */
+
+    /**
+     * Outcome of {@link #append}.
+     */
+    enum Append {
+        APPENDED,
+        /** The disk budget is exhausted until spooled messages are replayed. */
+        FULL,
+        /** The record can never fit in a segment. */
+        TOO_LARGE
+    }
+
+    Append append(RabbitMessage message) {
+        byte[] key = message.routingKey().getBytes(StandardCharsets.UTF_8);
+        byte[] properties = message.properties() != null ? propertyCodec.encode(message.properties()) : null;
+
+        int length = 2 + key.length + 4 + (properties != null ? properties.length : 0) + message.body().length;
+        int needed = RECORD_HEADER_BYTES + length + 4;
+        if (key.length > Short.MAX_VALUE || needed > settings.getSegmentBytes() - HEADER_BYTES) {
+            return Append.TOO_LARGE;
+        }
+
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.writePos + needed > segment.capacity()) {
+            segment = roll();
+            if (segment == null) return Append.FULL;
+        }
+
+        MappedByteBuffer buffer = segment.buffer;
+        int start = segment.writePos;
+        int payloadAt = start + RECORD_HEADER_BYTES;
+        buffer.position(payloadAt);
+        buffer.putShort((short) key.length).put(key);
+        if (properties != null) buffer.putInt(properties.length).put(properties);
+        else buffer.putInt(-1);
+        buffer.put(message.body());
+
+        crc.reset();
+        crc.update(buffer.slice(payloadAt, length));
+        buffer.putInt(start + RECORD_HEADER_BYTES + length, 0);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, length);
+
+        segment.writePos = start + RECORD_HEADER_BYTES + length;
+        pending++;
+        dirty = true;
+        maybeForce(segment, start);
+        return Append.APPENDED;
+    }
+
+    private void maybeForce(Segment segment, int from) {
+        switch (settings.getFsync()) {
+            case ALWAYS -> force(segment, from);
+            case INTERVAL -> {
+                long now = System.nanoTime();
+                if (now - lastForceNanos >= settings.getFsyncInterval().toNanos()) {
+                    force(segment, HEADER_BYTES);
+                    lastForceNanos = now;
+                }
+            }
+            case NEVER -> { }
+        }
+    }
+
+    private void force(Segment segment, int from) {
+        segment.buffer.force(from, segment.writePos + 4 - from);
+        dirty = false;
+    }
+
+    /**
+     * Start a new segment, reusing a drained one if possible.
+     */
+    private Segment roll() {
+        if (segments.size() >= settings.getMaxSegments()) return null;
+
+        Segment segment = free.pollFirst();
+        try {
+            if (segment == null) segment = Segment.create(newFile(), settings.getSegmentBytes());
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Cannot create spool segment", e);
+            return null;
+        }
+
+        Segment previous = segments.peekLast();
+        if (previous != null && settings.getFsync() != SpoolFsync.NEVER) force(previous, HEADER_BYTES);
+
+        segment.reset(nextSequence++);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private Path newFile() {
+        Path path;
+        do {
+            path = settings.getDirectory().resolve("segment-" + nextFileId++ + SUFFIX);
+        } while (Files.exists(path));
+        return path;
+    }
+
+    /* -------------------------------------------------- */
+    /* Read                                               */
+    /* -------------------------------------------------- */
+
+    /**
+     * @return the oldest message without consuming it, or null if the spool is empty
+     */
+    RabbitMessage peek() {
+        while (true) {
+            Segment segment = segments.peekFirst();
+            if (segment == null) return null;
+
+            int length = segment.recordLength(segment.readPos, crc);
+            if (length > 0) {
+                try {
+                    return segment.decode(segment.readPos, length);
+                } catch (IllegalArgumentException | BufferUnderflowException e) {
+                    // valid checksum but unreadable: replaying it would stall the spool forever
+                    LOGGER.log(System.Logger.Level.WARNING, "Skipping unreadable spooled message in " + segment.path, e);
+                    skipped++;
+                    commit();
+                    continue;
+                }
+            }
+
+            if (segment == segments.peekLast()) return null;
+            retire(segments.pollFirst()); // drained (or torn tail)
+        }
+    }
+
+    /**
+     * Consume the message returned by the last {@link #peek()}.
+     */
+    void commit() {
+        Segment segment = segments.peekFirst();
+        if (segment == null) return;
+
+        int length = segment.buffer.getInt(segment.readPos);
+        if (length <= 0) return;
+        segment.readPos += RECORD_HEADER_BYTES + length;
+        segment.buffer.putInt(READ_OFFSET_AT, segment.readPos);
+        pending--;
+
+        if (segment.readPos == segment.writePos && segment != segments.peekLast()) {
+            retire(segments.pollFirst());
+        }
+    }
+
+    private void retire(Segment segment) {
+        if (free.size() < settings.getRecycledSegments()) {
+            segment.reset(-1); // marks it drained if we restart before reusing it
+            free.addLast(segment);
+            return;
+        }
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Cannot delete spool segment " + segment.path, e);
+        }
+    }
+
+    boolean isEmpty() {
+        return pending == 0;
+    }
+
+    /**
+     * Messages waiting to be replayed.
+     */
+    long size() {
+        return pending;
+    }
+
+    /**
+     * Records skipped because they could not be decoded.
+     */
+    long skipped() {
+        return skipped;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        for (Segment segment : segments) {
+            if (dirty || settings.getFsync() != SpoolFsync.NEVER) segment.buffer.force();
+            segment.close();
+        }
+        for (Segment segment : free) {
+            segment.close();
+        }
+        segments.clear();
+        free.clear();
+    }
+
+    /* -------------------------------------------------- */
+    /* Recovery                                           */
+    /* -------------------------------------------------- */
+
+    private void load() throws IOException {
+        List<Segment> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(settings.getDirectory(), "*" + SUFFIX)) {
+            for (Path path : files) {
+                Segment segment = Segment.open(path);
+                if (segment == null) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Ignoring invalid spool segment " + path);
+                    continue;
+                }
+                found.add(segment);
+            }
+        }
+        found.sort(Comparator.comparingLong(Segment::sequence));
+
+        for (Segment segment : found) {
+            if (segment.sequence() < 0) {
+                free.addLast(segment);
+                continue;
+            }
+            nextSequence = Math.max(nextSequence, segment.sequence() + 1);
+
+            int pos = segment.readPos;
+            int length;
+            while ((length = segment.recordLength(pos, crc)) > 0) {
+                pos += RECORD_HEADER_BYTES + length;
+                pending++;
+            }
+            segment.writePos = pos;
+            segments.addLast(segment);
+        }
+
+        // Drained segments other than the last one are recycled right away
+        while (segments.size() > 1 && segments.peekFirst().readPos == segments.peekFirst().writePos) {
+            retire(segments.pollFirst());
+        }
+        if (pending > 0) {
+            LOGGER.log(System.Logger.Level.INFO, "Spool " + settings.getDirectory() + " holds " + pending + " messages to replay");
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Segment                                            */
+    /* -------------------------------------------------- */
+
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int readPos;
+        private int writePos;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        /**
+         * @return null if the file is not a segment
+         */
+        static Segment open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size < HEADER_BYTES + 4 || size > Integer.MAX_VALUE) {
+                channel.close();
+                return null;
+            }
+
+            Segment segment = new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            int readOffset = segment.buffer.getInt(READ_OFFSET_AT);
+            if (segment.buffer.getInt(0) != MAGIC || readOffset < HEADER_BYTES || readOffset > size - 4) {
+                segment.close();
+                return null;
+            }
+            segment.readPos = readOffset;
+            return segment;
+        }
+
+        void reset(long sequence) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(READ_OFFSET_AT, HEADER_BYTES);
+            buffer.putLong(SEQUENCE_AT, sequence);
+            buffer.putInt(HEADER_BYTES, 0);
+            readPos = HEADER_BYTES;
+            writePos = HEADER_BYTES;
+        }
+
+        long sequence() {
+            return buffer.getLong(SEQUENCE_AT);
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        /**
+         * @return length of the valid record at {@code pos}, or 0 if there is none
+         */
+        int recordLength(int pos, CRC32C crc) {
+            if (pos + RECORD_HEADER_BYTES > capacity()) return 0;
+
+            int length = buffer.getInt(pos);
+            if (length <= 0 || length > capacity() - pos - RECORD_HEADER_BYTES) return 0;
+
+            crc.reset();
+            crc.update(buffer.slice(pos + RECORD_HEADER_BYTES, length));
+            return (int) crc.getValue() == buffer.getInt(pos + 4) ? length : 0;
+        }
+
+        RabbitMessage decode(int pos, int length) {
+            ByteBuffer in = buffer.slice(pos + RECORD_HEADER_BYTES, length);
+
+            short keyLength = in.getShort();
+            if (keyLength < 0) throw new IllegalArgumentException("Corrupt spooled record");
+            byte[] key = new byte[keyLength];
+            in.get(key);
+            AMQP.BasicProperties properties = null;
+            int propertiesLength = in.getInt();
+            if (propertiesLength >= 0) {
+                if (propertiesLength > in.remaining()) throw new IllegalArgumentException("Corrupt spooled record");
+                properties = SpoolProperties.decode(in.slice(in.position(), propertiesLength));
+                in.position(in.position() + propertiesLength);
+            }
+            byte[] body = new byte[in.remaining()];
+            in.get(body);
+            return new RabbitMessage(new String(key, StandardCharsets.UTF_8), body, properties);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {}
+        }
+    }
+}
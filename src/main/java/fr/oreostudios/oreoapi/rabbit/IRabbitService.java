@@ -1,14 +1,61 @@
 // File: src/main/java/fr/oreostudios/oreoapi/rabbit/IRabbitService.java
 package fr.oreostudios.oreoapi.rabbit;
 
+import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.DeliverCallback;
+import fr.oreostudios.oreoapi.util.ByteBuffers;
+
+import java.nio.ByteBuffer;
 
 public interface IRabbitService {
     void connect();
     boolean isConnected();
     void publish(String routingKey, String json);
     void publish(String routingKey, byte[] data);
+
+    /** Publish the remaining bytes of {@code data}; the default copies them into a new array. */
+    default void publish(String routingKey, ByteBuffer data) {
+        publish(routingKey, ByteBuffers.copyOf(data));
+    }
+
+    /**
+     * Publish with message properties (app id, headers...); {@code properties} may be null.
+     *
+     * @throws UnsupportedOperationException by default when {@code properties} is not null
+     */
+    default void publish(String routingKey, byte[] data, AMQP.BasicProperties properties) {
+        if (properties != null) throw new UnsupportedOperationException("Message properties are not supported");
+        publish(routingKey, data);
+    }
+
     RabbitSubscription subscribe(String routingKey, DeliverCallback callback);
+
+    /**
+     * Same as {@link #subscribe(String, DeliverCallback)}, consuming on a channel of its own so
+     * its deliveries never wait behind those of other subscriptions. The default shares the channel.
+     */
+    default RabbitSubscription subscribeOnOwnChannel(String routingKey, DeliverCallback callback) {
+        return subscribe(routingKey, callback);
+    }
+
     void unsubscribe(RabbitSubscription sub);
+
+    /**
+     * Route messages published with {@code routingKey} to the queue of {@code sub} as well.
+     * Needed by type routing (see RabbitPacketSenderOptions#withTypeRouting).
+     *
+     * @throws UnsupportedOperationException by default
+     */
+    default void bind(RabbitSubscription sub, String routingKey) {
+        throw new UnsupportedOperationException("Extra bindings are not supported");
+    }
+
+    /**
+     * @throws UnsupportedOperationException by default
+     */
+    default void unbind(RabbitSubscription sub, String routingKey) {
+        throw new UnsupportedOperationException("Extra bindings are not supported");
+    }
+
     void close();
 }
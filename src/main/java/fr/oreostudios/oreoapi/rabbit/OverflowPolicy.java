@@ -0,0 +1,23 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/OverflowPolicy.java
+package fr.oreostudios.oreoapi.rabbit;
+
+/**
+ * What a {@link BufferedRabbitService} does with a message published while its buffer is full.
+ */
+public enum OverflowPolicy {
+
+    /** Wait up to the configured timeout for room, then drop the message. */
+    BLOCK,
+
+    /** Drop the oldest queued message to make room. */
+    DROP_OLDEST,
+
+    /** Drop the new message. */
+    DROP_NEWEST,
+
+    /**
+     * Replace the queued message with the same conflation key (see RabbitBuffering#withConflationKey);
+     * drop the new message if none is queued, or without a key.
+     */
+    CONFLATE
+}
@@ -0,0 +1,105 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/RabbitBuffering.java
+package fr.oreostudios.oreoapi.rabbit;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Immutable settings of a {@link BufferedRabbitService}.
+ */
+public final class RabbitBuffering {
+
+    public static final int DEFAULT_CAPACITY = 16_384;
+    public static final Duration DEFAULT_BLOCK_TIMEOUT = Duration.ofMillis(50);
+
+    private final int capacity;
+    private final OverflowPolicy overflow;
+    private final Duration blockTimeout;
+    private final Function<RabbitMessage, ?> conflationKey;
+    private final RabbitSpooling spool;
+
+    private RabbitBuffering(int capacity, OverflowPolicy overflow, Duration blockTimeout,
+                            Function<RabbitMessage, ?> conflationKey, RabbitSpooling spool) {
+        this.capacity = capacity;
+        this.overflow = overflow;
+        this.blockTimeout = blockTimeout;
+        this.conflationKey = conflationKey;
+        this.spool = spool;
+    }
+
+    /**
+     * Buffer up to {@code capacity} messages (rounded up to a power of two), dropping new ones when full.
+     */
+    public static RabbitBuffering capacity(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be >= 2");
+        return new RabbitBuffering(capacity, OverflowPolicy.DROP_NEWEST, DEFAULT_BLOCK_TIMEOUT, null, null);
+    }
+
+    public static RabbitBuffering defaults() {
+        return capacity(DEFAULT_CAPACITY);
+    }
+
+    public RabbitBuffering withOverflow(OverflowPolicy overflow) {
+        return new RabbitBuffering(capacity, Objects.requireNonNull(overflow, "overflow"), blockTimeout, conflationKey, spool);
+    }
+
+    /**
+     * How long {@link OverflowPolicy#BLOCK} waits for room before dropping.
+     */
+    public RabbitBuffering withBlockTimeout(Duration blockTimeout) {
+        Objects.requireNonNull(blockTimeout, "blockTimeout");
+        if (blockTimeout.isNegative()) throw new IllegalArgumentException("blockTimeout must be >= 0");
+        return new RabbitBuffering(capacity, overflow, blockTimeout, conflationKey, spool);
+    }
+
+    /**
+     * Key of {@link OverflowPolicy#CONFLATE}: when the buffer is full, a message replaces the queued
+     * one with the same key. Null (the default) never conflates, nor do messages it maps to null.
+     * Pick a key naming one piece of state (e.g. a player's position), not a routing key:
+     * every packet of a channel shares one.
+     */
+    public RabbitBuffering withConflationKey(Function<RabbitMessage, ?> conflationKey) {
+        return new RabbitBuffering(capacity, overflow, blockTimeout, conflationKey, spool);
+    }
+
+    /**
+     * Spool to disk while disconnected or past the spool's high-water mark; null disables it.
+     * The overflow policy then only applies once the spool itself is full.
+     */
+    public RabbitBuffering withSpool(RabbitSpooling spool) {
+        return new RabbitBuffering(capacity, overflow, blockTimeout, conflationKey, spool);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getOverflow() {
+        return overflow;
+    }
+
+    public Duration getBlockTimeout() {
+        return blockTimeout;
+    }
+
+    /**
+     * @return the conflation key, or null if nothing is conflated
+     */
+    public Function<RabbitMessage, ?> getConflationKey() {
+        return conflationKey;
+    }
+
+    /**
+     * @return the disk spool settings, or null if there is no spool
+     */
+    public RabbitSpooling getSpool() {
+        return spool;
+    }
+
+    @Override
+    public String toString() {
+        return "RabbitBuffering{capacity=" + capacity + ", overflow=" + overflow + ", blockTimeout=" + blockTimeout
+                + ", spool=" + spool + "}";
+    }
+}
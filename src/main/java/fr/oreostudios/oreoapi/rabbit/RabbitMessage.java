@@ -0,0 +1,12 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/RabbitMessage.java
+package fr.oreostudios.oreoapi.rabbit;
+
+import com.rabbitmq.client.AMQP;
+
+/**
+ * A message waiting in a {@link BufferedRabbitService}.
+ *
+ * @param properties may be null
+ */
+public record RabbitMessage(String routingKey, byte[] body, AMQP.BasicProperties properties) {
+}
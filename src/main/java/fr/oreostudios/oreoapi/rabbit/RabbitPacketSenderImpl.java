@@ -1,48 +1,269 @@
 // File: rabbit/RabbitPacketSenderImpl.java
 package fr.oreostudios.oreoapi.rabbit;
 
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.DeliverCallback;
 import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
 import fr.oreostudios.oreoapi.bus.event.IncomingPacketListener;
 import fr.oreostudios.oreoapi.bus.event.PacketSender;
+import fr.oreostudios.oreoapi.bus.namespace.PacketDefinition;
+import fr.oreostudios.oreoapi.bus.namespace.PacketPriority;
+import fr.oreostudios.oreoapi.util.ByteBuffers;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Packet transport over the Rabbit exchange: channel {@code ch} maps to routing key {@code oreo.bus.<ch>}.
+ *
+ * With type routing, single-type messages are published to {@code oreo.bus.<ch>.<ns>.<id>}
+ * instead, and each node binds only the keys of the packet types it subscribes to, so the
+ * broker drops the rest. Mixed batches and RPC replies still use the plain channel key,
+ * which every node keeps bound. All nodes on a channel must agree on the mode: plain
+ * nodes do not receive routed messages.
+ *
+ * With priority lanes, each channel name gets one queue per priority, consumed on a Rabbit
+ * channel of its own: NORMAL keeps {@code oreo.bus.<ch>}, the others use
+ * {@code oreo.bus.<ch>~critical} and {@code oreo.bus.<ch>~bulk}. A flood of BULK messages
+ * then only backs up its own queue and consumer, never the CRITICAL one. Routed type keys
+ * are bound on the queue of the type's priority.
+ *
+ * With a host id, messages carry it as their app id. Sent through CoLocatedPacketSender
+ * (fr.oreostudios.oreoapi.mesh), they also list the nodes of the host that already got them over
+ * the local transport, and a node of the host drops a delivery only if it is listed.
+ */
 public final class RabbitPacketSenderImpl implements PacketSender {
 
+    private static final String PREFIX = "oreo.bus.";
+    /** Header listing the local addresses of the nodes of the sending host that already have the message. */
+    private static final String DELIVERED_LOCALLY_HEADER = "oreo-local";
+
     private final IRabbitService rabbit;
+    private final boolean typeRouting;
+    private final String hostId;
+    /** Queues per channel name: one per priority level with priority lanes, otherwise one. */
+    private final int lanes;
+    /** App id properties, or null to publish without properties. */
+    private final AMQP.BasicProperties properties;
     private final Set<IncomingPacketListener> listeners = new HashSet<>();
+    /** Address of this node on the host's local transport, or null. */
+    private volatile String localAddress;
+
+    /** Every queue consumed by this sender; guarded by {@code this}. */
+    private final List<RabbitSubscription> subscriptions = new ArrayList<>();
+    /** Concrete channel name -> queue of each lane (type routing only). */
+    private final Map<String, RabbitSubscription[]> queues = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+    /** "<ns>.<id>" suffix -> lane it is currently bound on, on every channel name. */
+    private Map<String, Integer> boundTypes = Map.of();
 
     public RabbitPacketSenderImpl(IRabbitService rabbit) {
+        this(rabbit, RabbitPacketSenderOptions.DEFAULT);
+    }
+
+    public RabbitPacketSenderImpl(IRabbitService rabbit, boolean typeRouting) {
+        this(rabbit, RabbitPacketSenderOptions.DEFAULT.withTypeRouting(typeRouting));
+    }
+
+    public RabbitPacketSenderImpl(IRabbitService rabbit, RabbitPacketSenderOptions options) {
         this.rabbit = rabbit;
+        this.typeRouting = options.isTypeRouting();
+        this.hostId = options.getHostId();
+        this.lanes = options.isPriorityLanes() ? PacketPriority.MAX_LEVEL + 1 : 1;
+        this.properties = hostId != null ? new AMQP.BasicProperties.Builder().appId(hostId).build() : null;
     }
 
     @Override
-    public void registerChannel(PacketChannel channel) {
+    public synchronized void registerChannel(PacketChannel channel) {
+        if (closed) throw new IllegalStateException("RabbitPacketSenderImpl closed");
+        DeliverCallback callback = (tag, msg) -> {
+            if (closed) return; // delivery raced with close()
+            if (isDeliveredLocally(msg.getProperties())) {
+                return; // already received over the host's local transport
+            }
+            deliver(channel, msg.getBody());
+        };
+
         for (String ch : channel) {
-            rabbit.subscribe("oreo.bus." + ch, (tag, msg) -> {
-                byte[] data = msg.getBody();
-                for (IncomingPacketListener l : listeners) {
-                    l.onReceive(channel, data);
+            RabbitSubscription[] laneQueues = new RabbitSubscription[lanes];
+            for (int lane = 0; lane < lanes; lane++) {
+                laneQueues[lane] = lanes == 1
+                        ? rabbit.subscribe(channelKey(ch, lane), callback)
+                        : rabbit.subscribeOnOwnChannel(channelKey(ch, lane), callback);
+                subscriptions.add(laneQueues[lane]);
+            }
+
+            if (typeRouting) {
+                queues.put(ch, laneQueues);
+                for (Map.Entry<String, Integer> type : boundTypes.entrySet()) {
+                    rabbit.bind(laneQueues[type.getValue()], PREFIX + ch + "." + type.getKey());
                 }
-            });
+            }
+        }
+    }
+
+    private int lane(PacketPriority priority) {
+        return lanes == 1 ? 0 : priority.level();
+    }
+
+    /**
+     * @return the plain routing key of channel name {@code ch} for {@code lane}
+     */
+    private String channelKey(String ch, int lane) {
+        if (lanes == 1 || lane == PacketPriority.NORMAL.level()) return PREFIX + ch;
+        return PREFIX + ch + "~" + PacketPriority.values()[lane].name().toLowerCase(Locale.ROOT);
+    }
+
+    private boolean isDeliveredLocally(AMQP.BasicProperties props) {
+        String address = localAddress;
+        if (address == null || props == null || props.getHeaders() == null || !hostId.equals(props.getAppId())) {
+            return false;
+        }
+        if (!(props.getHeaders().get(DELIVERED_LOCALLY_HEADER) instanceof List<?> nodes)) return false;
+        for (Object node : nodes) {
+            if (address.equals(node.toString())) return true; // LongString
+        }
+        return false;
+    }
+
+    /**
+     * Set by CoLocatedPacketSender: deliveries from this host listing {@code address} are dropped.
+     *
+     * @throws IllegalStateException without a host id (see RabbitPacketSenderOptions#withHostId)
+     */
+    public void setLocalAddress(String address) {
+        if (hostId == null) throw new IllegalStateException("A local transport needs a host id");
+        this.localAddress = address;
+    }
+
+    private void deliver(PacketChannel channel, byte[] data) {
+        for (IncomingPacketListener l : listeners) {
+            l.onReceive(channel, data);
         }
     }
 
     @Override
     public void sendPacket(PacketChannel channel, byte[] content) {
+        if (properties != null) {
+            sendPacket(channel, ByteBuffer.wrap(content), PacketPriority.NORMAL);
+            return;
+        }
         for (String ch : channel) {
-            rabbit.publish("oreo.bus." + ch, content);
+            rabbit.publish(PREFIX + ch, content);
         }
     }
 
+    @Override
+    public void sendPacket(PacketChannel channel, ByteBuffer content) {
+        sendPacket(channel, content, PacketPriority.NORMAL);
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, ByteBuffer content, PacketPriority priority) {
+        send(channel, null, priority, content, Map.of());
+    }
+
+    /**
+     * Send for CoLocatedPacketSender: the message of each channel name lists the nodes of this
+     * host that already got it over the local transport, which drop it.
+     *
+     * @param definition       type of every packet in {@code content}, or null if they may differ
+     * @param deliveredLocally channel name -> local addresses of the nodes of this host that have it
+     */
+    public void sendPacket(PacketChannel channel, PacketDefinition<?> definition, PacketPriority priority,
+                           ByteBuffer content, Map<String, List<String>> deliveredLocally) {
+        send(channel, definition, priority, content, deliveredLocally);
+    }
+
+    private void send(PacketChannel channel, PacketDefinition<?> definition, PacketPriority priority,
+                      ByteBuffer content, Map<String, List<String>> deliveredLocally) {
+        String type = typeRouting && definition != null ? typeKey(definition) : null;
+        // copied once, shared by every channel name: the service may keep it
+        byte[] body = ByteBuffers.copyOf(content);
+        for (String ch : channel) {
+            String routingKey = type != null ? PREFIX + ch + "." + type : channelKey(ch, lane(priority));
+            publish(routingKey, body, propertiesFor(deliveredLocally.get(ch)));
+        }
+    }
+
+    private AMQP.BasicProperties propertiesFor(List<String> deliveredLocally) {
+        if (properties == null || deliveredLocally == null || deliveredLocally.isEmpty()) return properties;
+        return properties.builder().headers(Map.of(DELIVERED_LOCALLY_HEADER, List.copyOf(deliveredLocally))).build();
+    }
+
+    private void publish(String routingKey, byte[] body, AMQP.BasicProperties props) {
+        if (props == null) {
+            rabbit.publish(routingKey, body);
+        } else {
+            rabbit.publish(routingKey, body, props);
+        }
+    }
+
+    @Override
+    public boolean routesByPacketType() {
+        return typeRouting;
+    }
+
+    @Override
+    public void sendPacket(PacketChannel channel, PacketDefinition<?> definition, ByteBuffer content) {
+        send(channel, definition, definition != null ? definition.getPriority() : PacketPriority.NORMAL, content, Map.of());
+    }
+
+    @Override
+    public synchronized void updateInterest(Collection<PacketDefinition<?>> definitions) {
+        if (!typeRouting) return;
+
+        Map<String, Integer> wanted = new HashMap<>();
+        for (PacketDefinition<?> definition : definitions) {
+            wanted.put(typeKey(definition), lane(definition.getPriority()));
+        }
+
+        for (Map.Entry<String, RabbitSubscription[]> entry : queues.entrySet()) {
+            String base = PREFIX + entry.getKey() + ".";
+            RabbitSubscription[] laneQueues = entry.getValue();
+            for (Map.Entry<String, Integer> type : boundTypes.entrySet()) {
+                if (!type.getValue().equals(wanted.get(type.getKey()))) {
+                    rabbit.unbind(laneQueues[type.getValue()], base + type.getKey());
+                }
+            }
+            for (Map.Entry<String, Integer> type : wanted.entrySet()) {
+                if (!type.getValue().equals(boundTypes.get(type.getKey()))) {
+                    rabbit.bind(laneQueues[type.getValue()], base + type.getKey());
+                }
+            }
+        }
+        boundTypes = Map.copyOf(wanted);
+    }
+
+    private static String typeKey(PacketDefinition<?> definition) {
+        return definition.getNamespace().getNamespaceId() + "." + definition.getRegistryId();
+    }
+
     @Override
     public void registerListener(IncomingPacketListener listener) {
         listeners.add(listener);
     }
 
+    /**
+     * Unsubscribe every queue of this sender; deliveries still in flight are dropped.
+     */
     @Override
-    public void close() {
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        for (RabbitSubscription sub : subscriptions) {
+            rabbit.unsubscribe(sub);
+        }
+        subscriptions.clear();
         listeners.clear();
+        queues.clear();
     }
 }
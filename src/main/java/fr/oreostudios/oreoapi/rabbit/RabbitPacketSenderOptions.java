@@ -0,0 +1,67 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/RabbitPacketSenderOptions.java
+package fr.oreostudios.oreoapi.rabbit;
+
+/**
+ * Immutable settings of a {@link RabbitPacketSenderImpl}. Type routing and priority lanes
+ * change what goes on the wire, so every node sharing the exchange must use the same ones.
+ */
+public final class RabbitPacketSenderOptions {
+
+    public static final RabbitPacketSenderOptions DEFAULT = new RabbitPacketSenderOptions(false, false, null);
+
+    private final boolean typeRouting;
+    private final boolean priorityLanes;
+    private final String hostId;
+
+    private RabbitPacketSenderOptions(boolean typeRouting, boolean priorityLanes, String hostId) {
+        this.typeRouting = typeRouting;
+        this.priorityLanes = priorityLanes;
+        this.hostId = hostId;
+    }
+
+    /**
+     * Publish each packet type under its own routing key and bind only the types
+     * this node subscribes to, so the broker drops the rest.
+     */
+    public RabbitPacketSenderOptions withTypeRouting(boolean typeRouting) {
+        return new RabbitPacketSenderOptions(typeRouting, priorityLanes, hostId);
+    }
+
+    /**
+     * Publish each packet priority to its own queue per channel name, consumed on its own
+     * Rabbit channel, so bulk traffic never delays critical packets
+     * (see fr.oreostudios.oreoapi.bus.namespace.PacketPriority).
+     */
+    public RabbitPacketSenderOptions withPriorityLanes(boolean priorityLanes) {
+        return new RabbitPacketSenderOptions(typeRouting, priorityLanes, hostId);
+    }
+
+    /**
+     * Stamp published messages with {@code hostId} (as AMQP app id), for nodes of one host that
+     * also exchange packets over a local transport (see fr.oreostudios.oreoapi.mesh.CoLocatedPacketSender).
+     * Once that transport set this node's address (RabbitPacketSenderImpl#setLocalAddress), a delivery
+     * with this id is dropped only if its header lists that address, the mesh having delivered it already.
+     * Null to disable.
+     */
+    public RabbitPacketSenderOptions withHostId(String hostId) {
+        return new RabbitPacketSenderOptions(typeRouting, priorityLanes, hostId);
+    }
+
+    public boolean isTypeRouting() {
+        return typeRouting;
+    }
+
+    public boolean isPriorityLanes() {
+        return priorityLanes;
+    }
+
+    public String getHostId() {
+        return hostId;
+    }
+
+    @Override
+    public String toString() {
+        return "RabbitPacketSenderOptions{typeRouting=" + typeRouting + ", priorityLanes=" + priorityLanes
+                + ", hostId=" + hostId + "}";
+    }
+}
@@ -2,18 +2,30 @@
 package fr.oreostudios.oreoapi.rabbit;
 
 import com.rabbitmq.client.*;
+import fr.oreostudios.oreoapi.util.ByteBuffers;
 import fr.oreostudios.oreoapi.util.NamedThreadFactory;
 import fr.oreostudios.oreoapi.util.Retry;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Subscriptions and their extra bindings are recorded, and declared again on a new
+ * queue after a reconnect; bindings changed while disconnected are applied then.
+ * Subscriptions made with {@link #subscribeOnOwnChannel} get a channel each, so the
+ * client dispatches their deliveries independently of the shared channel's.
+ */
 public final class RabbitService implements IRabbitService {
 
     private final String uri;
@@ -32,6 +44,9 @@ public final class RabbitService implements IRabbitService {
     private volatile boolean closing = false;
     private int reconnectAttempt = 0;
 
+    /** Handle returned to the caller -> current queue and consumer; guarded by {@code this}. */
+    private final Map<RabbitSubscription, ActiveSubscription> subscriptions = new LinkedHashMap<>();
+
     public RabbitService(String uri, String exchange, String exchangeType, String clientName, int prefetch) {
         this.uri = Objects.requireNonNull(uri, "uri");
         this.exchange = Objects.requireNonNull(exchange, "exchange");
@@ -69,6 +84,9 @@ public final class RabbitService implements IRabbitService {
 
             this.channel.basicQos(prefetch);
             this.channel.exchangeDeclare(exchange, exchangeType, true);
+            for (ActiveSubscription sub : subscriptions.values()) {
+                consume(sub);
+            }
 
             connected.set(true);
             reconnectAttempt = 0;
@@ -102,6 +120,11 @@ public final class RabbitService implements IRabbitService {
 
     @Override
     public synchronized void publish(String routingKey, byte[] data) {
+        publish(routingKey, data, null);
+    }
+
+    @Override
+    public synchronized void publish(String routingKey, byte[] data, AMQP.BasicProperties properties) {
         Objects.requireNonNull(routingKey, "routingKey");
         Objects.requireNonNull(data, "data");
 
@@ -110,38 +133,126 @@ public final class RabbitService implements IRabbitService {
         }
 
         try {
-            channel.basicPublish(exchange, routingKey, null, data);
+            channel.basicPublish(exchange, routingKey, properties, data);
         } catch (IOException e) {
             throw new RuntimeException("Failed to publish to RabbitMQ", e);
         }
     }
 
+    /**
+     * The amqp-client only accepts exact-size body arrays, so pooled buffers are
+     * materialized here, once, right before framing. Buffers wrapping a whole
+     * array are passed through without copying.
+     */
+    @Override
+    public synchronized void publish(String routingKey, ByteBuffer data) {
+        Objects.requireNonNull(data, "data");
+        publish(routingKey, ByteBuffers.toExactArray(data));
+    }
+
+    @Override
+    public RabbitSubscription subscribe(String routingKey, DeliverCallback callback) {
+        return subscribe(routingKey, callback, false);
+    }
+
     @Override
-    public synchronized RabbitSubscription subscribe(String routingKey, DeliverCallback callback) {
+    public RabbitSubscription subscribeOnOwnChannel(String routingKey, DeliverCallback callback) {
+        return subscribe(routingKey, callback, true);
+    }
+
+    private synchronized RabbitSubscription subscribe(String routingKey, DeliverCallback callback, boolean ownChannel) {
         if (!connected.get() || channel == null) {
             throw new IllegalStateException("RabbitService not connected.");
         }
         Objects.requireNonNull(routingKey, "routingKey");
         Objects.requireNonNull(callback, "callback");
 
+        ActiveSubscription active = new ActiveSubscription(routingKey, callback, ownChannel);
         try {
-            String queue = channel.queueDeclare("", false, true, true, Map.of()).getQueue();
-            channel.queueBind(queue, exchange, routingKey);
-
-            CancelCallback cancel = consumerTag -> { /* no-op */ };
-            String tag = channel.basicConsume(queue, true, callback, cancel);
-            return new RabbitSubscription(queue, tag);
+            consume(active);
         } catch (IOException e) {
             throw new RuntimeException("Failed to subscribe to RabbitMQ", e);
         }
+        RabbitSubscription sub = new RabbitSubscription(active.queue, active.consumerTag);
+        subscriptions.put(sub, active);
+        return sub;
+    }
+
+    /**
+     * Declare a new queue for {@code sub} on the current channel (or a new one of its own),
+     * bind it and start consuming.
+     */
+    private void consume(ActiveSubscription sub) throws IOException {
+        Channel ch = sub.ownChannel ? newOwnChannel() : channel;
+        sub.channel = ch;
+        String queue = ch.queueDeclare("", false, true, true, Map.of()).getQueue();
+        ch.queueBind(queue, exchange, sub.routingKey);
+        for (String key : sub.bindings) {
+            ch.queueBind(queue, exchange, key);
+        }
+
+        CancelCallback cancel = consumerTag -> { /* no-op */ };
+        sub.consumerTag = ch.basicConsume(queue, true, sub.callback, cancel);
+        sub.queue = queue;
+    }
+
+    private Channel newOwnChannel() throws IOException {
+        Channel ch = connection.createChannel();
+        ch.addShutdownListener(cause -> {
+            // connection failures are handled by the connection listener, unsubscribe closes it on purpose
+            if (!closing && !cause.isHardError() && !cause.isInitiatedByApplication()) {
+                scheduleReconnect("channel shutdown: " + cause);
+            }
+        });
+        ch.basicQos(prefetch);
+        return ch;
     }
 
     @Override
     public synchronized void unsubscribe(RabbitSubscription sub) {
         if (sub == null) return;
+        ActiveSubscription active = subscriptions.remove(sub);
+        String tag = active != null ? active.consumerTag : sub.consumerTag();
+        Channel ch = active != null ? active.channel : channel;
         try {
-            if (channel != null && channel.isOpen()) {
-                channel.basicCancel(sub.consumerTag());
+            if (ch != null && ch.isOpen()) {
+                if (active != null && active.ownChannel) {
+                    ch.close();
+                } else {
+                    ch.basicCancel(tag);
+                }
+            }
+        } catch (IOException | TimeoutException ignored) {}
+    }
+
+    /**
+     * Recorded and applied right away if connected, otherwise on reconnect.
+     */
+    @Override
+    public synchronized void bind(RabbitSubscription sub, String routingKey) {
+        Objects.requireNonNull(sub, "sub");
+        Objects.requireNonNull(routingKey, "routingKey");
+
+        ActiveSubscription active = subscriptions.get(sub);
+        if (active == null) throw new IllegalArgumentException("Unknown subscription " + sub);
+        if (!active.bindings.add(routingKey)) return;
+        if (!connected.get() || channel == null) return;
+
+        try {
+            active.channel.queueBind(active.queue, exchange, routingKey);
+        } catch (IOException ignored) {
+            // the channel is closed by the failure; the binding is restored on reconnect
+        }
+    }
+
+    @Override
+    public synchronized void unbind(RabbitSubscription sub, String routingKey) {
+        if (sub == null || routingKey == null) return;
+        ActiveSubscription active = subscriptions.get(sub);
+        if (active == null || !active.bindings.remove(routingKey)) return;
+        try {
+            if (connected.get() && active.channel != null && active.channel.isOpen()) {
+                active.channel.queueUnbind(active.queue, exchange, routingKey);
             }
         } catch (IOException ignored) {}
     }
@@ -154,6 +265,23 @@ public final class RabbitService implements IRabbitService {
         safeCloseInternal();
     }
 
+    private static final class ActiveSubscription {
+        final String routingKey;
+        final DeliverCallback callback;
+        final boolean ownChannel;
+        final Set<String> bindings = new LinkedHashSet<>();
+        /** Channel the queue is consumed on: the shared one, or its own. */
+        Channel channel;
+        String queue;
+        String consumerTag;
+
+        ActiveSubscription(String routingKey, DeliverCallback callback, boolean ownChannel) {
+            this.routingKey = routingKey;
+            this.callback = callback;
+            this.ownChannel = ownChannel;
+        }
+    }
+
     private synchronized void safeCloseInternal() {
         try { if (channel != null) channel.close(); } catch (Exception ignored) {}
         try { if (connection != null) connection.close(); } catch (Exception ignored) {}
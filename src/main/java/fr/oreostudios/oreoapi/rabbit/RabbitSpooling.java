@@ -0,0 +1,148 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/RabbitSpooling.java
+package fr.oreostudios.oreoapi.rabbit;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Immutable settings of the disk spool of a {@link BufferedRabbitService}
+ * (see {@link RabbitBuffering#withSpool(RabbitSpooling)}).
+ *
+ * Messages are spooled while the broker is unreachable or once {@link #getHighWaterMark()}
+ * messages wait in memory, and replayed in order afterwards. The spool is a directory of
+ * fixed-size memory-mapped segment files; at most {@link #getMaxSegments()} exist at once,
+ * and up to {@link #getRecycledSegments()} drained ones are kept for reuse instead of
+ * being deleted. Messages are spooled with all their properties.
+ */
+public final class RabbitSpooling {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 32 * 1024 * 1024;
+    public static final int DEFAULT_MAX_SEGMENTS = 32;
+    public static final int DEFAULT_RECYCLED_SEGMENTS = 2;
+    public static final int DEFAULT_HIGH_WATER_MARK = 8_192;
+    public static final Duration DEFAULT_FSYNC_INTERVAL = Duration.ofSeconds(1);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final int recycledSegments;
+    private final int highWaterMark;
+    private final SpoolFsync fsync;
+    private final Duration fsyncInterval;
+    private final int replayRate;
+
+    private RabbitSpooling(Path directory, int segmentBytes, int maxSegments, int recycledSegments,
+                           int highWaterMark, SpoolFsync fsync, Duration fsyncInterval, int replayRate) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.recycledSegments = recycledSegments;
+        this.highWaterMark = highWaterMark;
+        this.fsync = fsync;
+        this.fsyncInterval = fsyncInterval;
+        this.replayRate = replayRate;
+    }
+
+    /**
+     * Spool into {@code directory} (created if missing). Only one service may use a directory at a time.
+     */
+    public static RabbitSpooling directory(Path directory) {
+        return new RabbitSpooling(Objects.requireNonNull(directory, "directory"), DEFAULT_SEGMENT_BYTES,
+                DEFAULT_MAX_SEGMENTS, DEFAULT_RECYCLED_SEGMENTS, DEFAULT_HIGH_WATER_MARK,
+                SpoolFsync.INTERVAL, DEFAULT_FSYNC_INTERVAL, 0);
+    }
+
+    public RabbitSpooling withSegmentBytes(int segmentBytes) {
+        if (segmentBytes < 64 * 1024) throw new IllegalArgumentException("segmentBytes must be >= 64 KiB");
+        return new RabbitSpooling(directory, segmentBytes, maxSegments, recycledSegments,
+                highWaterMark, fsync, fsyncInterval, replayRate);
+    }
+
+    /**
+     * Disk budget in segments. Once it is used up, new messages wait for the spool to drain
+     * ({@link OverflowPolicy#BLOCK}, up to its timeout) or are dropped: they never overtake
+     * spooled ones through the in-memory buffer.
+     */
+    public RabbitSpooling withMaxSegments(int maxSegments) {
+        if (maxSegments < 2) throw new IllegalArgumentException("maxSegments must be >= 2");
+        return new RabbitSpooling(directory, segmentBytes, maxSegments, recycledSegments,
+                highWaterMark, fsync, fsyncInterval, replayRate);
+    }
+
+    public RabbitSpooling withRecycledSegments(int recycledSegments) {
+        if (recycledSegments < 0) throw new IllegalArgumentException("recycledSegments must be >= 0");
+        return new RabbitSpooling(directory, segmentBytes, maxSegments, recycledSegments,
+                highWaterMark, fsync, fsyncInterval, replayRate);
+    }
+
+    /**
+     * Start spooling once this many messages wait in memory, even while connected.
+     */
+    public RabbitSpooling withHighWaterMark(int highWaterMark) {
+        if (highWaterMark < 1) throw new IllegalArgumentException("highWaterMark must be >= 1");
+        return new RabbitSpooling(directory, segmentBytes, maxSegments, recycledSegments,
+                highWaterMark, fsync, fsyncInterval, replayRate);
+    }
+
+    public RabbitSpooling withFsync(SpoolFsync fsync) {
+        return new RabbitSpooling(directory, segmentBytes, maxSegments, recycledSegments,
+                highWaterMark, Objects.requireNonNull(fsync, "fsync"), fsyncInterval, replayRate);
+    }
+
+    public RabbitSpooling withFsyncInterval(Duration fsyncInterval) {
+        Objects.requireNonNull(fsyncInterval, "fsyncInterval");
+        if (fsyncInterval.isNegative()) throw new IllegalArgumentException("fsyncInterval must be >= 0");
+        return new RabbitSpooling(directory, segmentBytes, maxSegments, recycledSegments,
+                highWaterMark, fsync, fsyncInterval, replayRate);
+    }
+
+    /**
+     * Replay at most {@code messagesPerSecond} spooled messages per second (0 = as fast as possible),
+     * so a large backlog does not flood the broker right after it comes back.
+     */
+    public RabbitSpooling withReplayRate(int messagesPerSecond) {
+        if (messagesPerSecond < 0) throw new IllegalArgumentException("messagesPerSecond must be >= 0");
+        return new RabbitSpooling(directory, segmentBytes, maxSegments, recycledSegments,
+                highWaterMark, fsync, fsyncInterval, messagesPerSecond);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public int getRecycledSegments() {
+        return recycledSegments;
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public SpoolFsync getFsync() {
+        return fsync;
+    }
+
+    public Duration getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    public int getReplayRate() {
+        return replayRate;
+    }
+
+    @Override
+    public String toString() {
+        return "RabbitSpooling{directory=" + directory + ", segmentBytes=" + segmentBytes
+                + ", maxSegments=" + maxSegments + ", highWaterMark=" + highWaterMark
+                + ", fsync=" + fsync + ", replayRate=" + replayRate + "}";
+    }
+}
@@ -0,0 +1,18 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/SpoolFsync.java
+package fr.oreostudios.oreoapi.rabbit;
+
+/**
+ * When spooled messages are forced from the page cache to disk. Without a force they
+ * survive a crash of the process, but not of the machine.
+ */
+public enum SpoolFsync {
+
+    /** Leave it to the OS. */
+    NEVER,
+
+    /** At most once per configured interval, on append. */
+    INTERVAL,
+
+    /** After every message (slowest). */
+    ALWAYS
+}
@@ -0,0 +1,280 @@
+// File: src/main/java/fr/oreostudios/oreoapi/rabbit/SpoolProperties.java
+package fr.oreostudios.oreoapi.rabbit;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.LongString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spool encoding of {@link AMQP.BasicProperties}, built on the public builder and getters only,
+ * so spooled messages stay readable across amqp-client versions:
+ * <pre>
+ * [byte VERSION][int presentFields] field*
+ * </pre>
+ * Fields follow in bit order; strings are [int length][UTF-8], header tables and values are tagged.
+ * Long strings come back as String, and header values of other types as their toString().
+ * Not thread-safe: callers synchronize.
+ */
+final class SpoolProperties {
+
+    private static final byte VERSION = 1;
+
+    private static final int CONTENT_TYPE = 1;
+    private static final int CONTENT_ENCODING = 1 << 1;
+    private static final int HEADERS = 1 << 2;
+    private static final int DELIVERY_MODE = 1 << 3;
+    private static final int PRIORITY = 1 << 4;
+    private static final int CORRELATION_ID = 1 << 5;
+    private static final int REPLY_TO = 1 << 6;
+    private static final int EXPIRATION = 1 << 7;
+    private static final int MESSAGE_ID = 1 << 8;
+    private static final int TIMESTAMP = 1 << 9;
+    private static final int TYPE = 1 << 10;
+    private static final int USER_ID = 1 << 11;
+    private static final int APP_ID = 1 << 12;
+    private static final int CLUSTER_ID = 1 << 13;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte DECIMAL = 9;
+    private static final byte DATE = 10;
+    private static final byte BYTES = 11;
+    private static final byte LIST = 12;
+    private static final byte TABLE = 13;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    byte[] encode(AMQP.BasicProperties properties) {
+        bytes.reset();
+        try {
+            int present = (properties.getContentType() != null ? CONTENT_TYPE : 0)
+                    | (properties.getContentEncoding() != null ? CONTENT_ENCODING : 0)
+                    | (properties.getHeaders() != null ? HEADERS : 0)
+                    | (properties.getDeliveryMode() != null ? DELIVERY_MODE : 0)
+                    | (properties.getPriority() != null ? PRIORITY : 0)
+                    | (properties.getCorrelationId() != null ? CORRELATION_ID : 0)
+                    | (properties.getReplyTo() != null ? REPLY_TO : 0)
+                    | (properties.getExpiration() != null ? EXPIRATION : 0)
+                    | (properties.getMessageId() != null ? MESSAGE_ID : 0)
+                    | (properties.getTimestamp() != null ? TIMESTAMP : 0)
+                    | (properties.getType() != null ? TYPE : 0)
+                    | (properties.getUserId() != null ? USER_ID : 0)
+                    | (properties.getAppId() != null ? APP_ID : 0)
+                    | (properties.getClusterId() != null ? CLUSTER_ID : 0);
+            out.writeByte(VERSION);
+            out.writeInt(present);
+
+            if (properties.getContentType() != null) writeString(properties.getContentType());
+            if (properties.getContentEncoding() != null) writeString(properties.getContentEncoding());
+            if (properties.getHeaders() != null) writeTable(properties.getHeaders());
+            if (properties.getDeliveryMode() != null) out.writeInt(properties.getDeliveryMode());
+            if (properties.getPriority() != null) out.writeInt(properties.getPriority());
+            if (properties.getCorrelationId() != null) writeString(properties.getCorrelationId());
+            if (properties.getReplyTo() != null) writeString(properties.getReplyTo());
+            if (properties.getExpiration() != null) writeString(properties.getExpiration());
+            if (properties.getMessageId() != null) writeString(properties.getMessageId());
+            if (properties.getTimestamp() != null) out.writeLong(properties.getTimestamp().getTime());
+            if (properties.getType() != null) writeString(properties.getType());
+            if (properties.getUserId() != null) writeString(properties.getUserId());
+            if (properties.getAppId() != null) writeString(properties.getAppId());
+            if (properties.getClusterId() != null) writeString(properties.getClusterId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeString(String value) throws IOException {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private void writeTable(Map<String, Object> table) throws IOException {
+        out.writeInt(table.size());
+        for (Map.Entry<String, Object> entry : table.entrySet()) {
+            writeString(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeValue(Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(NULL);
+            case String s -> {
+                out.writeByte(STRING);
+                writeString(s);
+            }
+            case LongString s -> {
+                out.writeByte(STRING);
+                writeBytes(s.getBytes());
+            }
+            case Boolean b -> {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(b);
+            }
+            case Byte b -> {
+                out.writeByte(BYTE);
+                out.writeByte(b);
+            }
+            case Short s -> {
+                out.writeByte(SHORT);
+                out.writeShort(s);
+            }
+            case Integer i -> {
+                out.writeByte(INT);
+                out.writeInt(i);
+            }
+            case Long l -> {
+                out.writeByte(LONG);
+                out.writeLong(l);
+            }
+            case Float f -> {
+                out.writeByte(FLOAT);
+                out.writeFloat(f);
+            }
+            case Double d -> {
+                out.writeByte(DOUBLE);
+                out.writeDouble(d);
+            }
+            case BigDecimal d -> {
+                out.writeByte(DECIMAL);
+                out.writeInt(d.scale());
+                writeBytes(d.unscaledValue().toByteArray());
+            }
+            case Date d -> {
+                out.writeByte(DATE);
+                out.writeLong(d.getTime());
+            }
+            case byte[] b -> {
+                out.writeByte(BYTES);
+                writeBytes(b);
+            }
+            case List<?> list -> {
+                out.writeByte(LIST);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    writeValue(element);
+                }
+            }
+            case Map<?, ?> map -> {
+                out.writeByte(TABLE);
+                writeTable((Map<String, Object>) map);
+            }
+            default -> {
+                out.writeByte(STRING);
+                writeString(value.toString());
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code in} does not hold properties written by {@link #encode}
+     */
+    static AMQP.BasicProperties decode(ByteBuffer in) {
+        try {
+            byte version = in.get();
+            if (version != VERSION) throw new IllegalArgumentException("Unknown spooled properties version " + version);
+            int present = in.getInt();
+
+            AMQP.BasicProperties.Builder builder = new AMQP.BasicProperties.Builder();
+            if ((present & CONTENT_TYPE) != 0) builder.contentType(readString(in));
+            if ((present & CONTENT_ENCODING) != 0) builder.contentEncoding(readString(in));
+            if ((present & HEADERS) != 0) builder.headers(readTable(in));
+            if ((present & DELIVERY_MODE) != 0) builder.deliveryMode(in.getInt());
+            if ((present & PRIORITY) != 0) builder.priority(in.getInt());
+            if ((present & CORRELATION_ID) != 0) builder.correlationId(readString(in));
+            if ((present & REPLY_TO) != 0) builder.replyTo(readString(in));
+            if ((present & EXPIRATION) != 0) builder.expiration(readString(in));
+            if ((present & MESSAGE_ID) != 0) builder.messageId(readString(in));
+            if ((present & TIMESTAMP) != 0) builder.timestamp(new Date(in.getLong()));
+            if ((present & TYPE) != 0) builder.type(readString(in));
+            if ((present & USER_ID) != 0) builder.userId(readString(in));
+            if ((present & APP_ID) != 0) builder.appId(readString(in));
+            if ((present & CLUSTER_ID) != 0) builder.clusterId(readString(in));
+            return builder.build();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated spooled message properties", e);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) throw new IllegalArgumentException("Corrupt spooled string");
+        byte[] value = new byte[length];
+        in.get(value);
+        return value;
+    }
+
+    private static Map<String, Object> readTable(ByteBuffer in) {
+        int size = in.getInt();
+        if (size < 0 || size > in.remaining()) throw new IllegalArgumentException("Corrupt spooled header table");
+        Map<String, Object> table = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            table.put(readString(in), readValue(in));
+        }
+        return table;
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> readString(in);
+            case BOOLEAN -> in.get() != 0;
+            case BYTE -> in.get();
+            case SHORT -> in.getShort();
+            case INT -> in.getInt();
+            case LONG -> in.getLong();
+            case FLOAT -> in.getFloat();
+            case DOUBLE -> in.getDouble();
+            case DECIMAL -> {
+                int scale = in.getInt();
+                yield new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case DATE -> new Date(in.getLong());
+            case BYTES -> readBytes(in);
+            case LIST -> {
+                int size = in.getInt();
+                if (size < 0 || size > in.remaining()) throw new IllegalArgumentException("Corrupt spooled header list");
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                yield list;
+            }
+            case TABLE -> readTable(in);
+            default -> throw new IllegalArgumentException("Unknown spooled header value tag " + tag);
+        };
+    }
+}
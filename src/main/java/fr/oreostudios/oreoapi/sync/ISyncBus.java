@@ -5,7 +5,25 @@ import java.util.Map;
 
 public interface ISyncBus {
     String serverId();
+
+    /** Messages published by this server are not delivered. */
     void subscribe(String routingKey, SyncHandler handler);
+
+    /**
+     * @param receiveOwn also deliver messages published by this server. Otherwise they are dropped;
+     *                   the default filters them by {@link SyncPacket#serverId()} after parsing,
+     *                   implementations may drop them unparsed
+     */
+    default void subscribe(String routingKey, SyncHandler handler, boolean receiveOwn) {
+        if (receiveOwn) {
+            subscribe(routingKey, handler);
+            return;
+        }
+        subscribe(routingKey, packet -> {
+            if (!serverId().equals(packet.serverId())) handler.handle(packet);
+        });
+    }
+
     void publish(String routingKey, String type, Map<String, Object> payload);
     void shutdown();
 }
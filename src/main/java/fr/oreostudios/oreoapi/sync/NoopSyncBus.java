@@ -12,6 +12,7 @@ public final class NoopSyncBus implements ISyncBus {
 
     @Override public String serverId() { return serverId; }
     @Override public void subscribe(String routingKey, SyncHandler handler) {}
+    @Override public void subscribe(String routingKey, SyncHandler handler, boolean receiveOwn) {}
     @Override public void publish(String routingKey, String type, Map<String, Object> payload) {}
     @Override public void shutdown() {}
 }
@@ -3,6 +3,7 @@ package fr.oreostudios.oreoapi.sync;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.DeliverCallback;
 import fr.oreostudios.oreoapi.rabbit.IRabbitService;
 import fr.oreostudios.oreoapi.rabbit.RabbitSubscription;
@@ -20,14 +21,22 @@ public final class SyncBus implements ISyncBus {
     private final IRabbitService rabbit;
     private final Gson gson;
     private final String serverId;
+    /** Stamps outgoing messages so this server can drop its own before parsing them. */
+    private final AMQP.BasicProperties properties;
+    /** Cleared once the Rabbit service rejects message properties; messages go out plain then. */
+    private volatile boolean propertiesSupported = true;
 
-    private final Map<String, List<SyncHandler>> handlers = new ConcurrentHashMap<>();
+    private final Map<String, List<Registration>> handlers = new ConcurrentHashMap<>();
     private final List<RabbitSubscription> subscriptions = Collections.synchronizedList(new ArrayList<>());
 
     public SyncBus(IRabbitService rabbit, Gson gson, String serverId) {
         this.rabbit = Objects.requireNonNull(rabbit, "rabbit");
         this.gson = Objects.requireNonNull(gson, "gson");
         this.serverId = Objects.requireNonNull(serverId, "serverId");
+        this.properties = new AMQP.BasicProperties.Builder()
+                .appId(serverId)
+                .contentType("application/json")
+                .build();
     }
 
     @Override
@@ -35,16 +44,27 @@ public final class SyncBus implements ISyncBus {
 
     @Override
     public void subscribe(String routingKey, SyncHandler handler) {
+        subscribe(routingKey, handler, false);
+    }
+
+    @Override
+    public void subscribe(String routingKey, SyncHandler handler, boolean receiveOwn) {
         Objects.requireNonNull(routingKey, "routingKey");
         Objects.requireNonNull(handler, "handler");
 
         handlers.computeIfAbsent(routingKey, k -> Collections.synchronizedList(new ArrayList<>()))
-                .add(handler);
+                .add(new Registration(handler, receiveOwn));
 
         DeliverCallback cb = (tag, delivery) -> {
+            AMQP.BasicProperties props = delivery.getProperties();
+            String appId = props != null ? props.getAppId() : null;
+            boolean own = serverId.equals(appId);
+            if (own && !receivesOwn(routingKey)) return;
+
             String json = new String(delivery.getBody(), StandardCharsets.UTF_8);
             SyncPacket packet = parsePacket(json);
-            dispatch(routingKey, packet);
+            if (appId == null) own = serverId.equals(packet.serverId()); // published without properties
+            dispatch(routingKey, packet, own);
         };
 
         RabbitSubscription sub = rabbit.subscribe(routingKey, cb);
@@ -65,7 +85,16 @@ public final class SyncBus implements ISyncBus {
                 payload
         );
 
-        rabbit.publish(routingKey, gson.toJson(packet));
+        byte[] body = gson.toJson(packet).getBytes(StandardCharsets.UTF_8);
+        if (propertiesSupported) {
+            try {
+                rabbit.publish(routingKey, body, properties);
+                return;
+            } catch (UnsupportedOperationException e) {
+                propertiesSupported = false;
+            }
+        }
+        rabbit.publish(routingKey, body);
     }
 
     @Override
@@ -101,13 +130,27 @@ public final class SyncBus implements ISyncBus {
         }
     }
 
-    private void dispatch(String routingKey, SyncPacket packet) {
-        List<SyncHandler> list = handlers.get(routingKey);
+    private boolean receivesOwn(String routingKey) {
+        List<Registration> list = handlers.get(routingKey);
+        if (list == null) return false;
+        synchronized (list) {
+            for (Registration r : list) {
+                if (r.receiveOwn()) return true;
+            }
+        }
+        return false;
+    }
+
+    private void dispatch(String routingKey, SyncPacket packet, boolean own) {
+        List<Registration> list = handlers.get(routingKey);
         if (list == null) return;
         synchronized (list) {
-            for (SyncHandler h : list) {
-                try { h.handle(packet); } catch (Exception ignored) {}
+            for (Registration r : list) {
+                if (own && !r.receiveOwn()) continue;
+                try { r.handler().handle(packet); } catch (Exception ignored) {}
             }
         }
     }
+
+    private record Registration(SyncHandler handler, boolean receiveOwn) {}
 }
@@ -0,0 +1,113 @@
+// File: src/main/java/fr/oreostudios/oreoapi/util/BoundedRingBuffer.java
+package fr.oreostudios.oreoapi.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free bounded multi-producer / multi-consumer queue (Vyukov's array queue).
+ *
+ * Every slot carries a sequence number telling producers and consumers whose turn it
+ * is, so {@link #offer} and {@link #poll} each cost one CAS and never allocate.
+ * Capacity is rounded up to a power of two.
+ */
+public final class BoundedRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public BoundedRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be in [2, 2^30]: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element");
+
+        long pos = tail.get();
+        while (true) {
+            int idx = (int) pos & mask;
+            long diff = sequences.getAcquire(idx) - pos;
+
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements.setPlain(idx, element);
+                    sequences.setRelease(idx, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // slot still holds an element from the previous lap
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return the oldest element, or null if the buffer is empty
+     */
+    public E poll() {
+        long pos = head.get();
+        while (true) {
+            int idx = (int) pos & mask;
+            long diff = sequences.getAcquire(idx) - (pos + 1);
+
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E element = elements.getPlain(idx);
+                    elements.setPlain(idx, null);
+                    sequences.setRelease(idx, pos + mask + 1);
+                    return element;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null; // slot not published yet
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Oldest element without removing it. Only reliable with a single consumer.
+     */
+    public E peek() {
+        long pos = head.get();
+        int idx = (int) pos & mask;
+        if (sequences.getAcquire(idx) != pos + 1) return null;
+        return elements.getPlain(idx);
+    }
+
+    /**
+     * Approximate number of elements (exact when producers and consumers are idle).
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
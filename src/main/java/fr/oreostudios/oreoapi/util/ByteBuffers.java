@@ -0,0 +1,34 @@
+package fr.oreostudios.oreoapi.util;
+
+import java.nio.ByteBuffer;
+
+public final class ByteBuffers {
+    private ByteBuffers() {}
+
+    /**
+     * Returns the remaining bytes of the buffer in a new array, which the caller may keep.
+     * The buffer position is left untouched.
+     */
+    public static byte[] copyOf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(buffer.position(), bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns the remaining bytes of the buffer as an exact-size array.
+     * When the buffer already wraps a whole array, that array is returned as-is (no copy),
+     * so only use this when the array is not retained past the buffer's owner reusing it.
+     * The buffer position is left untouched.
+     */
+    public static byte[] toExactArray(ByteBuffer buffer) {
+        if (buffer.hasArray()
+                && buffer.arrayOffset() == 0
+                && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+
+        return copyOf(buffer);
+    }
+}
@@ -0,0 +1,181 @@
+// File: src/main/java/fr/oreostudios/oreoapi/util/HashedWheelTimer.java
+package fr.oreostudios.oreoapi.util;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Approximate timer for large numbers of short timeouts that are usually cancelled
+ * (request deadlines). Scheduling and cancelling are O(1) and lock-free; one worker
+ * thread advances a wheel of buckets every tick and runs expired tasks on itself,
+ * so tasks must be short. Timeouts fire up to one tick late.
+ */
+public final class HashedWheelTimer implements AutoCloseable {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final int mask;
+    private final Bucket[] wheel;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos;
+
+    private volatile boolean stopped;
+
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        Objects.requireNonNull(name, "name");
+        if (tickDuration <= 0) throw new IllegalArgumentException("tickDuration must be > 0");
+        if (wheelSize < 1 || wheelSize > (1 << 20)) throw new IllegalArgumentException("wheelSize must be in [1, 2^20]");
+
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = size - 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) wheel[i] = new Bucket();
+
+        this.startNanos = System.nanoTime();
+        this.worker = new NamedThreadFactory(name, true).newThread(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * Run {@code task} on the timer thread after {@code delay}, unless cancelled first.
+     *
+     * @throws IllegalStateException if the timer was stopped
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Objects.requireNonNull(task, "task");
+        if (stopped) throw new IllegalStateException("Timer stopped");
+
+        long deadline = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(task, deadline);
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stop the worker; pending timeouts never fire.
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!stopped) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos = tickDeadline - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (stopped) return;
+                }
+                continue;
+            }
+
+            transferAdded(tick);
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void transferAdded(long currentTick) {
+        Timeout timeout;
+        // Bounded per tick so a flood of schedules cannot starve expiry
+        for (int i = 0; i < 100_000 && (timeout = added.poll()) != null; i++) {
+            if (timeout.state.get() == CANCELLED) continue;
+
+            long targetTick = Math.max(currentTick, timeout.deadline / tickNanos);
+            timeout.remainingRounds = (targetTick - currentTick) / wheel.length;
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Handle returned by {@link #schedule}.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // Owned by the worker thread
+        private long remainingRounds;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return true if the task will not run because of this call
+         */
+        public boolean cancel() {
+            return state.compareAndSet(INIT, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    /** Singly linked list of timeouts, only touched by the worker. */
+    private static final class Bucket {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.next = head;
+            head = timeout;
+        }
+
+        void expire() {
+            Timeout prev = null;
+            Timeout current = head;
+
+            while (current != null) {
+                Timeout next = current.next;
+                boolean remove;
+
+                if (current.state.get() == CANCELLED) {
+                    remove = true;
+                } else if (current.remainingRounds <= 0) {
+                    remove = true;
+                    if (current.state.compareAndSet(INIT, EXPIRED)) {
+                        try {
+                            current.task.run();
+                        } catch (RuntimeException e) {
+                            Thread thread = Thread.currentThread();
+                            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                        }
+                    }
+                } else {
+                    current.remainingRounds--;
+                    remove = false;
+                }
+
+                if (remove) {
+                    if (prev == null) head = next;
+                    else prev.next = next;
+                    current.next = null;
+                } else {
+                    prev = current;
+                }
+                current = next;
+            }
+        }
+    }
+}
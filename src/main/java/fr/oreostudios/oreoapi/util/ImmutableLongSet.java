@@ -0,0 +1,95 @@
+// File: src/main/java/fr/oreostudios/oreoapi/util/ImmutableLongSet.java
+package fr.oreostudios.oreoapi.util;
+
+import java.util.Arrays;
+
+/**
+ * Read-only set of primitive longs with allocation-free {@link #contains(long)}
+ * (open addressing, linear probing, load factor <= 0.5). Meant to be rebuilt and
+ * swapped atomically when its source changes (copy-on-write).
+ */
+public final class ImmutableLongSet {
+
+    public static final ImmutableLongSet EMPTY = new ImmutableLongSet(new long[2], 0, false);
+
+    private final long[] table; // 0 marks a free slot
+    private final int mask;
+    private final int size;
+    private final boolean containsZero;
+
+    private ImmutableLongSet(long[] table, int size, boolean containsZero) {
+        this.table = table;
+        this.mask = table.length - 1;
+        this.size = size;
+        this.containsZero = containsZero;
+    }
+
+    public static ImmutableLongSet of(long... values) {
+        if (values.length == 0) return EMPTY;
+
+        int capacity = Integer.highestOneBit(Math.max(2, values.length * 2) - 1) << 1;
+        long[] table = new long[capacity];
+        int mask = capacity - 1;
+        int size = 0;
+        boolean containsZero = false;
+
+        for (long value : values) {
+            if (value == 0) {
+                if (!containsZero) size++;
+                containsZero = true;
+                continue;
+            }
+            int idx = slot(value, mask);
+            while (table[idx] != 0 && table[idx] != value) {
+                idx = (idx + 1) & mask;
+            }
+            if (table[idx] == 0) {
+                table[idx] = value;
+                size++;
+            }
+        }
+        return new ImmutableLongSet(table, size, containsZero);
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) return containsZero;
+
+        int idx = slot(value, mask);
+        long current;
+        while ((current = table[idx]) != 0) {
+            if (current == value) return true;
+            idx = (idx + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        long[] values = new long[size];
+        int i = 0;
+        if (containsZero) values[i++] = 0;
+        for (long value : table) {
+            if (value != 0) values[i++] = value;
+        }
+        return values;
+    }
+
+    private static int slot(long value, int mask) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        long[] values = toArray();
+        Arrays.sort(values);
+        return Arrays.toString(values);
+    }
+}
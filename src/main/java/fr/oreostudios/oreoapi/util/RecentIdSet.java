@@ -0,0 +1,133 @@
+// File: src/main/java/fr/oreostudios/oreoapi/util/RecentIdSet.java
+package fr.oreostudios.oreoapi.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory set of recently seen 128-bit ids (e.g. UUIDs as two longs).
+ *
+ * Ids live in two open-addressing tables of primitive long pairs: every {@code window}
+ * the older table is cleared and becomes the current one, so an id is remembered for
+ * between one and two windows. When the current table fills up before its window ends,
+ * it rotates early: memory stays fixed and the effective window shrinks under load.
+ * The all-zero id is never stored.
+ */
+public final class RecentIdSet {
+
+    /** Bytes per slot: one long pair. */
+    public static final int SLOT_BYTES = 16;
+
+    private static final int MAX_LOAD_PERCENT = 75;
+
+    private final long windowNanos;
+    private final int mask;
+    private final int maxSize;
+
+    private long[] current; // [msb, lsb] pairs, (0, 0) marks a free slot
+    private long[] previous;
+    private int currentSize;
+    private long rotatedAt;
+    private long earlyRotations;
+
+    /**
+     * @param maxBytes memory budget for both tables together; rounded down to a power-of-two slot count
+     */
+    public RecentIdSet(long windowNanos, long maxBytes) {
+        if (windowNanos <= 0) throw new IllegalArgumentException("windowNanos must be > 0");
+
+        long slots = Math.min(maxBytes / (2L * SLOT_BYTES), 1 << 26);
+        if (slots < 16) throw new IllegalArgumentException("maxBytes too small: " + maxBytes);
+
+        int capacity = Integer.highestOneBit((int) slots);
+        this.windowNanos = windowNanos;
+        this.mask = capacity - 1;
+        this.maxSize = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+        this.current = new long[capacity * 2];
+        this.previous = new long[capacity * 2];
+        this.rotatedAt = System.nanoTime();
+    }
+
+    /**
+     * Record {@code (msb, lsb)}.
+     *
+     * @return true if the id was not seen during the retained window
+     */
+    public synchronized boolean add(long msb, long lsb) {
+        if (msb == 0 && lsb == 0) return true;
+
+        long now = System.nanoTime();
+        long elapsed = now - rotatedAt;
+        if (elapsed >= windowNanos) {
+            rotate(now);
+            if (elapsed >= 2 * windowNanos) Arrays.fill(previous, 0); // idle for two windows
+        }
+
+        if (contains(previous, msb, lsb)) return false;
+
+        int idx = slot(msb, lsb);
+        long[] table = current;
+        while (table[idx * 2] != 0 || table[idx * 2 + 1] != 0) {
+            if (table[idx * 2] == msb && table[idx * 2 + 1] == lsb) return false;
+            idx = (idx + 1) & mask;
+        }
+
+        if (currentSize >= maxSize) {
+            earlyRotations++;
+            rotate(now);
+            idx = slot(msb, lsb);
+            table = current;
+        }
+        table[idx * 2] = msb;
+        table[idx * 2 + 1] = lsb;
+        currentSize++;
+        return true;
+    }
+
+    public synchronized boolean contains(long msb, long lsb) {
+        return (msb != 0 || lsb != 0) && (contains(current, msb, lsb) || contains(previous, msb, lsb));
+    }
+
+    /**
+     * Ids each table can hold before rotating early.
+     */
+    public int getCapacity() {
+        return maxSize;
+    }
+
+    /**
+     * Rotations forced by a full table rather than by the window.
+     */
+    public synchronized long getEarlyRotations() {
+        return earlyRotations;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(current, 0);
+        Arrays.fill(previous, 0);
+        currentSize = 0;
+        rotatedAt = System.nanoTime();
+    }
+
+    private void rotate(long now) {
+        long[] oldest = previous;
+        previous = current;
+        Arrays.fill(oldest, 0);
+        current = oldest;
+        currentSize = 0;
+        rotatedAt = now;
+    }
+
+    private boolean contains(long[] table, long msb, long lsb) {
+        int idx = slot(msb, lsb);
+        while (table[idx * 2] != 0 || table[idx * 2 + 1] != 0) {
+            if (table[idx * 2] == msb && table[idx * 2 + 1] == lsb) return true;
+            idx = (idx + 1) & mask;
+        }
+        return false;
+    }
+
+    private int slot(long msb, long lsb) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,93 @@
+// File: src/main/java/fr/oreostudios/oreoapi/util/SerialExecutor.java
+package fr.oreostudios.oreoapi.util;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs tasks one at a time, in submission order, on a delegate executor.
+ * Holds no thread of its own: a drain task is submitted only while work is pending,
+ * and it yields back to the delegate after {@link #MAX_TASKS_PER_DRAIN} tasks.
+ *
+ * A task whose submission is rejected by the delegate is withdrawn before the exception
+ * reaches the caller, so it either runs once or not at all. When the delegate rejects a
+ * drain, the tasks still queued are removed and handed to {@code onDrop} instead of waiting
+ * for a later submission that may never come.
+ */
+public final class SerialExecutor implements Executor {
+
+    private static final int MAX_TASKS_PER_DRAIN = 64;
+
+    private final Executor delegate;
+    private final Consumer<Runnable> onDrop;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public SerialExecutor(Executor delegate) {
+        this(delegate, task -> {});
+    }
+
+    /**
+     * @param onDrop called with each accepted task that will not run because the delegate rejected its drain
+     */
+    public SerialExecutor(Executor delegate, Consumer<Runnable> onDrop) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.onDrop = Objects.requireNonNull(onDrop, "onDrop");
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(Objects.requireNonNull(task, "task"));
+        try {
+            schedule();
+        } catch (RuntimeException e) {
+            // still queued → withdraw it; otherwise a running drain took it and will run it
+            boolean withdrawn = tasks.remove(task);
+            dropQueued();
+            if (withdrawn) throw e;
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                delegate.execute(this::drain);
+            } catch (RuntimeException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Runnable task;
+            for (int i = 0; i < MAX_TASKS_PER_DRAIN && (task = tasks.poll()) != null; i++) {
+                task.run();
+            }
+        } finally {
+            scheduled.set(false);
+            if (!tasks.isEmpty()) {
+                try {
+                    schedule();
+                } catch (RuntimeException e) {
+                    dropQueued(); // delegate saturated or shut down
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the tasks left behind by a rejected drain; others queued meanwhile may go with them.
+     */
+    private void dropQueued() {
+        Runnable task;
+        while (!scheduled.get() && (task = tasks.poll()) != null) {
+            onDrop.accept(task);
+        }
+    }
+}
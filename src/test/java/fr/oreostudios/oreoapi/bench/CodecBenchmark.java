@@ -0,0 +1,332 @@
+// File: src/test/java/fr/oreostudios/oreoapi/bench/CodecBenchmark.java
+package fr.oreostudios.oreoapi.bench;
+
+import fr.oreostudios.oreoapi.bus.PacketManager;
+import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.channel.PacketChannels;
+import fr.oreostudios.oreoapi.bus.envelope.EnvelopeFormat;
+import fr.oreostudios.oreoapi.bus.envelope.PacketCompression;
+import fr.oreostudios.oreoapi.bus.event.IncomingPacketListener;
+import fr.oreostudios.oreoapi.bus.event.PacketSender;
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
+import fr.oreostudios.oreoapi.bus.stream.StringDictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Wire size and encode/decode cost of packet bodies, through a PacketManager pair
+ * joined by an in-memory wire (no transport, no threads):
+ * <pre>
+ * strings     : a packet of repeated server/world/key strings (bytes, ns/op), with legacy and
+ *               compact envelopes, a per-frame string table and a seeded StringDictionary
+ * compression : a 3 KB body of similar JSON lines, uncompressed and deflated at levels 1 and 6
+ * arrays      : 500 ints written with writeIntArray/readIntArray, and as a boxed List
+ *               through writeCollection/readCollection
+ * </pre>
+ * Run like {@link TransportBenchmark}:
+ * {@code java -cp target/classes:target/test-classes:<dependencies> fr.oreostudios.oreoapi.bench.CodecBenchmark strings}.
+ * Figures depend on the machine; compare runs on the same one.
+ */
+public final class CodecBenchmark {
+
+    private static final String CHANNEL_NAME = "bench";
+    private static final PacketChannel CHANNEL = PacketChannels.individual(CHANNEL_NAME);
+
+    private static final int ROUNDS = 3;
+    private static final int OPS_PER_ROUND = 200_000;
+    private static final int ARRAY_LENGTH = 500;
+
+    private static final List<String> SERVERS = List.of("lobby-1", "lobby-2", "survival-1", "skyblock-3");
+    private static final List<String> WORLDS = List.of("world", "world_nether", "world_the_end");
+    private static final List<String> KEYS = List.of("player.join", "player.quit", "player.move");
+    private static final StringDictionary SEEDED = StringDictionary.of(1,
+            Stream.of(SERVERS, WORLDS, KEYS).flatMap(List::stream).toList());
+
+    private static long sink;
+
+    private CodecBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        List<String> scenarios = args.length > 0 ? List.of(args) : List.of("strings", "compression", "arrays");
+        for (String scenario : scenarios) {
+            switch (scenario) {
+                case "strings" -> strings();
+                case "compression" -> compression();
+                case "arrays" -> arrays();
+                default -> throw new IllegalArgumentException("Unknown scenario " + scenario
+                        + " (strings, compression, arrays)");
+            }
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Strings                                            */
+    /* -------------------------------------------------- */
+
+    private static void strings() {
+        Wire legacy = new Wire(StringsPacket.class, manager -> manager.setEnvelopeFormat(EnvelopeFormat.LEGACY));
+        Wire compact = new Wire(StringsPacket.class, manager -> { });
+        Wire table = new Wire(StringsPacket.class,
+                manager -> manager.useStringDictionary(CHANNEL, StringDictionary.EMPTY));
+        Wire seeded = new Wire(StringsPacket.class, manager -> manager.useStringDictionary(CHANNEL, SEEDED));
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("strings round %d: legacy %s | compact %s | table %s | dictionary %s%n", round,
+                    legacy.measure(StringsPacket::sample), compact.measure(StringsPacket::sample),
+                    table.measure(StringsPacket::sample), seeded.measure(StringsPacket::sample));
+        }
+        legacy.close();
+        compact.close();
+        table.close();
+        seeded.close();
+    }
+
+    /**
+     * Eight events naming a server, a world and a key from short lists, as status broadcasts do.
+     */
+    public static final class StringsPacket extends Packet {
+        final String[] servers = new String[8];
+        final String[] worlds = new String[8];
+        final String[] keys = new String[8];
+
+        static StringsPacket sample() {
+            StringsPacket packet = new StringsPacket();
+            for (int i = 0; i < packet.servers.length; i++) {
+                packet.servers[i] = SERVERS.get(i % SERVERS.size());
+                packet.worlds[i] = WORLDS.get(i % WORLDS.size());
+                packet.keys[i] = KEYS.get(i % KEYS.size());
+            }
+            return packet;
+        }
+
+        @Override
+        protected void read(FriendlyByteInputStream stream) {
+            for (int i = 0; i < servers.length; i++) {
+                servers[i] = stream.readString();
+                worlds[i] = stream.readString();
+                keys[i] = stream.readString();
+            }
+        }
+
+        @Override
+        protected void write(FriendlyByteOutputStream stream) {
+            for (int i = 0; i < servers.length; i++) {
+                stream.writeString(servers[i]);
+                stream.writeString(worlds[i]);
+                stream.writeString(keys[i]);
+            }
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Compression                                        */
+    /* -------------------------------------------------- */
+
+    private static void compression() {
+        Wire plain = new Wire(TextPacket.class, manager -> { });
+        Wire fast = new Wire(TextPacket.class,
+                manager -> manager.setCompression(PacketCompression.threshold(256).withLevel(1)));
+        Wire deflated = new Wire(TextPacket.class, manager -> manager.setCompression(PacketCompression.threshold(256)));
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("compression round %d: none %s | level 1 %s | default %s%n", round,
+                    plain.measure(TextPacket::sample), fast.measure(TextPacket::sample),
+                    deflated.measure(TextPacket::sample));
+        }
+        plain.close();
+        fast.close();
+        deflated.close();
+    }
+
+    /**
+     * A status dump of similar JSON lines, the kind of body compression is for.
+     */
+    public static final class TextPacket extends Packet {
+        private static final String SAMPLE = sampleText();
+
+        String text = "";
+
+        static TextPacket sample() {
+            TextPacket packet = new TextPacket();
+            packet.text = SAMPLE;
+            return packet;
+        }
+
+        private static String sampleText() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; text.length() < 3 * 1024; i++) {
+                text.append("{\"player\":\"player-").append(i)
+                        .append("\",\"server\":\"").append(SERVERS.get(i % SERVERS.size()))
+                        .append("\",\"world\":\"").append(WORLDS.get(i % WORLDS.size()))
+                        .append("\",\"score\":").append(i * 37 % 1000).append("}\n");
+            }
+            return text.toString();
+        }
+
+        @Override
+        protected void read(FriendlyByteInputStream stream) {
+            text = stream.readString();
+        }
+
+        @Override
+        protected void write(FriendlyByteOutputStream stream) {
+            stream.writeString(text);
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Arrays                                             */
+    /* -------------------------------------------------- */
+
+    private static void arrays() {
+        Wire bulk = new Wire(IntArrayPacket.class, manager -> { });
+        Wire boxed = new Wire(IntListPacket.class, manager -> { });
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("arrays round %d: bulk %s | boxed %s%n", round,
+                    bulk.measure(IntArrayPacket::sample), boxed.measure(IntListPacket::sample));
+        }
+        bulk.close();
+        boxed.close();
+    }
+
+    public static final class IntArrayPacket extends Packet {
+        int[] values = new int[0];
+
+        static IntArrayPacket sample() {
+            IntArrayPacket packet = new IntArrayPacket();
+            packet.values = new int[ARRAY_LENGTH];
+            for (int i = 0; i < ARRAY_LENGTH; i++) {
+                packet.values[i] = i * 31;
+            }
+            return packet;
+        }
+
+        @Override
+        protected void read(FriendlyByteInputStream stream) {
+            values = stream.readIntArray();
+        }
+
+        @Override
+        protected void write(FriendlyByteOutputStream stream) {
+            stream.writeIntArray(values);
+        }
+    }
+
+    /**
+     * Same values and same bytes as {@link IntArrayPacket}, one boxed element at a time.
+     */
+    public static final class IntListPacket extends Packet {
+        List<Integer> values = new ArrayList<>();
+
+        static IntListPacket sample() {
+            IntListPacket packet = new IntListPacket();
+            for (int i = 0; i < ARRAY_LENGTH; i++) {
+                packet.values.add(i * 31);
+            }
+            return packet;
+        }
+
+        @Override
+        protected void read(FriendlyByteInputStream stream) {
+            values = new ArrayList<>();
+            stream.readCollection(values, stream::readInt);
+        }
+
+        @Override
+        protected void write(FriendlyByteOutputStream stream) {
+            stream.writeCollection(values, stream::writeInt);
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Fixture                                            */
+    /* -------------------------------------------------- */
+
+    /**
+     * A sending and a receiving manager configured alike; the last frame sent is kept
+     * and handed to the receiver directly.
+     */
+    private static final class Wire {
+        private final Capture capture = new Capture();
+        private final PacketManager sender;
+        private final PacketManager receiver;
+
+        <T extends Packet> Wire(Class<T> type, Consumer<PacketManager> setup) {
+            sender = node(capture, setup);
+            receiver = node(new Capture(), setup);
+            receiver.subscribeChannel(CHANNEL);
+            receiver.subscribe(type, (channel, packet) -> sink++);
+        }
+
+        /**
+         * @return frame size, then average encode and decode nanoseconds per packet
+         */
+        String measure(Supplier<? extends Packet> packets) {
+            long start = System.nanoTime();
+            for (int i = 0; i < OPS_PER_ROUND; i++) {
+                sender.sendPacket(CHANNEL, packets.get());
+            }
+            long encodeNanos = (System.nanoTime() - start) / OPS_PER_ROUND;
+
+            byte[] frame = capture.lastFrame;
+            long received = sink;
+            start = System.nanoTime();
+            for (int i = 0; i < OPS_PER_ROUND; i++) {
+                receiver.onReceive(CHANNEL, frame);
+            }
+            long decodeNanos = (System.nanoTime() - start) / OPS_PER_ROUND;
+            if (sink - received != OPS_PER_ROUND) throw new IllegalStateException("Frames were not all decoded");
+
+            return String.format("%d B, encode %d ns, decode %d ns", frame.length, encodeNanos, decodeNanos);
+        }
+
+        void close() {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    /**
+     * Transport that keeps the last frame sent instead of delivering it.
+     */
+    private static final class Capture implements PacketSender {
+        byte[] lastFrame;
+
+        @Override
+        public void sendPacket(PacketChannel channel, byte[] content) {
+            lastFrame = content;
+        }
+
+        @Override
+        public void registerChannel(PacketChannel channel) {
+        }
+
+        @Override
+        public void registerListener(IncomingPacketListener listener) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static PacketManager node(PacketSender sender, Consumer<PacketManager> setup) {
+        PacketManager manager = new PacketManager(sender);
+        manager.init();
+        manager.setEnvelopeFormat(EnvelopeFormat.COMPACT);
+        manager.registerPacket(StringsPacket.class, StringsPacket::new);
+        manager.registerPacket(TextPacket.class, TextPacket::new);
+        manager.registerPacket(IntArrayPacket.class, IntArrayPacket::new);
+        manager.registerPacket(IntListPacket.class, IntListPacket::new);
+        setup.accept(manager);
+        return manager;
+    }
+}
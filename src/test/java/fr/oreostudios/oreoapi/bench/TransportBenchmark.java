@@ -0,0 +1,312 @@
+// File: src/test/java/fr/oreostudios/oreoapi/bench/TransportBenchmark.java
+package fr.oreostudios.oreoapi.bench;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.DeliverCallback;
+import fr.oreostudios.oreoapi.bus.PacketManager;
+import fr.oreostudios.oreoapi.bus.channel.PacketChannel;
+import fr.oreostudios.oreoapi.bus.channel.PacketChannels;
+import fr.oreostudios.oreoapi.bus.envelope.EnvelopeFormat;
+import fr.oreostudios.oreoapi.bus.event.IncomingPacketListener;
+import fr.oreostudios.oreoapi.bus.event.PacketSender;
+import fr.oreostudios.oreoapi.bus.local.LoopbackPacketSender;
+import fr.oreostudios.oreoapi.bus.packet.Packet;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteInputStream;
+import fr.oreostudios.oreoapi.bus.stream.FriendlyByteOutputStream;
+import fr.oreostudios.oreoapi.mesh.MeshSettings;
+import fr.oreostudios.oreoapi.mesh.TcpMeshPacketSender;
+import fr.oreostudios.oreoapi.rabbit.BufferedRabbitService;
+import fr.oreostudios.oreoapi.rabbit.IRabbitService;
+import fr.oreostudios.oreoapi.rabbit.RabbitBuffering;
+import fr.oreostudios.oreoapi.rabbit.RabbitSpooling;
+import fr.oreostudios.oreoapi.rabbit.RabbitSubscription;
+import fr.oreostudios.oreoapi.rabbit.SpoolFsync;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Localhost benchmark of the transports, without a broker:
+ * <pre>
+ * loopback  : one-node send of a small packet to a caller-thread subscriber (ns/op), as a
+ *             copy, as a shared immutable instance, and through encode/decode
+ * tcp       : request/reply round trip between two mesh nodes on 127.0.0.1 (us)
+ * unix      : same over Unix domain sockets in a temporary directory (us)
+ * spool     : messages published to a disconnected broker that BufferedRabbitService
+ *             appends to a disk spool, then replays once connected (msg/s per SpoolFsync)
+ * </pre>
+ * Run with the scenarios to measure as arguments (all by default), after {@code mvn test-compile}:
+ * {@code java -cp target/classes:target/test-classes:<dependencies> fr.oreostudios.oreoapi.bench.TransportBenchmark tcp}.
+ * Figures depend on the machine; compare runs on the same one.
+ */
+public final class TransportBenchmark {
+
+    private static final String CHANNEL_NAME = "bench";
+    private static final PacketChannel CHANNEL = PacketChannels.individual(CHANNEL_NAME);
+    private static final String SECRET = "bench";
+
+    private static final int SEND_ROUNDS = 5;
+    private static final int SENDS_PER_ROUND = 1_000_000;
+    private static final int WARMUP_REQUESTS = 5_000;
+    private static final int REQUESTS = 20_000;
+    private static final int SPOOL_ROUNDS = 3;
+    private static final int SPOOLED_MESSAGES = 200_000;
+    /** Each append forces the file to disk: far fewer to keep the run short. */
+    private static final int SPOOLED_MESSAGES_FSYNC_ALWAYS = 2_000;
+    private static final int SPOOL_BODY_BYTES = 128;
+
+    private static long sink;
+
+    private TransportBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> scenarios = args.length > 0 ? List.of(args) : List.of("loopback", "tcp", "unix", "spool");
+        for (String scenario : scenarios) {
+            switch (scenario) {
+                case "loopback" -> loopback();
+                case "tcp" -> roundTrip("tcp", MeshSettings.listen("127.0.0.1:0"), MeshSettings.listen("127.0.0.1:0"));
+                case "unix" -> {
+                    Path dir = Files.createTempDirectory("oreo-bench");
+                    roundTrip("unix", MeshSettings.listen("unix:" + dir.resolve("a.sock")),
+                            MeshSettings.listen("unix:" + dir.resolve("b.sock")));
+                    deleteQuietly(dir);
+                }
+                case "spool" -> spool();
+                default -> throw new IllegalArgumentException("Unknown scenario " + scenario + " (loopback, tcp, unix, spool)");
+            }
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Loopback                                           */
+    /* -------------------------------------------------- */
+
+    private static void loopback() {
+        PacketManager copied = loopbackNode(false);
+        PacketManager shared = loopbackNode(false);
+        shared.getPacketRegistry().setImmutable(BenchPacket.class, true);
+        PacketManager encoded = loopbackNode(true);
+
+        for (int round = 1; round <= SEND_ROUNDS; round++) {
+            System.out.printf("loopback round %d: copy %d ns/op, shared %d ns/op, encoded %d ns/op%n", round,
+                    sends(copied), sends(shared), sends(encoded));
+        }
+        copied.close();
+        shared.close();
+        encoded.close();
+    }
+
+    /**
+     * @param encoded add a listener that only takes bytes, which makes the loopback encode every packet
+     */
+    private static PacketManager loopbackNode(boolean encoded) {
+        LoopbackPacketSender sender = new LoopbackPacketSender();
+        if (encoded) sender.registerListener((IncomingPacketListener) (channel, content) -> { });
+
+        PacketManager manager = node(sender);
+        manager.setEchoSuppression(false);
+        manager.subscribeChannel(CHANNEL);
+        manager.subscribe(BenchPacket.class, (channel, packet) -> sink += packet.value);
+        return manager;
+    }
+
+    /**
+     * @return average nanoseconds per send
+     */
+    private static long sends(PacketManager manager) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SENDS_PER_ROUND; i++) {
+            BenchPacket packet = new BenchPacket();
+            packet.name = "player-123";
+            packet.value = i;
+            manager.sendPacket(CHANNEL, packet);
+        }
+        return (System.nanoTime() - start) / SENDS_PER_ROUND;
+    }
+
+    /* -------------------------------------------------- */
+    /* Mesh                                               */
+    /* -------------------------------------------------- */
+
+    private static void roundTrip(String name, MeshSettings a, MeshSettings b) throws Exception {
+        TcpMeshPacketSender server = new TcpMeshPacketSender(b.withSecret(SECRET));
+        TcpMeshPacketSender client = new TcpMeshPacketSender(a.withSecret(SECRET).withPeers(List.of(server.getLocalAddress())));
+        PacketManager requester = node(client);
+        PacketManager responder = node(server);
+        responder.subscribeChannel(CHANNEL);
+        responder.subscribe(BenchPacket.class, (channel, packet) -> {
+            if (packet.isRequest()) responder.reply(packet, new BenchPacket());
+        });
+
+        await(() -> client.isReceivedByPeer(CHANNEL_NAME) && server.isConnected(client.getLocalAddress()), name + " mesh");
+
+        requests(requester, WARMUP_REQUESTS);
+        long[] nanos = requests(requester, REQUESTS);
+        Arrays.sort(nanos);
+        System.out.printf("%s round trip: avg %d us, p50 %d us, p99 %d us (%d requests)%n", name,
+                TimeUnit.NANOSECONDS.toMicros(Arrays.stream(nanos).sum() / nanos.length),
+                TimeUnit.NANOSECONDS.toMicros(nanos[nanos.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(nanos[nanos.length * 99 / 100]),
+                nanos.length);
+
+        requester.close();
+        responder.close();
+    }
+
+    private static long[] requests(PacketManager requester, int count) throws Exception {
+        long[] nanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            requester.request(CHANNEL, new BenchPacket(), BenchPacket.class, Duration.ofSeconds(5)).get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    /* -------------------------------------------------- */
+    /* Spool                                              */
+    /* -------------------------------------------------- */
+
+    /**
+     * Several rounds like the loopback: the first one also measures the JIT warming up.
+     */
+    private static void spool() throws Exception {
+        byte[] body = new byte[SPOOL_BODY_BYTES];
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .appId("bench").priority(5).expiration("60000").build();
+
+        for (int round = 1; round <= SPOOL_ROUNDS; round++) {
+            for (SpoolFsync fsync : SpoolFsync.values()) {
+                int count = fsync == SpoolFsync.ALWAYS ? SPOOLED_MESSAGES_FSYNC_ALWAYS : SPOOLED_MESSAGES;
+                Path dir = Files.createTempDirectory("oreo-spool-bench");
+                SpoolTarget broker = new SpoolTarget();
+                BufferedRabbitService service = new BufferedRabbitService(broker,
+                        RabbitBuffering.defaults().withSpool(RabbitSpooling.directory(dir).withFsync(fsync)));
+
+                long start = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    service.publish("bench", body, properties);
+                }
+                long appendNanos = System.nanoTime() - start;
+
+                broker.connected = true;
+                start = System.nanoTime();
+                await(() -> broker.received.sum() >= count, "spool replay");
+                long replayNanos = System.nanoTime() - start;
+
+                System.out.printf("spool round %d %s: append %d msg/s, replay %d msg/s (%d messages of %d bytes)%n",
+                        round, fsync, perSecond(count, appendNanos), perSecond(count, replayNanos),
+                        count, SPOOL_BODY_BYTES);
+
+                service.close();
+                deleteQuietly(dir);
+            }
+        }
+    }
+
+    private static long perSecond(int count, long nanos) {
+        return count * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+    }
+
+    /**
+     * Broker stand-in: refuses publishes until {@link #connected}, then only counts them.
+     */
+    private static final class SpoolTarget implements IRabbitService {
+        final LongAdder received = new LongAdder();
+        volatile boolean connected;
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void publish(String routingKey, String json) {
+            publish(routingKey, json.getBytes(StandardCharsets.UTF_8), null);
+        }
+
+        @Override
+        public void publish(String routingKey, byte[] data) {
+            publish(routingKey, data, null);
+        }
+
+        @Override
+        public void publish(String routingKey, byte[] data, AMQP.BasicProperties properties) {
+            if (!connected) throw new IllegalStateException("Not connected");
+            received.increment();
+        }
+
+        @Override
+        public RabbitSubscription subscribe(String routingKey, DeliverCallback callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void unsubscribe(RabbitSubscription sub) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /* -------------------------------------------------- */
+    /* Fixture                                            */
+    /* -------------------------------------------------- */
+
+    private static PacketManager node(PacketSender sender) {
+        PacketManager manager = new PacketManager(sender);
+        manager.init();
+        manager.setEnvelopeFormat(EnvelopeFormat.COMPACT);
+        manager.registerPacket(BenchPacket.class, BenchPacket::new);
+        return manager;
+    }
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0) throw new IllegalStateException("Timed out waiting for " + what);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException ignored) {
+        }
+    }
+
+    public static final class BenchPacket extends Packet {
+        String name = "";
+        int value;
+
+        @Override
+        protected void read(FriendlyByteInputStream stream) {
+            name = stream.readString();
+            value = stream.readVarInt();
+        }
+
+        @Override
+        protected void write(FriendlyByteOutputStream stream) {
+            stream.writeString(name);
+            stream.writeVarInt(value);
+        }
+    }
+}